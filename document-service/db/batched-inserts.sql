@@ -0,0 +1,14 @@
+-- Batched inserts for purge_intents, outbox_events and document_changes.
+--
+-- purge_intents ids now come from a pooled generator (100 ids per round trip) instead of
+-- AUTO_INCREMENT, so Hibernate can batch the inserts. MySQL has no sequences; Hibernate uses
+-- the purge_intents_seq table. Create and seed it past the existing ids BEFORE deploying:
+-- ddl-auto=update would otherwise create it starting at 1 and collide with existing rows.
+-- The pooled optimizer hands out the 100 ids up to the value it reads, hence + 100.
+
+CREATE TABLE purge_intents_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO purge_intents_seq (next_val) SELECT COALESCE(MAX(id), 0) + 100 FROM purge_intents;
+
+-- outbox_events and document_changes keep AUTO_INCREMENT: the id is the publish order and the
+-- change-feed sequence, and per-instance id blocks would break both. Their batches are written
+-- with one multi-row JDBC INSERT (rewriteBatchedStatements=true on the JDBC url). No change needed.
@@ -0,0 +1,16 @@
+-- Content-addressed deduplication: documents with identical content share one object.
+--
+-- ddl-auto=update adds documents.content_hash, idx_documents_content_hash and content_blobs by itself.
+-- It does not drop the old unique constraint on documents.storage_key, which deduplicated documents
+-- violate (they reuse the storage key of the first upload). Run this once on an existing database.
+
+SET @uk := (SELECT index_name FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'documents'
+              AND column_name = 'storage_key' AND non_unique = 0 LIMIT 1);
+SET @ddl := IF(@uk IS NULL, 'SELECT 1', CONCAT('ALTER TABLE documents DROP INDEX `', @uk, '`'));
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Existing documents have no content_hash: they keep their own object and are deleted as before.
+-- They become dedup sources only after being uploaded again.
@@ -0,0 +1,40 @@
+-- Hot/cold split of documents: DocumentArchiveJob moves DELETED documents and long-untouched
+-- PROCESSED/FAILED/QUARANTINE documents to documents_archive (documents.archive.* properties).
+--
+-- documents itself stays unpartitioned: MySQL needs the partitioning column in every unique key,
+-- so partitioning it on created_at would turn the primary key into (id, created_at) and make every
+-- lookup by id probe all partitions. Archival keeps it small instead; the archive, which is only
+-- appended to and read by id or owner, is the table partitioned on created_at.
+--
+-- ddl-auto=update creates documents_archive and idx_documents_status_updated by itself.
+-- Run this once, before setting documents.archive.enabled=true (the archive must still be empty).
+
+-- Partition the archive by creation year. Old years can later be dropped in one statement
+-- (ALTER TABLE documents_archive DROP PARTITION p2023) once they are past any retention need.
+ALTER TABLE documents_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at)
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p2023 VALUES LESS THAN ('2024-01-01'),
+        PARTITION p2024 VALUES LESS THAN ('2025-01-01'),
+        PARTITION p2025 VALUES LESS THAN ('2026-01-01'),
+        PARTITION p2026 VALUES LESS THAN ('2027-01-01'),
+        PARTITION p2027 VALUES LESS THAN ('2028-01-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Before pmax starts filling up, split the next year off it, e.g.:
+-- ALTER TABLE documents_archive REORGANIZE PARTITION pmax INTO (
+--     PARTITION p2028 VALUES LESS THAN ('2029-01-01'),
+--     PARTITION pmax VALUES LESS THAN (MAXVALUE)
+-- );
+
+-- The orphan reconciler looks archived documents up by storage key (prefix index, as on documents).
+CREATE INDEX idx_documents_archive_storage_key ON documents_archive (storage_key(255));
+
+-- idx_documents_status_updated (status, updated_at) replaces the status-only index.
+DROP INDEX idx_documents_status ON documents;
+
+-- After the first archival runs have moved most rows out, rebuild documents to give the space of
+-- the removed rows and index entries back (online in MySQL 8, but heavy I/O: run off-peak).
+-- OPTIMIZE TABLE documents;
@@ -0,0 +1,18 @@
+-- idempotency_keys: one row per (idempotency_key, owner_id) plus an expires_at index for the purge job.
+--
+-- ddl-auto=update creates uk_idempotency_key_owner and idx_idempotency_expires on its own, but the
+-- unique key cannot be added while duplicate rows exist (expired keys used to be re-inserted).
+-- Run this once before deploying on an existing database.
+
+-- 1) Keep the newest row per (idempotency_key, owner_id)
+DELETE k FROM idempotency_keys k
+JOIN idempotency_keys newer
+  ON newer.idempotency_key = k.idempotency_key
+ AND newer.owner_id = k.owner_id
+ AND (newer.created_at > k.created_at OR (newer.created_at = k.created_at AND newer.id > k.id));
+
+-- 2) Constraint + purge index; the old non-unique lookup index is covered by the unique key
+ALTER TABLE idempotency_keys
+  ADD CONSTRAINT uk_idempotency_key_owner UNIQUE (idempotency_key, owner_id),
+  ADD INDEX idx_idempotency_expires (expires_at),
+  DROP INDEX idx_idempotency_key_owner;
@@ -0,0 +1,8 @@
+-- Object purge: deletes go through purge_intents, orphans are found by storage key.
+--
+-- ddl-auto=update creates purge_intents on its own. The reconciler and the bucket notification
+-- listener look documents up by storage_key, which has no index since dedup dropped the unique
+-- key; a full-length index on varchar(1024) exceeds InnoDB's 3072-byte key limit, so use a prefix.
+-- Run this once.
+
+CREATE INDEX idx_documents_storage_key ON documents (storage_key(255));
@@ -0,0 +1,12 @@
+-- Outbox retry backoff: the relay only picks up rows whose next_attempt_at is due and that are
+-- below outbox.relay.max-attempts.
+--
+-- ddl-auto=update adds the nullable next_attempt_at column by itself (existing rows are due).
+-- Nothing else is required; rows that hit the attempt cap stay in the table:
+
+-- Parked events, for inspection
+-- SELECT id, destination, attempts, last_error, created_at FROM outbox_events
+--     WHERE attempts >= 15 ORDER BY id;
+
+-- Requeue them once the cause is fixed
+-- UPDATE outbox_events SET attempts = 0, next_attempt_at = NULL WHERE attempts >= 15;
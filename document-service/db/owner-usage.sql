@@ -0,0 +1,42 @@
+-- Usage counters: owner_usage holds per-owner counters over documents that are not DELETED
+-- (metric 'documents' per status, 'bytes', 'category' per metadata.category).
+--
+-- ddl-auto=update creates the table; the service only ever adds deltas to it, so it has to be
+-- seeded from the existing documents once. Run this while no instance is flushing deltas
+-- (before the first deployment of the counters, or with the service stopped); running it
+-- again the same way rebuilds counters that drifted (deltas lost when an instance died).
+-- Archived documents (documents_archive) count like the ones still in documents.
+
+START TRANSACTION;
+
+DELETE FROM owner_usage;
+
+INSERT INTO owner_usage (owner_id, metric, metric_key, amount, updated_at)
+SELECT owner_id, 'documents', status, COUNT(*), NOW(6)
+FROM (SELECT owner_id, status, size_bytes, metadata FROM documents
+      UNION ALL
+      SELECT owner_id, status, size_bytes, metadata FROM documents_archive) all_documents
+WHERE status <> 'DELETED'
+GROUP BY owner_id, status;
+
+INSERT INTO owner_usage (owner_id, metric, metric_key, amount, updated_at)
+SELECT owner_id, 'bytes', '', SUM(COALESCE(size_bytes, 0)), NOW(6)
+FROM (SELECT owner_id, status, size_bytes, metadata FROM documents
+      UNION ALL
+      SELECT owner_id, status, size_bytes, metadata FROM documents_archive) all_documents
+WHERE status <> 'DELETED'
+GROUP BY owner_id;
+
+INSERT INTO owner_usage (owner_id, metric, metric_key, amount, updated_at)
+SELECT owner_id, 'category', category, COUNT(*), NOW(6)
+FROM (
+    SELECT owner_id, LEFT(TRIM(JSON_VALUE(metadata, '$.category')), 128) AS category
+    FROM (SELECT owner_id, status, metadata FROM documents
+          UNION ALL
+          SELECT owner_id, status, metadata FROM documents_archive) all_documents
+    WHERE status <> 'DELETED'
+) categorized
+WHERE category IS NOT NULL AND category <> ''
+GROUP BY owner_id, category;
+
+COMMIT;
@@ -0,0 +1,86 @@
+-- Migrate UUID columns from char(36) to BINARY(16).
+--
+-- document-service maps UUIDs through
+--   spring.jpa.properties.hibernate.type.preferred_uuid_jdbc_type
+-- CHAR   -> char(36)   (existing databases, the default in application.properties)
+-- BINARY -> binary(16) (fresh databases, or after this migration)
+--
+-- New ids are time-ordered (UUIDv7) regardless of the column type, so this
+-- can run any time after the UuidV7 release. UUID_TO_BIN is used without the
+-- swap flag: v7 ids are already time-ordered and old v4 ids are random anyway.
+-- Text format in the API is unchanged.
+
+-- ---------------------------------------------------------------------------
+-- Phase 1 (online, application keeps running with CHAR)
+-- Add shadow columns, keep them filled for new rows, backfill old rows.
+-- ---------------------------------------------------------------------------
+
+ALTER TABLE documents ADD COLUMN id_bin BINARY(16) NULL, ALGORITHM=INSTANT;
+ALTER TABLE document_audit ADD COLUMN id_bin BINARY(16) NULL, ADD COLUMN document_id_bin BINARY(16) NULL, ALGORITHM=INSTANT;
+ALTER TABLE idempotency_keys ADD COLUMN id_bin BINARY(16) NULL, ADD COLUMN document_id_bin BINARY(16) NULL, ALGORITHM=INSTANT;
+ALTER TABLE outbox_events ADD COLUMN aggregate_id_bin BINARY(16) NULL, ALGORITHM=INSTANT;
+
+-- ids never change after insert, insert triggers are enough
+CREATE TRIGGER documents_uuid_bin BEFORE INSERT ON documents FOR EACH ROW
+    SET NEW.id_bin = UUID_TO_BIN(NEW.id);
+CREATE TRIGGER document_audit_uuid_bin BEFORE INSERT ON document_audit FOR EACH ROW
+    SET NEW.id_bin = UUID_TO_BIN(NEW.id), NEW.document_id_bin = UUID_TO_BIN(NEW.document_id);
+CREATE TRIGGER idempotency_keys_uuid_bin BEFORE INSERT ON idempotency_keys FOR EACH ROW
+    SET NEW.id_bin = UUID_TO_BIN(NEW.id), NEW.document_id_bin = UUID_TO_BIN(NEW.document_id);
+CREATE TRIGGER outbox_events_uuid_bin BEFORE INSERT ON outbox_events FOR EACH ROW
+    SET NEW.aggregate_id_bin = UUID_TO_BIN(NEW.aggregate_id);
+
+-- Backfill in small chunks to keep row locks and replication lag short.
+-- Repeat each statement until it reports 0 affected rows.
+UPDATE documents SET id_bin = UUID_TO_BIN(id) WHERE id_bin IS NULL LIMIT 5000;
+UPDATE document_audit SET id_bin = UUID_TO_BIN(id), document_id_bin = UUID_TO_BIN(document_id)
+    WHERE id_bin IS NULL LIMIT 5000;
+UPDATE idempotency_keys SET id_bin = UUID_TO_BIN(id), document_id_bin = UUID_TO_BIN(document_id)
+    WHERE id_bin IS NULL LIMIT 5000;
+UPDATE outbox_events SET aggregate_id_bin = UUID_TO_BIN(aggregate_id)
+    WHERE aggregate_id_bin IS NULL LIMIT 5000;
+
+-- ---------------------------------------------------------------------------
+-- Phase 2 (cutover)
+-- Pause writers (scale document-service to 0), swap the columns, then start
+-- document-service with preferred_uuid_jdbc_type=BINARY. The ALTERs rebuild
+-- the tables in place; on very large tables run the same ALTER clauses
+-- through pt-online-schema-change ahead of time and only do the rename-swap
+-- in the pause.
+-- ---------------------------------------------------------------------------
+
+DROP TRIGGER documents_uuid_bin;
+DROP TRIGGER document_audit_uuid_bin;
+DROP TRIGGER idempotency_keys_uuid_bin;
+DROP TRIGGER outbox_events_uuid_bin;
+
+ALTER TABLE documents
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE document_audit
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    DROP COLUMN document_id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    CHANGE COLUMN document_id_bin document_id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id),
+    ADD INDEX idx_audit_documentid (document_id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE idempotency_keys
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    DROP COLUMN document_id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    CHANGE COLUMN document_id_bin document_id BINARY(16) NULL,
+    ADD PRIMARY KEY (id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+ALTER TABLE outbox_events
+    DROP COLUMN aggregate_id,
+    CHANGE COLUMN aggregate_id_bin aggregate_id BINARY(16) NULL,
+    ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,187 @@
+package org.doc.document_service.archive;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.doc.document_service.domain.ArchivedDocument;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.repository.ArchivedDocumentRepository;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cold store for documents (documents_archive).
+ *
+ * The archive job moves rows out of documents; reads that miss the hot table
+ * fall back to the archive and get detached copies. Writes always work on
+ * documents: a write path that misses the hot table calls {@link #restore}
+ * first, which moves the rows back. Archiving and restoring are not changes
+ * of the document (no events, no change feed entry, usage unchanged).
+ *
+ * Dedup does not look into the archive: an upload whose only processed twin
+ * is archived is simply processed again.
+ *
+ * Metrics: documents.archive{action=archived|restored}.
+ */
+@Component
+public class DocumentArchive {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ArchivedDocumentRepository archivedDocumentRepository;
+
+    @Autowired
+    private DocumentMapper documentMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.archive.cold-after-days:0}")
+    private long coldAfterDays;
+
+    private Counter archived;
+    private Counter restored;
+
+    @PostConstruct
+    void init() {
+        archived = Counter.builder("documents.archive").tag("action", "archived").register(meterRegistry);
+        restored = Counter.builder("documents.archive").tag("action", "restored").register(meterRegistry);
+    }
+
+    /**
+     * Archived document as a detached {@link Document}: never save it, restore
+     * the document instead.
+     */
+    public Optional<Document> find(UUID documentId) {
+        return archivedDocumentRepository.findById(documentId).map(documentMapper::fromArchive);
+    }
+
+    public Optional<DocumentStatusView> findStatusView(UUID documentId) {
+        return archivedDocumentRepository.findStatusViewById(documentId);
+    }
+
+    public List<Document> findAllById(Collection<UUID> documentIds) {
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        return toDocuments(archivedDocumentRepository.findAllById(documentIds));
+    }
+
+    // Multi-get scoped to the owner, deleted documents excluded
+    public List<Document> findLive(String ownerId, Collection<UUID> documentIds) {
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        return toDocuments(archivedDocumentRepository.findByOwnerIdAndIdInAndStatusNot(ownerId, documentIds,
+                DocumentStatus.DELETED));
+    }
+
+    /**
+     * Keyset page of archived documents, same order and filters as the
+     * listing of documents (status null = all but DELETED).
+     */
+    public List<Document> findPage(String ownerId, DocumentStatus status, Instant afterCreatedAt, UUID afterId,
+            Limit limit) {
+        if (afterCreatedAt == null) {
+            return toDocuments(status != null
+                    ? archivedDocumentRepository.findFirstPageWithStatus(ownerId, status, limit)
+                    : archivedDocumentRepository.findFirstPage(ownerId, DocumentStatus.DELETED, limit));
+        }
+        return toDocuments(status != null
+                ? archivedDocumentRepository.findPageAfterWithStatus(ownerId, status, afterCreatedAt, afterId, limit)
+                : archivedDocumentRepository.findPageAfter(ownerId, DocumentStatus.DELETED, afterCreatedAt, afterId,
+                        limit));
+    }
+
+    /**
+     * Whether archived documents that aren't deleted can be newer than one
+     * created at createdAt, i.e. whether a full listing page ending there
+     * has to be merged with the archive. Such documents are archived only
+     * after cold-after-days without update, so all of them were created
+     * before that horizon.
+     */
+    public boolean mayHoldLiveCreatedAfter(Instant createdAt) {
+        return coldAfterDays > 0 && createdAt.isBefore(Instant.now().minus(Duration.ofDays(coldAfterDays)));
+    }
+
+    public long count(String ownerId, DocumentStatus status) {
+        return status != null ? archivedDocumentRepository.countByOwnerIdAndStatus(ownerId, status)
+                : archivedDocumentRepository.countByOwnerIdAndStatusNot(ownerId, DocumentStatus.DELETED);
+    }
+
+    // Storage keys archived live documents still point at
+    public List<String> findReferencedStorageKeys(Collection<String> storageKeys) {
+        return archivedDocumentRepository.findReferencedStorageKeys(storageKeys, DocumentStatus.DELETED);
+    }
+
+    /**
+     * Move archived documents back to documents. Ids that aren't archived
+     * are ignored. Must run in the caller's (writing) transaction; the rows
+     * are locked in both tables until it commits.
+     *
+     * @return ids of the documents moved back
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<UUID> restore(Collection<UUID> documentIds) {
+        if (documentIds.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = archivedDocumentRepository.lockStatusViewsByIdIn(documentIds).stream()
+                .map(DocumentStatusView::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        documentRepository.copyFromArchive(ids);
+        archivedDocumentRepository.deleteByIdIn(ids);
+        restored.increment(ids.size());
+        return ids;
+    }
+
+    /**
+     * Archive up to limit documents in one of the statuses that weren't
+     * updated since the cutoff: one INSERT ... SELECT into the archive and one
+     * DELETE, in one transaction. Rows a writer holds are skipped.
+     *
+     * @return number of documents archived (less than limit = none left)
+     */
+    @Transactional
+    public int archive(Collection<DocumentStatus> statuses, Instant updatedBefore, int limit) {
+        List<UUID> ids = documentRepository.lockArchivable(statuses, updatedBefore, Limit.of(limit)).stream()
+                .map(DocumentStatusView::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedDocumentRepository.copyFromDocuments(ids, Instant.now());
+        documentRepository.deleteByIdIn(ids);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+
+    private List<Document> toDocuments(List<ArchivedDocument> rows) {
+        List<Document> docs = new ArrayList<>(rows.size());
+        rows.forEach(row -> docs.add(documentMapper.fromArchive(row)));
+        return docs;
+    }
+}
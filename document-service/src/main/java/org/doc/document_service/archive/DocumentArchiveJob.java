@@ -0,0 +1,83 @@
+package org.doc.document_service.archive;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.doc.document_service.domain.DocumentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves cold rows out of documents into documents_archive, in batches:
+ * DELETED documents after documents.archive.deleted-after-days, and
+ * documents in a final status (PROCESSED, FAILED, QUARANTINE) nobody updated
+ * for documents.archive.cold-after-days (0 = keep them hot). Documents still
+ * uploading or processing are never archived.
+ *
+ * Instances don't overlap: each batch skips rows another transaction holds.
+ */
+@Component
+public class DocumentArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentArchiveJob.class);
+
+    private static final Set<DocumentStatus> DELETED = EnumSet.of(DocumentStatus.DELETED);
+    private static final Set<DocumentStatus> SETTLED = EnumSet.of(DocumentStatus.PROCESSED, DocumentStatus.FAILED,
+            DocumentStatus.QUARANTINE);
+
+    @Autowired
+    private DocumentArchive documentArchive;
+
+    @Value("${documents.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${documents.archive.deleted-after-days:30}")
+    private long deletedAfterDays;
+
+    @Value("${documents.archive.cold-after-days:0}")
+    private long coldAfterDays;
+
+    @Value("${documents.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${documents.archive.max-batches:20}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${documents.archive.interval-ms:600000}",
+            initialDelayString = "${documents.archive.initial-delay-ms:240000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        try {
+            long total = archive(DELETED, now.minus(Duration.ofDays(deletedAfterDays)));
+            if (coldAfterDays > 0) {
+                total += archive(SETTLED, now.minus(Duration.ofDays(coldAfterDays)));
+            }
+            if (total > 0) {
+                log.info("Archived {} documents", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Document archival failed", e);
+        }
+    }
+
+    private long archive(Set<DocumentStatus> statuses, Instant updatedBefore) {
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int moved = documentArchive.archive(statuses, updatedBefore, batchSize);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,13 @@
+package org.doc.document_service.audit;
+
+public enum AuditDurability {
+    /**
+     * Written in the caller's transaction; the action and its audit row commit together.
+     */
+    SYNC,
+    /**
+     * Queued after commit and written by the background writer in batches.
+     * May be dropped if the queue is full or the process dies before a flush.
+     */
+    ASYNC
+}
@@ -0,0 +1,204 @@
+package org.doc.document_service.audit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.doc.document_service.domain.AuditEntry;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.AuditRepository;
+import org.doc.document_service.util.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Audit pipeline for document_audit.
+ *
+ * Compliance-critical actions (audit.sync-actions) are written synchronously
+ * in the caller's transaction. Everything else is queued on a lock-free ring
+ * buffer once the caller's transaction has committed, and a background thread
+ * writes the entries as JDBC batch inserts. JSON serialization of the details
+ * happens on that thread too, not on the request path.
+ *
+ * Metrics: audit.queue.depth, audit.dropped, audit.written.
+ */
+@Component
+public class AuditWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    @Autowired
+    private AuditRepository auditRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.mode:ASYNC}")
+    private AuditDurability defaultDurability;
+
+    @Value("${audit.sync-actions:DELETE}")
+    private Set<String> syncActions;
+
+    @Value("${audit.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private MpscRingBuffer<PendingAudit> buffer;
+    private TransactionTemplate transactionTemplate;
+    private Counter dropped;
+    private Counter written;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        buffer = new MpscRingBuffer<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("audit.queue.depth", buffer, MpscRingBuffer::size).register(meterRegistry);
+        dropped = Counter.builder("audit.dropped").register(meterRegistry);
+        written = Counter.builder("audit.written").register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Record an action with the durability configured for it.
+     */
+    public void record(UUID documentId, String actorId, String action, Map<String, Object> details) {
+        AuditDurability durability = syncActions.contains(action) ? AuditDurability.SYNC : defaultDurability;
+        record(documentId, actorId, action, details, durability);
+    }
+
+    public void record(UUID documentId, String actorId, String action, Map<String, Object> details,
+            AuditDurability durability) {
+        if (durability == AuditDurability.SYNC) {
+            auditRepository.save(new AuditEntry(null, documentId, actorId, action, jsonMapper.toJson(details)));
+            return;
+        }
+
+        PendingAudit pending = new PendingAudit(documentId, actorId, action, details);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Don't audit actions that end up rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+    }
+
+    /**
+     * Record the same action for many documents: one batch insert when
+     * synchronous, one after-commit hand-off otherwise.
+     */
+    public void recordAll(Collection<UUID> documentIds, String actorId, String action, Map<String, Object> details) {
+        if (documentIds.isEmpty()) {
+            return;
+        }
+        if (syncActions.contains(action) || defaultDurability == AuditDurability.SYNC) {
+            String json = jsonMapper.toJson(details);
+            List<AuditEntry> entries = new ArrayList<>(documentIds.size());
+            for (UUID documentId : documentIds) {
+                entries.add(new AuditEntry(null, documentId, actorId, action, json));
+            }
+            auditRepository.persistAll(entries);
+            return;
+        }
+
+        List<PendingAudit> pending = new ArrayList<>(documentIds.size());
+        for (UUID documentId : documentIds) {
+            pending.add(new PendingAudit(documentId, actorId, action, details));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(AuditWriter.this::enqueue);
+                }
+            });
+        } else {
+            pending.forEach(this::enqueue);
+        }
+    }
+
+    private void enqueue(PendingAudit pending) {
+        if (!buffer.offer(pending)) {
+            dropped.increment();
+        }
+    }
+
+    private void runWriter() {
+        List<PendingAudit> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                }
+                continue;
+            }
+            try {
+                flush(batch);
+                written.increment(batch.size());
+            } catch (Exception e) {
+                // A failed batch is lost; keep the writer alive for the next ones
+                dropped.increment(batch.size());
+                log.warn("Failed to write {} audit entries", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingAudit> batch) {
+        List<AuditEntry> entries = new ArrayList<>(batch.size());
+        for (PendingAudit p : batch) {
+            entries.add(new AuditEntry(null, p.documentId(), p.actorId(), p.action(), jsonMapper.toJson(p.details())));
+        }
+        transactionTemplate.executeWithoutResult(status -> auditRepository.persistAll(entries));
+    }
+
+    private record PendingAudit(UUID documentId, String actorId, String action, Map<String, Object> details) {
+    }
+}
@@ -0,0 +1,59 @@
+package org.doc.document_service.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${documents.executor.pool-size:8}")
+    private int poolSize;
+
+    @Value("${documents.executor.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${documents.sse.dispatch-pool-size:4}")
+    private int ssePoolSize;
+
+    @Value("${documents.sse.dispatch-queue-capacity:10000}")
+    private int sseQueueCapacity;
+
+    /**
+     * Shared executor for fan-out work on the request path (e.g. presigning the
+     * URLs of a batch upload). When saturated the caller runs the task itself,
+     * so a burst slows down instead of failing.
+     */
+    @Bean(name = "documentTaskExecutor")
+    public Executor documentTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("doc-task-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes SSE events to subscribers, off the committing request thread. A
+     * slow client only holds up a dispatch thread; when the queue is full the
+     * publisher writes itself.
+     */
+    @Bean(name = "sseDispatchExecutor")
+    public Executor sseDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(ssePoolSize);
+        executor.setMaxPoolSize(ssePoolSize);
+        executor.setQueueCapacity(sseQueueCapacity);
+        executor.setThreadNamePrefix("sse-dispatch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
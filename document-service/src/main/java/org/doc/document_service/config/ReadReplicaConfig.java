@@ -0,0 +1,105 @@
+package org.doc.document_service.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.doc.document_service.datasource.ReadYourWritesTracker;
+import org.doc.document_service.datasource.ReplicaLagMonitor;
+import org.doc.document_service.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Read-replica routing, active when documents.datasource.replica.url is set.
+ *
+ * Replaces Boot's single DataSource with two Hikari pools (primary from
+ * spring.datasource.*, replica from documents.datasource.replica.*) behind
+ * {@link ReplicaRoutingDataSource}. Without a replica url nothing changes.
+ * Requires open-in-view off, which {@link ReplicaOpenInViewGuard} enforces.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "documents.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Same driver and, unless overridden, same credentials as the primary.
+     */
+    @Bean
+    @ConfigurationProperties("documents.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties primaryProperties,
+            @Value("${documents.datasource.replica.url}") String url,
+            @Value("${documents.datasource.replica.username:}") String username,
+            @Value("${documents.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? primaryProperties.determineUsername() : username)
+                .password(password.isEmpty() ? primaryProperties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${documents.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+            @Value("${documents.datasource.replica.heartbeat-interval-ms:1000}") long intervalMs,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primary, replica, Duration.ofMillis(maxLagMs), Duration.ofMillis(intervalMs),
+                meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${documents.datasource.replica.read-your-writes-ms:5000}") long windowMs,
+            @Value("${documents.datasource.replica.read-your-writes-max-callers:100000}") long maxCallers) {
+        return new ReadYourWritesTracker(Duration.ofMillis(windowMs), maxCallers);
+    }
+
+    /**
+     * The DataSource JPA and everything else uses. The lazy proxy defers
+     * taking a connection until the first statement, when the transaction's
+     * read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor lagMonitor,
+            ReadYourWritesTracker readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor, readYourWrites);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,47 @@
+package org.doc.document_service.config;
+
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Turns open-in-view off whenever read-replica routing is active.
+ *
+ * {@link ReadReplicaConfig} picks the pool when a transaction runs its first
+ * statement. With open-in-view a request keeps the connection of its first
+ * transaction, so a write after a read-only transaction in the same request
+ * (and every read after it) would go to the lagging replica. Unset, the
+ * property is forced to false; set to true explicitly, startup fails.
+ *
+ * Runs after config data (including the config server) is loaded; registered
+ * in META-INF/spring.factories.
+ */
+public class ReplicaOpenInViewGuard implements EnvironmentPostProcessor, Ordered {
+
+    static final String REPLICA_URL = "documents.datasource.replica.url";
+    static final String OPEN_IN_VIEW = "spring.jpa.open-in-view";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String replicaUrl = environment.getProperty(REPLICA_URL);
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return;
+        }
+        String openInView = environment.getProperty(OPEN_IN_VIEW);
+        if (openInView != null && Boolean.parseBoolean(openInView.trim())) {
+            throw new IllegalStateException(OPEN_IN_VIEW + "=true cannot be combined with " + REPLICA_URL
+                    + ": requests would keep a replica connection across transactions. Set it to false.");
+        }
+        environment.getPropertySources().addFirst(
+                new MapPropertySource("replicaOpenInViewGuard", Map.of(OPEN_IN_VIEW, "false")));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -1,13 +1,36 @@
 package org.doc.document_service.controller;
 
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentBatchCreateItem;
+import org.doc.document_service.dto.DocumentBatchCreateRequest;
+import org.doc.document_service.dto.DocumentBatchCreateResponse;
+import org.doc.document_service.dto.DocumentBulkDeleteRequest;
+import org.doc.document_service.dto.DocumentBulkResponse;
+import org.doc.document_service.dto.DocumentBulkUpdateRequest;
+import org.doc.document_service.dto.DocumentChangesResponse;
 import org.doc.document_service.dto.DocumentCompleteRequest;
 import org.doc.document_service.dto.DocumentCreateRequest;
 import org.doc.document_service.dto.DocumentCreateResponse;
 import org.doc.document_service.dto.DocumentListResponse;
+import org.doc.document_service.dto.DocumentLookupRequest;
+import org.doc.document_service.dto.DocumentLookupResponse;
 import org.doc.document_service.dto.DocumentMetadataResponse;
+import org.doc.document_service.dto.DocumentMultipartResponse;
+import org.doc.document_service.dto.DocumentPartsRequest;
+import org.doc.document_service.dto.DocumentStatsResponse;
 import org.doc.document_service.dto.DocumentStatusResponse;
+import org.doc.document_service.idempotency.IdempotencyStore;
 import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.service.UploadRejectedException;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.doc.document_service.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -15,10 +38,14 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/documents")
@@ -27,6 +54,15 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private DocumentEventHub documentEventHub;
+
+    @Value("${documents.sse.snapshot-limit:500}")
+    private int inFlightSnapshotLimit;
+
     /**
      * Create an upload intent and return a presigned PUT URL.
      *
@@ -44,16 +80,74 @@ public class DocumentController {
             Authentication authentication, // <- use Authentication
             @Validated @RequestBody DocumentCreateRequest request) {
         String ownerId = extractOwnerId(authentication);
-        DocumentCreateResponse resp = documentService.createUploadIntent(
-                ownerId,
-                request,
-                xRequestId,
-                idempotencyKey);
+        DocumentCreateResponse resp = retryOnStoredKeys(ownerId, keysOf(idempotencyKey),
+                () -> documentService.createUploadIntent(ownerId, request, xRequestId, idempotencyKey));
 
         URI location = URI.create("/documents/" + resp.getDocumentId());
         return ResponseEntity.created(location).body(resp);
     }
 
+    /**
+     * Create upload intents for many files at once (folder uploads).
+     * POST /documents/batch
+     *
+     * Per-file idempotency keys go in the items; X-Request-Id applies to the
+     * whole batch. Response items are in request order.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:create')")
+    @PostMapping("/batch")
+    public ResponseEntity<DocumentBatchCreateResponse> createUploadIntents(
+            @RequestHeader(value = "X-Request-Id", required = false) String xRequestId,
+            Authentication authentication,
+            @Validated @RequestBody DocumentBatchCreateRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        List<String> keys = request.getItems().stream()
+                .map(DocumentBatchCreateItem::getIdempotencyKey)
+                .filter(k -> k != null && !k.isBlank())
+                .toList();
+        DocumentBatchCreateResponse resp = retryOnStoredKeys(ownerId, keys,
+                () -> documentService.createUploadIntents(ownerId, request.getItems(), xRequestId));
+        return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+    }
+
+    /**
+     * Create a multipart upload intent for large files.
+     * POST /documents/multipart
+     *
+     * Returns one presigned PUT URL per part. Upload the parts (in parallel),
+     * then call PATCH /documents/{id}/complete to assemble them. size is required.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:create')")
+    @PostMapping("/multipart")
+    public ResponseEntity<DocumentMultipartResponse> createMultipartUploadIntent(
+            @RequestHeader(value = "X-Request-Id", required = false) String xRequestId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication,
+            @Validated @RequestBody DocumentCreateRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        DocumentMultipartResponse resp = retryOnStoredKeys(ownerId, keysOf(idempotencyKey),
+                () -> documentService.createMultipartUploadIntent(ownerId, request, xRequestId, idempotencyKey));
+
+        URI location = URI.create("/documents/" + resp.getDocumentId());
+        return ResponseEntity.created(location).body(resp);
+    }
+
+    /**
+     * Re-issue presigned URLs for parts of a multipart upload in progress
+     * (resume failed parts, or parts whose URL expired).
+     * POST /documents/{id}/parts
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:create')")
+    @PostMapping("/{id}/parts")
+    public ResponseEntity<DocumentMultipartResponse> presignParts(
+            @PathVariable("id") UUID documentId,
+            Authentication authentication,
+            @Validated @RequestBody DocumentPartsRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        DocumentMultipartResponse resp = documentService.presignParts(documentId, ownerId, request.getPartNumbers());
+        return ResponseEntity.ok(resp);
+    }
+
     @PatchMapping("/{id}/complete")
     public ResponseEntity<DocumentMetadataResponse> completeUpload(
             @PathVariable("id") UUID documentId,
@@ -74,7 +168,36 @@ public class DocumentController {
             Authentication authentication) {
         String caller = extractOwnerId(authentication);
         DocumentStatusResponse resp = documentService.getStatus(documentId, caller);
-        return ResponseEntity.ok(resp);
+        // Unchanged since the client's copy (If-None-Match) -> 304 without a body
+        return okWithETag(resp, resp.getLastUpdated());
+    }
+
+    /**
+     * Status changes of one document as Server-Sent Events ("status" events,
+     * AI results included once PROCESSED), instead of polling /status.
+     * Starts with the current state; ends after a terminal status.
+     * GET /documents/{id}/events
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(
+            @PathVariable("id") UUID documentId,
+            Authentication authentication) {
+        String caller = extractOwnerId(authentication);
+        return documentEventHub.subscribeDocument(documentId,
+                () -> documentService.getStatusEvent(documentId, caller));
+    }
+
+    /**
+     * Status changes of all of the caller's documents as Server-Sent Events.
+     * Starts with the documents currently in flight.
+     * GET /documents/events
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:read')")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerStatus(Authentication authentication) {
+        String ownerId = extractOwnerId(authentication);
+        return documentEventHub.subscribeOwner(ownerId,
+                () -> documentService.listInFlightEvents(ownerId, inFlightSnapshotLimit));
     }
 
     /**
@@ -91,25 +214,82 @@ public class DocumentController {
             Authentication authentication) {
         String caller = extractOwnerId(authentication);
         DocumentMetadataResponse resp = documentService.getMetadata(documentId, caller, download);
-        return ResponseEntity.ok(resp);
+        if (download) {
+            // Carries a freshly signed URL, never revalidate
+            return ResponseEntity.ok(resp);
+        }
+        return okWithETag(resp, resp.getUpdatedAt());
     }
 
     /**
      * List documents with pagination.
      * GET /documents?page=0&size=10
+     *
+     * Cursor mode (preferred for large accounts): pass ?cursor= (empty for the
+     * first page) and follow nextCursor. Optional ?status= filter and
+     * ?includeTotal=true for the total count.
      */
     @PreAuthorize("hasAuthority('SCOPE_doc:read')")
     @GetMapping
     public ResponseEntity<DocumentListResponse> listDocuments(
             Authentication authentication,
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "size", defaultValue = "10") int size) {
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "status", required = false) DocumentStatus status,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal) {
 
         String ownerId = extractOwnerId(authentication);
-        DocumentListResponse resp = documentService.listDocuments(ownerId, page, size);
+        DocumentListResponse resp = (cursor != null || status != null)
+                ? documentService.listDocumentsAfter(ownerId, cursor, size, status, includeTotal)
+                : documentService.listDocuments(ownerId, page, size);
         return ResponseEntity.ok(resp);
     }
 
+    /**
+     * Incremental sync: the caller's documents created, updated or deleted
+     * (tombstones) since the cursor of the previous call, oldest change first.
+     * Without ?since= (first sync) it only returns the cursor to start from.
+     * GET /documents/changes?since=...&limit=100
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:read')")
+    @GetMapping("/changes")
+    public ResponseEntity<DocumentChangesResponse> listChanges(
+            Authentication authentication,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        String ownerId = extractOwnerId(authentication);
+        return ResponseEntity.ok(documentService.listChanges(ownerId, since, limit));
+    }
+
+    /**
+     * Metadata of many documents in one call (e.g. a page of search hits),
+     * optionally with download URLs. Ids that aren't the caller's come back
+     * in notFound.
+     * POST /documents/lookup
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:read')")
+    @PostMapping("/lookup")
+    public ResponseEntity<DocumentLookupResponse> lookupDocuments(
+            Authentication authentication,
+            @Validated @RequestBody DocumentLookupRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        return ResponseEntity.ok(documentService.lookupDocuments(request.getDocumentIds(), ownerId,
+                request.isDownload()));
+    }
+
+    /**
+     * Usage of the caller: documents per status and AI category, bytes stored,
+     * quotas. Served from counters, so it may trail by a few seconds.
+     * GET /documents/stats
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:read')")
+    @GetMapping("/stats")
+    public ResponseEntity<DocumentStatsResponse> getStats(Authentication authentication) {
+        String ownerId = extractOwnerId(authentication);
+        return ResponseEntity.ok(documentService.getStats(ownerId));
+    }
+
     /**
      * Delete a document.
      * DELETE /documents/{id}
@@ -124,6 +304,32 @@ public class DocumentController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Delete many documents at once.
+     * POST /documents/bulk-delete
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:delete')")
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<DocumentBulkResponse> bulkDelete(
+            Authentication authentication,
+            @Validated @RequestBody DocumentBulkDeleteRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        return ResponseEntity.ok(documentService.bulkDelete(request.getDocumentIds(), ownerId));
+    }
+
+    /**
+     * Change visibility and/or metadata of many documents at once.
+     * POST /documents/bulk-update
+     */
+    @PreAuthorize("hasAuthority('SCOPE_doc:update')")
+    @PostMapping("/bulk-update")
+    public ResponseEntity<DocumentBulkResponse> bulkUpdate(
+            Authentication authentication,
+            @Validated @RequestBody DocumentBulkUpdateRequest request) {
+        String ownerId = extractOwnerId(authentication);
+        return ResponseEntity.ok(documentService.bulkUpdate(request, ownerId));
+    }
+
     private String extractOwnerId(Authentication authentication) {
         if (authentication == null) {
             throw new IllegalStateException("No authentication present");
@@ -165,4 +371,60 @@ public class DocumentController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * A cursor or since token we didn't issue is the client's mistake: 400, not 500.
+     */
+    @ExceptionHandler(CursorCodec.InvalidCursorException.class)
+    public ResponseEntity<ProblemDetail> invalidCursor(CursorCodec.InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                e.getMessage()));
+    }
+
+    /**
+     * An upload that doesn't match its intent: the document is FAILED, 422.
+     */
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<ProblemDetail> uploadRejected(UploadRejectedException e) {
+        return ResponseEntity.unprocessableEntity().body(ProblemDetail.forStatusAndDetail(
+                HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+    }
+
+    /**
+     * Run a create that stores idempotency keys. If the INSERT hits
+     * uk_idempotency_key_owner, a concurrent request (or another instance)
+     * stored one of the keys first: mark them seen and retry once, this time
+     * reading the stored keys from the database. Without keys there is
+     * nothing to replay and the violation is rethrown.
+     */
+    private <T> T retryOnStoredKeys(String ownerId, List<String> idempotencyKeys, Supplier<T> create) {
+        try {
+            return create.get();
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKeys.isEmpty()) {
+                throw e;
+            }
+            idempotencyStore.markSeen(ownerId, idempotencyKeys);
+            return create.get();
+        }
+    }
+
+    private static List<String> keysOf(String idempotencyKey) {
+        return idempotencyKey == null || idempotencyKey.isBlank() ? List.of() : List.of(idempotencyKey);
+    }
+
+    /**
+     * 200 with a strong ETag from the document's updatedAt (microsecond
+     * precision, bumped by every write). Spring answers a matching
+     * If-None-Match with 304; no-cache makes browsers revalidate every time.
+     */
+    private static <T> ResponseEntity<T> okWithETag(T body, Instant updatedAt) {
+        if (updatedAt == null) {
+            return ResponseEntity.ok(body);
+        }
+        long micros = updatedAt.getEpochSecond() * 1_000_000L + updatedAt.getNano() / 1_000;
+        return ResponseEntity.ok()
+                .eTag("\"" + Long.toHexString(micros) + "\"")
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
 }
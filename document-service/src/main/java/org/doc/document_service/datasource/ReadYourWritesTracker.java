@@ -0,0 +1,57 @@
+package org.doc.document_service.datasource;
+
+import java.time.Duration;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers callers (JWT subject) that committed a write in the last
+ * window, so their reads go to the primary until the replica has surely
+ * caught up. The window should exceed the allowed replica lag.
+ *
+ * Per instance: a caller whose next request lands on another instance is
+ * only covered by the lag threshold there.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxCallers) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxCallers)
+                .build();
+    }
+
+    /**
+     * Called when the current (read-write) transaction takes a connection.
+     */
+    public void recordWriteAfterCommit() {
+        String caller = currentCaller();
+        if (caller == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(caller, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean wroteRecently() {
+        String caller = currentCaller();
+        return caller != null && recentWriters.getIfPresent(caller) != null;
+    }
+
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
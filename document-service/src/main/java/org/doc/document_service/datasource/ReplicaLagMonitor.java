@@ -0,0 +1,84 @@
+package org.doc.document_service.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Measures replication lag with a heartbeat row (replica_heartbeat): each
+ * tick writes the current time on the primary and reads back what the
+ * replica has. Both timestamps come from this instance's clock, so server
+ * clock skew doesn't matter; the result over-reports by up to one interval.
+ *
+ * The replica is usable while the measured lag is within max-lag. A failed
+ * write or read, or no measurement within three intervals, counts as
+ * unusable, so reads fall back to the primary.
+ *
+ * Metrics: documents.datasource.replica.lag (ms, -1 = unknown).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long intervalMs;
+
+    private volatile long lagMs = -1;
+    private volatile long measuredAtNanos;
+    private boolean failing;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration interval,
+            MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMs = maxLag.toMillis();
+        this.intervalMs = interval.toMillis();
+        Gauge.builder("documents.datasource.replica.lag", this, m -> m.lagMs).register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        long lag = lagMs;
+        return lag >= 0 && lag <= maxLagMs
+                && System.nanoTime() - measuredAtNanos < Duration.ofMillis(intervalMs * 3).toNanos();
+    }
+
+    @Scheduled(fixedDelayString = "${documents.datasource.replica.heartbeat-interval-ms:1000}")
+    public void measure() {
+        try {
+            Timestamp now = Timestamp.from(Instant.now());
+            primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE beat_at = ?", HEARTBEAT_ID, now, now);
+            Timestamp seen = replica.query("SELECT beat_at FROM replica_heartbeat WHERE id = ?",
+                    rs -> rs.next() ? rs.getTimestamp(1) : null, HEARTBEAT_ID);
+            if (seen == null) {
+                // Row not replicated yet
+                lagMs = -1;
+                return;
+            }
+            lagMs = Math.max(0, Duration.between(seen.toInstant(), Instant.now()).toMillis());
+            measuredAtNanos = System.nanoTime();
+            failing = false;
+        } catch (RuntimeException e) {
+            lagMs = -1;
+            if (!failing) {
+                // Once per outage, not every tick
+                log.warn("Replica lag check failed, reading from primary", e);
+                failing = true;
+            }
+        }
+    }
+}
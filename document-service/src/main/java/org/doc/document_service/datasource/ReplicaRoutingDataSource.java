@@ -0,0 +1,64 @@
+package org.doc.document_service.datasource;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the
+ * primary.
+ *
+ * A read-only transaction still goes to the primary when the replica lags
+ * more than allowed (or its lag is unknown), when the caller wrote within the
+ * read-your-writes window, or inside {@link #onPrimary}. Must sit behind a
+ * LazyConnectionDataSourceProxy so the decision is made at the first
+ * statement, after the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /**
+     * Run reads that must not be stale on the primary, e.g. loads that get
+     * cached. No effect without a replica.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (Boolean.TRUE.equals(FORCE_PRIMARY.get())) {
+            return reads.get();
+        }
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            FORCE_PRIMARY.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                readYourWrites.recordWriteAfterCommit();
+            }
+            return Target.PRIMARY;
+        }
+        if (Boolean.TRUE.equals(FORCE_PRIMARY.get()) || !lagMonitor.isReplicaUsable()
+                || readYourWrites.wroteRecently()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
@@ -0,0 +1,86 @@
+package org.doc.document_service.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Cold copy of a document moved out of the documents table by
+ * DocumentArchiveJob: deleted ones, and ones nobody touched for a long time.
+ * Same columns as {@link Document} plus the time it was archived.
+ *
+ * The table is range-partitioned on created_at (see db/documents-archive.sql),
+ * so its primary key is (id, created_at) in the database; ids are still
+ * unique, a row only ever lives in one of the two tables.
+ */
+@Entity
+@Table(name = "documents_archive",
+       indexes = {
+           // Keyset listing fallback, as on documents
+           @Index(name = "idx_documents_archive_owner_created", columnList = "owner_id, created_at, id"),
+           @Index(name = "idx_documents_archive_owner_status_created", columnList = "owner_id, status, created_at, id")
+       })
+@Data
+public class ArchivedDocument {
+
+    @Id
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "owner_id", nullable = false, length = 255)
+    private String ownerId;
+
+    @Column(name = "tenant_id", length = 255)
+    private String tenantId;
+
+    @Column(name = "filename", nullable = false, length = 1024)
+    private String filename;
+
+    @Column(name = "mime_type", length = 255)
+    private String mimeType;
+
+    @Column(name = "size_bytes")
+    private Long size;
+
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 32)
+    private DocumentStatus status;
+
+    @Column(name = "checksum", length = 128)
+    private String checksum;
+
+    @Column(name = "content_hash", length = 128)
+    private String contentHash;
+
+    @Column(name = "visibility", length = 32)
+    private String visibility;
+
+    @Column(name = "metadata", columnDefinition = "json")
+    private String metadata;
+
+    @Column(name = "upload_id", length = 1024)
+    private String uploadId;
+
+    @Column(name = "part_count")
+    private Integer partCount;
+
+    @Column(name = "part_size_bytes")
+    private Long partSize;
+
+    @Column(name = "request_id", nullable = false, length = 255)
+    private String requestId;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant createdAt;
+
+    @Column(name = "updated_at", columnDefinition = "datetime(6)")
+    private Instant updatedAt;
+
+    @Column(name = "archived_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant archivedAt;
+}
@@ -1,10 +1,10 @@
 package org.doc.document_service.domain;
 
 import jakarta.persistence.*;
+import org.doc.document_service.util.UuidV7;
 import lombok.Data;
 
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.JdbcTypeCode;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -18,12 +18,10 @@ import java.util.UUID;
 public class AuditEntry {
 
     @Id
-    @Column(name = "id", columnDefinition = "char(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "id")
     private UUID id;
 
-    @Column(name = "document_id", columnDefinition = "char(36)", nullable = false)
-     @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "document_id", nullable = false)
     private UUID documentId;
 
     /**
@@ -52,7 +50,7 @@ public class AuditEntry {
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = UUID.randomUUID();
+            this.id = UuidV7.next();
         }
     }
 
@@ -0,0 +1,32 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stored copy of a piece of content, with the number of documents
+ * referencing it. Documents with the same content hash share the object; it
+ * is only deleted when the last of them is.
+ */
+@Entity
+@Table(name = "content_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 128)
+    private String contentHash;
+
+    /**
+     * Object holding the content (the key of the first upload of it)
+     */
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+}
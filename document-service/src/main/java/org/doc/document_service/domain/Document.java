@@ -4,10 +4,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 import jakarta.persistence.*;
+import org.doc.document_service.util.UuidV7;
 import lombok.Data;
 
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 import java.util.UUID;
@@ -15,15 +15,20 @@ import java.util.UUID;
 @Entity
 @Table(name = "documents",
        indexes = {
-           @Index(name = "idx_documents_ownerid", columnList = "owner_id"),
-           @Index(name = "idx_documents_status", columnList = "status")
+           // Keyset listing (newest first); also covers plain owner_id lookups
+           @Index(name = "idx_documents_owner_created", columnList = "owner_id, created_at, id"),
+           // Keyset listing filtered by status
+           @Index(name = "idx_documents_owner_status_created", columnList = "owner_id, status, created_at, id"),
+           // Status scans (multipart sweeper, archival of long-untouched documents)
+           @Index(name = "idx_documents_status_updated", columnList = "status, updated_at"),
+           // Content-addressed dedup lookups
+           @Index(name = "idx_documents_content_hash", columnList = "content_hash, status")
        })
 @Data
 public class Document {
 
     @Id
-    @Column(name = "id", columnDefinition = "char(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "id")
     private UUID id;
 
     @Column(name = "owner_id", nullable = false, length = 255)
@@ -43,8 +48,9 @@ public class Document {
 
     /**
      * Storage key in the object store; include document id in the path to avoid collisions.
+     * Deduplicated documents point at the key of the first upload of the same content.
      */
-    @Column(name = "storage_key", nullable = false, unique = true, length = 1024)
+    @Column(name = "storage_key", nullable = false, length = 1024)
     private String storageKey;
 
     @Enumerated(EnumType.STRING)
@@ -54,6 +60,13 @@ public class Document {
     @Column(name = "checksum", length = 128)
     private String checksum;
 
+    /**
+     * Content identity as computed by the object store (ETag + size), set once
+     * the upload is complete. Client checksums are not trusted for dedup.
+     */
+    @Column(name = "content_hash", length = 128)
+    private String contentHash;
+
     /**
      * Visibility: private/shared/public (enforce in app layer)
      */
@@ -67,6 +80,19 @@ public class Document {
     @Column(name = "metadata", columnDefinition = "json")
     private String metadata;
 
+    /**
+     * Multipart upload in progress (null for single-PUT uploads and once the
+     * parts have been assembled or aborted).
+     */
+    @Column(name = "upload_id", length = 1024)
+    private String uploadId;
+
+    @Column(name = "part_count")
+    private Integer partCount;
+
+    @Column(name = "part_size_bytes")
+    private Long partSize;
+
     @Column(name = "request_id", nullable = false, length = 255)
     private String requestId;
 
@@ -82,7 +108,7 @@ public class Document {
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = UUID.randomUUID();
+            this.id = UuidV7.next();
         }
     }
 }
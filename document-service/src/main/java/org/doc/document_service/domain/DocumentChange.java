@@ -0,0 +1,41 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the change feed: the document was created, updated or
+ * deleted. Written in the same transaction as the change; the feed returns
+ * the document's current state (or a tombstone), not the change itself.
+ */
+@Entity
+@Table(name = "document_changes",
+       indexes = {
+           // Per-owner feed in sequence order
+           @Index(name = "idx_document_changes_owner_seq", columnList = "owner_id, id"),
+           // Settle horizon and retention purge
+           @Index(name = "idx_document_changes_recorded", columnList = "recorded_at")
+       })
+@Data
+public class DocumentChange {
+
+    /**
+     * Auto-increment id doubles as the feed sequence. Batches go through
+     * {@code DocumentChangeRepository.insertAll}, which keeps that order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false, length = 255)
+    private String ownerId;
+
+    @Column(name = "document_id", nullable = false)
+    private UUID documentId;
+
+    @Column(name = "recorded_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant recordedAt;
+}
@@ -1,5 +1,10 @@
 package org.doc.document_service.domain;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum DocumentStatus {
     UPLOADING,
     UPLOADED,
@@ -7,5 +12,36 @@ public enum DocumentStatus {
     PROCESSED,
     FAILED,
     QUARANTINE,
-    DELETED
+    DELETED;
+
+    // Allowed transitions; DELETED is final
+    private static final Map<DocumentStatus, Set<DocumentStatus>> TRANSITIONS = new EnumMap<>(DocumentStatus.class);
+
+    static {
+        TRANSITIONS.put(UPLOADING, EnumSet.of(UPLOADED, FAILED, DELETED));
+        // UPLOADED -> PROCESSED: deduplicated content, or AI results before the worker reported PROCESSING
+        TRANSITIONS.put(UPLOADED, EnumSet.of(PROCESSING, PROCESSED, FAILED, QUARANTINE, DELETED));
+        TRANSITIONS.put(PROCESSING, EnumSet.of(PROCESSED, FAILED, QUARANTINE, DELETED));
+        TRANSITIONS.put(PROCESSED, EnumSet.of(DELETED));
+        TRANSITIONS.put(FAILED, EnumSet.of(DELETED));
+        TRANSITIONS.put(QUARANTINE, EnumSet.of(DELETED));
+        TRANSITIONS.put(DELETED, EnumSet.noneOf(DocumentStatus.class));
+    }
+
+    public boolean canTransitionTo(DocumentStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * Statuses this one can be reached from.
+     */
+    public Set<DocumentStatus> reachableFrom() {
+        Set<DocumentStatus> from = EnumSet.noneOf(DocumentStatus.class);
+        TRANSITIONS.forEach((status, next) -> {
+            if (next.contains(this)) {
+                from.add(status);
+            }
+        });
+        return from;
+    }
 }
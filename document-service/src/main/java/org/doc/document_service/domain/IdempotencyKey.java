@@ -1,24 +1,28 @@
 package org.doc.document_service.domain;
 import jakarta.persistence.*;
+import org.doc.document_service.util.UuidV7;
 import lombok.Data;
 
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.JdbcTypeCode;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "idempotency_keys",
+       uniqueConstraints = {
+           // One row per (key, owner): concurrent first uses on different instances collide here
+           @UniqueConstraint(name = "uk_idempotency_key_owner", columnNames = { "idempotency_key", "owner_id" })
+       },
        indexes = {
-           @Index(name = "idx_idempotency_key_owner", columnList = "idempotency_key, owner_id")
+           // Purge walks expired rows in expires_at order
+           @Index(name = "idx_idempotency_expires", columnList = "expires_at")
        })
 @Data
 public class IdempotencyKey {
 
     @Id
-    @Column(name = "id", columnDefinition = "char(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "id")
     private UUID id;
 
     @Column(name = "idempotency_key", nullable = false, length = 512)
@@ -30,8 +34,7 @@ public class IdempotencyKey {
     /**
      * The document id returned for this idempotent request
      */
-    @Column(name = "document_id", columnDefinition = "char(36)")
-    @JdbcTypeCode(java.sql.Types.VARCHAR)
+    @Column(name = "document_id")
     private UUID documentId;
 
     @CreationTimestamp
@@ -44,7 +47,7 @@ public class IdempotencyKey {
     @PrePersist
     public void ensureId() {
         if (this.id == null) {
-            this.id = UUID.randomUUID();
+            this.id = UuidV7.next();
         }
     }
 }
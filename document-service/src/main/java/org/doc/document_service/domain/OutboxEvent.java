@@ -0,0 +1,63 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Message waiting to be published, written in the same transaction as the
+ * state change it announces. The outbox relay sends it and deletes the row
+ * once the broker confirmed it.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+public class OutboxEvent {
+
+    /**
+     * Auto-increment id doubles as publish order. Batches go through
+     * {@code OutboxEventRepository.insertAll}, which keeps that order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Spring Cloud Stream binding name, e.g. documentUploaded-out-0
+     */
+    @Column(name = "destination", nullable = false, length = 255)
+    private String destination;
+
+    @Column(name = "aggregate_id")
+    private UUID aggregateId;
+
+    /**
+     * Serialized message body (MySQL JSON)
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "json")
+    private String payload;
+
+    /**
+     * Failed publish attempts so far
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    /**
+     * Earliest time the relay picks the row up (null = right away): pushed
+     * out while a relay has it in flight, then by the retry backoff
+     */
+    @Column(name = "next_attempt_at", columnDefinition = "datetime(6)")
+    private Instant nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant createdAt;
+}
@@ -0,0 +1,52 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One usage counter of one owner, over documents that are not DELETED:
+ * metric "documents" per status, "bytes" (key ""), "category" per AI category.
+ * Maintained incrementally by UsageAccounting; never computed from documents.
+ */
+@Entity
+@Table(name = "owner_usage")
+@IdClass(OwnerUsage.Key.class)
+@Data
+public class OwnerUsage {
+
+    public static final String DOCUMENTS = "documents";
+    public static final String BYTES = "bytes";
+    public static final String CATEGORY = "category";
+
+    @Id
+    @Column(name = "owner_id", length = 255)
+    private String ownerId;
+
+    @Id
+    @Column(name = "metric", length = 16)
+    private String metric;
+
+    @Id
+    @Column(name = "metric_key", length = 128)
+    private String metricKey;
+
+    @Column(name = "amount", nullable = false)
+    private long amount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String ownerId;
+        private String metric;
+        private String metricKey;
+    }
+}
@@ -0,0 +1,56 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * An object to be removed from storage, written in the same transaction that
+ * stopped referencing it. The purge worker deletes the object and then the
+ * row; failed deletes are retried with backoff.
+ */
+@Entity
+@Table(name = "purge_intents",
+       indexes = {
+           @Index(name = "idx_purge_intents_next_attempt", columnList = "next_attempt_at, id")
+       })
+@Data
+public class PurgeIntent {
+
+    /**
+     * Pooled ids (a table on MySQL) so enqueueAll goes out as JDBC batches;
+     * the worker orders by next_attempt_at, the id is only a tie-breaker.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purge_intents_seq")
+    @SequenceGenerator(name = "purge_intents_seq", sequenceName = "purge_intents_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+
+    /**
+     * Why the object goes: DELETE, DEDUPLICATE or ORPHAN
+     */
+    @Column(name = "reason", nullable = false, length = 32)
+    private String reason;
+
+    /**
+     * Failed delete attempts so far
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant createdAt;
+}
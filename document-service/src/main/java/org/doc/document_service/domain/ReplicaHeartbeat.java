@@ -0,0 +1,23 @@
+package org.doc.document_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Single row written to the primary every second and read back from the
+ * replica to measure replication lag (read-replica routing only).
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Data
+public class ReplicaHeartbeat {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "beat_at", nullable = false, columnDefinition = "datetime(6)")
+    private Instant beatAt;
+}
@@ -0,0 +1,17 @@
+package org.doc.document_service.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * One file of a batch upload intent. Same fields as a single create request,
+ * plus the per-file idempotency key (the header can't carry one per file).
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class DocumentBatchCreateItem extends DocumentCreateRequest {
+
+    @Size(max = 512, message = "idempotencyKey too long")
+    private String idempotencyKey;
+}
@@ -0,0 +1,16 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DocumentBatchCreateRequest {
+
+    @NotEmpty(message = "items are required")
+    @Size(max = 2000, message = "too many items in one batch (max 2000)")
+    private List<@Valid DocumentBatchCreateItem> items;
+}
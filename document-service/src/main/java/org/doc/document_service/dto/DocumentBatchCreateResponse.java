@@ -0,0 +1,14 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class DocumentBatchCreateResponse {
+
+    /**
+     * One entry per requested item, in request order.
+     */
+    private List<DocumentCreateResponse> items;
+}
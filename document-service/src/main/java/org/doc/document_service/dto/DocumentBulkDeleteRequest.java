@@ -0,0 +1,17 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DocumentBulkDeleteRequest {
+
+    @NotEmpty(message = "documentIds are required")
+    @Size(max = 10000, message = "too many documents in one request (max 10000)")
+    private List<@NotNull UUID> documentIds;
+}
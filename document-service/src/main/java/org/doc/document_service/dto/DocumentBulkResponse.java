@@ -0,0 +1,26 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class DocumentBulkResponse {
+
+    /**
+     * Documents the change was applied to (for deletes, including ones
+     * that were already deleted)
+     */
+    private int processed;
+
+    /**
+     * Requested ids with no such document (or, for updates, a deleted one)
+     */
+    private List<UUID> notFound;
+
+    /**
+     * Requested ids the caller is not allowed to change
+     */
+    private List<UUID> forbidden;
+}
@@ -0,0 +1,31 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Same change applied to many documents. At least one of visibility and
+ * metadata is required.
+ */
+@Data
+public class DocumentBulkUpdateRequest {
+
+    @NotEmpty(message = "documentIds are required")
+    @Size(max = 10000, message = "too many documents in one request (max 10000)")
+    private List<@NotNull UUID> documentIds;
+
+    @Pattern(regexp = "^(private|shared|public)$", message = "invalid visibility")
+    private String visibility;
+
+    /**
+     * Merged into each document's metadata (JSON merge-patch: null removes a key)
+     */
+    private Map<String, Object> metadata;
+}
@@ -0,0 +1,21 @@
+package org.doc.document_service.dto;
+
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class DocumentChangeItem {
+
+    private UUID documentId;
+
+    /**
+     * Tombstone: the document was deleted; drop it locally
+     */
+    private boolean deleted;
+
+    /**
+     * Current state; null for tombstones
+     */
+    private DocumentListItem document;
+}
@@ -0,0 +1,31 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class DocumentChangesResponse {
+
+    /**
+     * Documents changed after the cursor, each once, in the order of its
+     * latest change
+     */
+    private List<DocumentChangeItem> items;
+
+    /**
+     * Pass as ?since= next time; always set
+     */
+    private String nextCursor;
+
+    /**
+     * More changes are available right away
+     */
+    private boolean hasMore;
+
+    /**
+     * The cursor is older than the retained changes (or none was given): list
+     * everything again, then continue from nextCursor (taken before listing)
+     */
+    private boolean resyncRequired;
+}
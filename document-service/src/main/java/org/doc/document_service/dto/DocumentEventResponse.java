@@ -0,0 +1,23 @@
+package org.doc.document_service.dto;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import lombok.Data;
+
+/**
+ * Data of a "status" server-sent event.
+ */
+@Data
+public class DocumentEventResponse {
+
+    private UUID documentId;
+    private String status;
+    private Instant lastUpdated;
+
+    /**
+     * AI results written by this change, if any
+     */
+    private Map<String, Object> metadata;
+}
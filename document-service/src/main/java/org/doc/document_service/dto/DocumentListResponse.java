@@ -10,5 +10,14 @@ public class DocumentListResponse {
     private List<DocumentListItem> items;
     private int page;
     private int size;
-    private long total;
+
+    /**
+     * Total number of documents; null in cursor mode unless requested.
+     */
+    private Long total;
+
+    /**
+     * Cursor mode only: pass as ?cursor= to get the next page; null on the last page.
+     */
+    private String nextCursor;
 }
@@ -0,0 +1,22 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DocumentLookupRequest {
+
+    @NotEmpty(message = "documentIds are required")
+    @Size(max = 500, message = "too many documents in one request (max 500)")
+    private List<@NotNull UUID> documentIds;
+
+    /**
+     * Attach presigned GET URLs to downloadable documents
+     */
+    private boolean download;
+}
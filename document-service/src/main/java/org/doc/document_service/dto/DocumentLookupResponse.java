@@ -0,0 +1,21 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class DocumentLookupResponse {
+
+    /**
+     * Found documents, in request order (duplicates collapsed)
+     */
+    private List<DocumentMetadataResponse> items;
+
+    /**
+     * Requested ids with no document of the caller (missing, deleted or
+     * someone else's; not told apart)
+     */
+    private List<UUID> notFound;
+}
@@ -1,9 +1,10 @@
 package org.doc.document_service.dto;
 
 import java.time.Instant;
-import java.util.Map;
 import java.util.UUID;
 
+import org.doc.document_service.mapper.MetadataView;
+
 import lombok.Data;
 
 @Data
@@ -18,7 +19,10 @@ public class DocumentMetadataResponse {
     private String status;
     private String checksum;
     private String visibility;
-    private Map<String, Object> metadata;
+    /**
+     * Stored metadata JSON, written to the response as-is (parsed only if read).
+     */
+    private MetadataView metadata;
     private Instant createdAt;
     private Instant updatedAt;
     private String requestId;
@@ -0,0 +1,31 @@
+package org.doc.document_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Data;
+
+@Data
+public class DocumentMultipartResponse {
+
+    private UUID documentId;
+    private String storageKey;
+    private String status;
+
+    /**
+     * Bytes per part; every part but the last must be exactly this size.
+     */
+    private Long partSize;
+
+    private Integer partCount;
+
+    /**
+     * Presigned part URLs (empty once the upload has been assembled).
+     */
+    private List<DocumentPartUrl> parts;
+
+    private Instant presignedUrlExpiresAt;
+
+    private Long ttlSeconds;
+}
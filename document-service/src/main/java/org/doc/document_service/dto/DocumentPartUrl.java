@@ -0,0 +1,19 @@
+package org.doc.document_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPartUrl {
+
+    private int partNumber;
+
+    /**
+     * Presigned PUT URL for this part; the ETag header of the PUT response is
+     * not needed, the server lists the parts itself on complete.
+     */
+    private String url;
+}
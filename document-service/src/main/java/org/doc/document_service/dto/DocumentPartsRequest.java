@@ -0,0 +1,16 @@
+package org.doc.document_service.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class DocumentPartsRequest {
+
+    @NotEmpty(message = "partNumbers are required")
+    private List<@NotNull @Min(1) @Max(10000) Integer> partNumbers;
+}
@@ -0,0 +1,31 @@
+package org.doc.document_service.dto;
+
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Usage of one owner (documents not deleted), from the incrementally
+ * maintained counters. May trail the latest changes by a few seconds.
+ */
+@Data
+public class DocumentStatsResponse {
+
+    private long totalDocuments;
+
+    private Map<String, Long> documentsByStatus;
+
+    /**
+     * AI category (metadata.category) -> documents; uncategorized ones are not listed
+     */
+    private Map<String, Long> documentsByCategory;
+
+    private long bytesStored;
+
+    /**
+     * Quotas; null = unlimited
+     */
+    private Long maxDocuments;
+
+    private Long maxBytes;
+}
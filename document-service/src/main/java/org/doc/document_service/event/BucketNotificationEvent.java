@@ -0,0 +1,56 @@
+package org.doc.document_service.event;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+/**
+ * MinIO bucket notification as published to the AMQP target (S3 event format).
+ * Only the fields needed to complete an upload are mapped.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BucketNotificationEvent {
+
+    @JsonProperty("EventName")
+    private String eventName;
+
+    @JsonProperty("Records")
+    private List<Record> records;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Record {
+        private String eventName; // e.g. s3:ObjectCreated:Put
+        private S3 s3;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class S3 {
+        private Bucket bucket;
+        private S3Object object;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Bucket {
+        private String name;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class S3Object {
+        /**
+         * Object key, URL-encoded by MinIO.
+         */
+        private String key;
+        private Long size;
+        // Lombok's getETag/setETag would bind "etag"; MinIO sends "eTag"
+        @JsonProperty("eTag")
+        private String eTag;
+    }
+}
@@ -0,0 +1,23 @@
+package org.doc.document_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * A document's content matched an already analyzed one. Consumers copy what
+ * they derived from the source (e.g. the search index entry) instead of
+ * processing the content again.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentDeduplicatedEvent {
+
+    private UUID documentId;
+    private String ownerId;
+    private String filename;
+    private UUID sourceDocumentId;
+}
@@ -0,0 +1,35 @@
+package org.doc.document_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A document changed (status transition, AI results). Fanned out to every
+ * document-service instance so each can notify its SSE subscribers and drop
+ * its cached copy.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentStatusEvent {
+
+    private UUID documentId;
+    private String ownerId;
+    private String status;
+    private Instant updatedAt;
+
+    /**
+     * Metadata written by this change (AI results), null for plain status changes
+     */
+    private Map<String, Object> metadata;
+
+    /**
+     * Instance that made the change; it has already notified its own subscribers
+     */
+    private String origin;
+}
@@ -0,0 +1,67 @@
+package org.doc.document_service.idempotency;
+
+import java.time.Instant;
+
+import org.doc.document_service.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Deletes expired idempotency_keys rows in small batches, oldest first.
+ *
+ * A run stops when a batch comes back short or after
+ * idempotency.purge.max-batches, whichever is first; the next run picks up
+ * where it left off. Purged keys stay in the negative-lookup filter until its
+ * next rebuild, which only costs a database lookup for them.
+ *
+ * Metrics: idempotency.purged.
+ */
+@Component
+public class IdempotencyPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyPurgeJob.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotency.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${idempotency.purge.max-batches:100}")
+    private int maxBatches;
+
+    private Counter purged;
+
+    @PostConstruct
+    void init() {
+        purged = Counter.builder("idempotency.purged").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge.interval-ms:600000}",
+            initialDelayString = "${idempotency.purge.initial-delay-ms:60000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now();
+        try {
+            for (int i = 0; i < maxBatches; i++) {
+                int deleted = idempotencyKeyRepository.deleteExpiredBatch(cutoff, batchSize);
+                purged.increment(deleted);
+                if (deleted < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Idempotency purge failed", e);
+        }
+    }
+}
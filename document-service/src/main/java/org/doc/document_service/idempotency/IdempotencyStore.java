@@ -0,0 +1,252 @@
+package org.doc.document_service.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.doc.document_service.domain.IdempotencyKey;
+import org.doc.document_service.repository.IdempotencyKeyRepository;
+import org.doc.document_service.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Two-tier lookup in front of idempotency_keys.
+ *
+ * 1) A size-bounded in-memory cache of recently issued keys answers replays
+ *    (Caffeine: size eviction keeps the keys that are replayed, each entry
+ *    expires with its key).
+ * 2) A Bloom filter of all stored keys answers "never seen" for first-time
+ *    keys without touching the database.
+ * Only keys the filter might contain go to the database.
+ *
+ * The filter is per instance and can miss keys issued elsewhere (another
+ * instance, or while a rebuild was running). That only costs an INSERT that
+ * fails on uk_idempotency_key_owner: callers then {@link #markSeen} the keys
+ * and retry, and the retry reads the winning row from the database. Until the
+ * first rebuild has finished every lookup goes to the database.
+ *
+ * Metrics: idempotency.lookups{result=cache_hit|filter_skip|db_hit|db_miss},
+ * cache.* with cache=idempotency.keys.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${idempotency.cache.max-entries:100000}")
+    private int cacheMaxEntries;
+
+    @Value("${idempotency.filter.expected-keys:1000000}")
+    private long filterExpectedKeys;
+
+    @Value("${idempotency.filter.fpp:0.01}")
+    private double filterFpp;
+
+    private Cache<String, CachedKey> cache;
+
+    private volatile BloomFilter filter;
+    // Filter being rebuilt; new keys go into both so the swap loses nothing
+    private volatile BloomFilter rebuilding;
+    private volatile boolean filterReady;
+
+    private TransactionTemplate readOnlyTransaction;
+    private Counter cacheHits;
+    private Counter filterSkips;
+    private Counter dbHits;
+    private Counter dbMisses;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(Expiry.creating((String key, CachedKey cached) -> {
+                    Duration left = Duration.between(Instant.now(), cached.expiresAt());
+                    return left.isNegative() ? Duration.ZERO : left;
+                }))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency.keys");
+        filter = BloomFilter.create(filterExpectedKeys, filterFpp);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        cacheHits = lookupCounter("cache_hit");
+        filterSkips = lookupCounter("filter_skip");
+        dbHits = lookupCounter("db_hit");
+        dbMisses = lookupCounter("db_miss");
+    }
+
+    /**
+     * @return the stored key (live, or expired but not yet purged), or empty
+     *         if the key was never issued for this owner
+     */
+    public Optional<IdempotencyKey> find(String ownerId, String idempotencyKey) {
+        return Optional.ofNullable(findAll(ownerId, List.of(idempotencyKey)).get(idempotencyKey));
+    }
+
+    /**
+     * Batch variant of {@link #find}: one IN query for whatever neither the
+     * cache nor the filter could answer.
+     *
+     * @return found keys by idempotency key
+     */
+    public Map<String, IdempotencyKey> findAll(String ownerId, Collection<String> idempotencyKeys) {
+        Map<String, IdempotencyKey> found = new HashMap<>();
+        List<String> toQuery = new ArrayList<>();
+        Instant now = Instant.now();
+        BloomFilter current = filter;
+        boolean useFilter = filterReady;
+
+        for (String key : idempotencyKeys) {
+            String cacheKey = cacheKey(ownerId, key);
+            CachedKey cached = cache.getIfPresent(cacheKey);
+            if (cached != null && cached.expiresAt().isAfter(now)) {
+                cacheHits.increment();
+                found.put(key, cached.toEntity(ownerId, key));
+            } else if (useFilter && !current.mightContain(cacheKey)) {
+                filterSkips.increment();
+            } else {
+                toQuery.add(key);
+            }
+        }
+
+        if (!toQuery.isEmpty()) {
+            int fromDb = 0;
+            for (IdempotencyKey stored : idempotencyKeyRepository.findByOwnerIdAndIdempotencyKeyIn(ownerId, toQuery)) {
+                found.put(stored.getIdempotencyKey(), stored);
+                fromDb++;
+                if (stored.getExpiresAt() != null && stored.getExpiresAt().isAfter(now)) {
+                    cachePut(stored);
+                }
+            }
+            dbHits.increment(fromDb);
+            dbMisses.increment(toQuery.size() - fromDb);
+        }
+        return found;
+    }
+
+    /**
+     * Register a key the caller has just saved. The filter learns it at once;
+     * the cache only after commit, so a rolled-back key is never replayed.
+     */
+    public void remember(IdempotencyKey key) {
+        filterPut(cacheKey(key.getOwnerId(), key.getIdempotencyKey()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cachePut(key);
+                }
+            });
+        } else {
+            cachePut(key);
+        }
+    }
+
+    /**
+     * Keys whose INSERT hit the unique constraint: make the next lookup go to
+     * the database instead of trusting the filter.
+     */
+    public void markSeen(String ownerId, Collection<String> idempotencyKeys) {
+        for (String key : idempotencyKeys) {
+            filterPut(cacheKey(ownerId, key));
+        }
+    }
+
+    /**
+     * Rebuild the filter from the stored rows. Bloom filters cannot forget, so
+     * this is what drops purged keys; it also warms a freshly started instance.
+     */
+    @Scheduled(initialDelayString = "${idempotency.filter.initial-delay-ms:0}",
+            fixedDelayString = "${idempotency.filter.rebuild-interval-ms:3600000}")
+    public void rebuildFilter() {
+        try {
+            long stored = idempotencyKeyRepository.count();
+            BloomFilter next = BloomFilter.create(Math.max(filterExpectedKeys, stored * 2), filterFpp);
+            rebuilding = next;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = idempotencyKeyRepository.streamAllKeys()) {
+                    rows.forEach(row -> next.put(cacheKey((String) row[0], (String) row[1])));
+                }
+            });
+            filter = next;
+            filterReady = true;
+            log.info("Idempotency filter rebuilt from {} keys", stored);
+        } catch (RuntimeException e) {
+            log.error("Idempotency filter rebuild failed", e);
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void filterPut(String cacheKey) {
+        filter.put(cacheKey);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(cacheKey);
+        }
+    }
+
+    private void cachePut(IdempotencyKey key) {
+        if (key.getExpiresAt() == null) {
+            return;
+        }
+        cache.put(cacheKey(key.getOwnerId(), key.getIdempotencyKey()),
+                new CachedKey(key.getId(), key.getDocumentId(), key.getCreatedAt(), key.getExpiresAt()));
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("idempotency.lookups").tag("result", result).register(meterRegistry);
+    }
+
+    private static String cacheKey(String ownerId, String idempotencyKey) {
+        return ownerId + '\u0000' + idempotencyKey;
+    }
+
+    private record CachedKey(UUID id, UUID documentId, Instant createdAt, Instant expiresAt) {
+
+        IdempotencyKey toEntity(String ownerId, String idempotencyKey) {
+            IdempotencyKey key = new IdempotencyKey();
+            key.setId(id);
+            key.setOwnerId(ownerId);
+            key.setIdempotencyKey(idempotencyKey);
+            key.setDocumentId(documentId);
+            key.setCreatedAt(createdAt);
+            key.setExpiresAt(expiresAt);
+            return key;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.doc.document_service.mapper;
+import org.doc.document_service.domain.ArchivedDocument;
 import org.doc.document_service.domain.Document;
+import org.doc.document_service.repository.DocumentStatusView;
 import org.doc.document_service.dto.*;
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
@@ -19,13 +21,17 @@ public interface DocumentMapper {
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "checksum", ignore = true)
     @Mapping(target = "requestId", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "uploadId", ignore = true)
+    @Mapping(target = "partCount", ignore = true)
+    @Mapping(target = "partSize", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Document toDocument(DocumentCreateRequest request);
 
     // helper used by MapStruct-generated code — provide here so generated impl can call it
     default java.util.UUID generateUuid() {
-        return java.util.UUID.randomUUID();
+        return org.doc.document_service.util.UuidV7.next();
     }
 
     @AfterMapping
@@ -36,8 +42,8 @@ public interface DocumentMapper {
         }
         // Build storage key using util (tenantId not available at create request level)
         target.setStorageKey(org.doc.document_service.util.StorageKeyUtil.generateStorageKey(null, target.getId(), request.getFilename()));
-        // Serialize metadata map to JSON using the JsonMapper component (safe to instantiate here)
-        target.setMetadata(new JsonMapper().toJson(request.getMetadata()));
+        // Serialize metadata map to JSON using the shared codec (no per-call mapper)
+        target.setMetadata(JsonMapper.shared().toJson(request.getMetadata()));
     }
 
     // Map entity -> metadata response
@@ -51,10 +57,13 @@ public interface DocumentMapper {
     @Mapping(source = "status", target = "status")
     @Mapping(source = "checksum", target = "checksum")
     @Mapping(source = "visibility", target = "visibility")
-    @Mapping(target = "metadata", expression = "java(jsonMapper.fromJson(entity.getMetadata()))")
+    @Mapping(target = "metadata", expression = "java(jsonMapper.view(entity.getMetadata()))")
     @Mapping(source = "createdAt", target = "createdAt")
     @Mapping(source = "updatedAt", target = "updatedAt")
     @Mapping(source = "requestId", target = "requestId")
+    @Mapping(target = "presignedGetUrl", ignore = true) // set by service for downloads
+    @Mapping(target = "presignedGetUrlExpiresAt", ignore = true)
+    @Mapping(target = "presignedGetTtlSeconds", ignore = true)
     DocumentMetadataResponse toMetadataResponse(Document entity, @Context JsonMapper jsonMapper);
 
     // Map entity -> list item (NEW)
@@ -82,6 +91,19 @@ public interface DocumentMapper {
     @Mapping(source = "updatedAt", target = "lastUpdated")
     DocumentStatusResponse toStatusResponse(Document entity);
 
+    @Mapping(source = "id", target = "documentId")
+    @Mapping(source = "status", target = "status")
+    @Mapping(target = "processingProgress", ignore = true)
+    @Mapping(target = "error", ignore = true)
+    @Mapping(source = "updatedAt", target = "lastUpdated")
+    DocumentStatusResponse toStatusResponse(DocumentStatusView view);
+
+    // Detached field-by-field copy (read cache snapshots)
+    Document copy(Document entity);
+
+    // Detached document from its archived row (cold-store reads)
+    Document fromArchive(ArchivedDocument archived);
+
     @AfterMapping
     default void ensureId(DocumentCreateResponse resp, @MappingTarget DocumentCreateResponse target) {
         // no-op placeholder if you want to adjust responses post map
@@ -1,20 +1,45 @@
 package org.doc.document_service.mapper;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+
+/**
+ * Codec for the JSON metadata column.
+ *
+ * Reader and writer are built once and shared (they are immutable and
+ * thread-safe), so no per-call type resolution or mapper allocation happens.
+ * Responses should prefer {@link #view(String)}, which defers parsing until a
+ * field is actually read and otherwise streams the stored JSON as-is.
+ */
 // Fix: Give it a specific name to avoid collision with Spring Cloud's "jsonMapper"
 @Component("documentJsonMapper")
 public class JsonMapper {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectReader MAP_READER = OBJECT_MAPPER.readerFor(new TypeReference<Map<String, Object>>() {
+    });
+    private static final ObjectWriter MAP_WRITER = OBJECT_MAPPER.writerFor(new TypeReference<Map<String, Object>>() {
+    });
+
+    private static final JsonMapper SHARED = new JsonMapper();
+
+    /**
+     * Shared instance for code that can't get the bean injected (MapStruct default methods).
+     */
+    public static JsonMapper shared() {
+        return SHARED;
+    }
 
     public String toJson(Map<String, Object> map) {
         if (map == null) return null;
         try {
-            return objectMapper.writeValueAsString(map);
+            return MAP_WRITER.writeValueAsString(map);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize metadata to JSON", e);
         }
@@ -23,9 +48,16 @@ public class JsonMapper {
     public Map<String, Object> fromJson(String json) {
         if (json == null) return null;
         try {
-            return objectMapper.readValue(json, Map.class);
+            return MAP_READER.readValue(json);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize metadata JSON", e);
         }
     }
+
+    /**
+     * Lazy view over stored metadata JSON; null stays null.
+     */
+    public MetadataView view(String json) {
+        return json == null ? null : MetadataView.ofJson(json, this);
+    }
 }
@@ -0,0 +1,81 @@
+package org.doc.document_service.mapper;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Document metadata as returned in responses.
+ *
+ * Holds the raw JSON from the metadata column. Serializing the view writes
+ * that JSON straight into the response without building a Map; the Map is
+ * only parsed (once) when Java code reads a field.
+ */
+@JsonSerialize(using = MetadataView.RawJsonSerializer.class)
+public final class MetadataView {
+
+    private final String json;
+    private final JsonMapper codec;
+    private volatile Map<String, Object> parsed;
+
+    private MetadataView(String json, JsonMapper codec, Map<String, Object> parsed) {
+        this.json = json;
+        this.codec = codec;
+        this.parsed = parsed;
+    }
+
+    static MetadataView ofJson(String json, JsonMapper codec) {
+        return new MetadataView(json, codec, null);
+    }
+
+    public static MetadataView of(Map<String, Object> map) {
+        JsonMapper codec = JsonMapper.shared();
+        return new MetadataView(codec.toJson(map), codec, Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * Stored JSON text, untouched.
+     */
+    public String toJson() {
+        return json;
+    }
+
+    /**
+     * Parsed metadata (read-only), parsed on first access.
+     */
+    public Map<String, Object> asMap() {
+        Map<String, Object> map = parsed;
+        if (map == null) {
+            Map<String, Object> decoded = codec.fromJson(json);
+            map = decoded == null ? Map.of() : Collections.unmodifiableMap(decoded);
+            parsed = map;
+        }
+        return map;
+    }
+
+    public Object get(String key) {
+        return asMap().get(key);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+
+    static final class RawJsonSerializer extends StdSerializer<MetadataView> {
+
+        RawJsonSerializer() {
+            super(MetadataView.class);
+        }
+
+        @Override
+        public void serialize(MetadataView value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json);
+        }
+    }
+}
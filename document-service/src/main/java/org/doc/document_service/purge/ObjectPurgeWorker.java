@@ -0,0 +1,151 @@
+package org.doc.document_service.purge;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.doc.document_service.domain.PurgeIntent;
+import org.doc.document_service.repository.PurgeIntentRepository;
+import org.doc.document_service.storage.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Drains purge_intents in batches.
+ *
+ * Each batch of due intents is locked (SKIP LOCKED, so instances don't
+ * overlap) and removed with one multi-object delete. Deleted rows go in one
+ * statement; failed ones stay with attempts + 1 and an exponential backoff
+ * (storage.purge.backoff-base-ms doubled per attempt, capped at
+ * storage.purge.backoff-max-ms). Intents are never dropped: an object that
+ * keeps failing stays visible through attempts and last_error. A delete
+ * request that fails as a whole (store unreachable) fails every key of the
+ * batch the same way, so an outage backs off instead of retrying each tick.
+ *
+ * Metrics: storage.purge{result=deleted|failed}.
+ */
+@Component
+public class ObjectPurgeWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ObjectPurgeWorker.class);
+
+    @Autowired
+    private PurgeIntentRepository purgeIntentRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${storage.purge.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${storage.purge.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${storage.purge.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private Counter deleted;
+    private Counter failed;
+
+    public ObjectPurgeWorker(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        deleted = Counter.builder("storage.purge").tag("result", "deleted").register(meterRegistry);
+        failed = Counter.builder("storage.purge").tag("result", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.purge.interval-ms:5000}",
+            initialDelayString = "${storage.purge.initial-delay-ms:30000}")
+    public void drain() {
+        try {
+            // Keep going while batches come back full, then wait for the next tick
+            for (int i = 0; i < maxBatches; i++) {
+                if (purgeBatch() < batchSize) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Object purge failed", e);
+        }
+    }
+
+    private int purgeBatch() {
+        Integer handled = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<PurgeIntent> batch = purgeIntentRepository.lockDueBatch(now, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            // The same object can be queued twice (e.g. delete + orphan sweep)
+            Set<String> keys = new LinkedHashSet<>();
+            batch.forEach(intent -> keys.add(intent.getStorageKey()));
+            Map<String, String> errors;
+            try {
+                errors = storageService.deleteAll(keys);
+            } catch (RuntimeException e) {
+                log.warn("Deleting {} objects failed", keys.size(), e);
+                String error = String.valueOf(e.getMessage());
+                errors = new HashMap<>();
+                for (String key : keys) {
+                    errors.put(key, error);
+                }
+            }
+
+            List<Long> done = new ArrayList<>(batch.size());
+            for (PurgeIntent intent : batch) {
+                String error = errors.get(intent.getStorageKey());
+                if (error == null) {
+                    done.add(intent.getId());
+                    continue;
+                }
+                // Dirty entity, updated on commit
+                intent.setAttempts(intent.getAttempts() + 1);
+                intent.setNextAttemptAt(now.plus(backoff(intent.getAttempts())));
+                intent.setLastError(truncate(error));
+            }
+            if (!done.isEmpty()) {
+                purgeIntentRepository.deleteAllByIdInBatch(done);
+            }
+            deleted.increment(done.size());
+            failed.increment(batch.size() - done.size());
+            return batch.size();
+        });
+        return handled == null ? 0 : handled;
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = backoffBaseMs << Math.min(attempts - 1, 30);
+        return Duration.ofMillis(delay <= 0 || delay > backoffMaxMs ? backoffMaxMs : delay);
+    }
+
+    private static String truncate(String s) {
+        return s.length() > 1024 ? s.substring(0, 1024) : s;
+    }
+}
@@ -0,0 +1,148 @@
+package org.doc.document_service.purge;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.storage.ListedObject;
+import org.doc.document_service.storage.StorageService;
+import org.doc.document_service.storage.StorageShard;
+import org.doc.document_service.storage.StorageShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Finds objects no live document (hot or archived) points at (a delete whose intent was never
+ * written, a create whose transaction rolled back after the upload) and
+ * queues them for purging.
+ *
+ * Walks the key root of every shard (documents/ in the default bucket,
+ * {shardId}/ in the others) a few pages per run, one root after the other,
+ * remembering where it stopped and starting over at the end. Objects younger
+ * than the grace period are left alone, so uploads in flight are never
+ * touched. The position is per instance; two instances walking the same
+ * range only queue the same object twice, which the worker tolerates.
+ *
+ * Metrics: storage.purge.orphans.
+ */
+@Component
+public class OrphanObjectReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanObjectReconciler.class);
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentArchive documentArchive;
+
+    @Autowired
+    private PurgeQueue purgeQueue;
+
+    @Autowired
+    private StorageShards storageShards;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.purge.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.purge.reconcile.page-size:1000}")
+    private int pageSize;
+
+    @Value("${storage.purge.reconcile.pages-per-run:10}")
+    private int pagesPerRun;
+
+    @Value("${storage.purge.reconcile.grace-hours:24}")
+    private long graceHours;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Shard being walked and last key checked in it; null = start of its root
+    private volatile int shardIndex;
+    private volatile String position;
+
+    private Counter orphans;
+
+    public OrphanObjectReconciler(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        orphans = Counter.builder("storage.purge.orphans").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.purge.reconcile.interval-ms:3600000}",
+            initialDelayString = "${storage.purge.reconcile.initial-delay-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        List<StorageShard> shards = storageShards.all();
+        try {
+            for (int i = 0; i < pagesPerRun; i++) {
+                String root = shards.get(shardIndex % shards.size()).getKeyRoot();
+                List<ListedObject> page = storageService.listObjects(root, position, pageSize);
+                if (!page.isEmpty()) {
+                    queueOrphans(page);
+                }
+                if (page.size() < pageSize) {
+                    // End of this root: continue with the next shard, after the last one start over
+                    position = null;
+                    shardIndex = (shardIndex + 1) % shards.size();
+                    if (shardIndex == 0) {
+                        return;
+                    }
+                    continue;
+                }
+                position = page.get(page.size() - 1).getKey();
+            }
+        } catch (RuntimeException e) {
+            log.error("Orphan object reconciliation failed", e);
+        }
+    }
+
+    private void queueOrphans(List<ListedObject> page) {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+        Set<String> candidates = new HashSet<>();
+        for (ListedObject object : page) {
+            if (object.getLastModified() != null && object.getLastModified().isBefore(cutoff)) {
+                candidates.add(object.getKey());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            candidates.removeAll(documentRepository.findReferencedStorageKeys(candidates, DocumentStatus.DELETED));
+            if (!candidates.isEmpty()) {
+                candidates.removeAll(documentArchive.findReferencedStorageKeys(candidates));
+            }
+            purgeQueue.enqueueAll(candidates, PurgeQueue.REASON_ORPHAN);
+        });
+        if (!candidates.isEmpty()) {
+            orphans.increment(candidates.size());
+            log.info("Queued {} orphaned objects for purging", candidates.size());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.doc.document_service.purge;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.doc.document_service.domain.PurgeIntent;
+import org.doc.document_service.repository.PurgeIntentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records objects to be removed from storage. Must run inside the caller's
+ * transaction: the object is only purged if that transaction commits, and
+ * {@link ObjectPurgeWorker} does the actual (batched) delete later.
+ */
+@Component
+public class PurgeQueue {
+
+    public static final String REASON_DELETE = "DELETE";
+    public static final String REASON_DEDUPLICATE = "DEDUPLICATE";
+    public static final String REASON_ORPHAN = "ORPHAN";
+    public static final String REASON_REJECTED = "REJECTED";
+
+    @Autowired
+    private PurgeIntentRepository purgeIntentRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String storageKey, String reason) {
+        enqueueAll(List.of(storageKey), reason);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(Collection<String> storageKeys, String reason) {
+        if (storageKeys.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<PurgeIntent> intents = new ArrayList<>(storageKeys.size());
+        for (String storageKey : storageKeys) {
+            PurgeIntent intent = new PurgeIntent();
+            intent.setStorageKey(storageKey);
+            intent.setReason(reason);
+            intent.setNextAttemptAt(now);
+            intents.add(intent);
+        }
+        purgeIntentRepository.persistAll(intents);
+    }
+}
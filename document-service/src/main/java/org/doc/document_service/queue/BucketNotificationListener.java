@@ -0,0 +1,87 @@
+package org.doc.document_service.queue;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.doc.document_service.event.BucketNotificationEvent;
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.storage.StorageShards;
+import org.doc.document_service.storage.StoredObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Completes uploads from MinIO object-created notifications, so a document
+ * moves to UPLOADED even if the browser never calls /complete.
+ *
+ * The binding runs in batch mode: one invocation gets up to batch-size
+ * notifications and transitions all matching documents in one transaction.
+ *
+ * Metrics: documents.bucket_notifications{result=received|completed}
+ * (received = managed objects reported, completed = uploads moved to UPLOADED).
+ */
+@Configuration
+public class BucketNotificationListener {
+
+    private static final String OBJECT_CREATED = "s3:ObjectCreated:";
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private StorageShards storageShards;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter received;
+    private Counter completed;
+
+    @PostConstruct
+    void init() {
+        received = Counter.builder("documents.bucket_notifications").tag("result", "received")
+                .register(meterRegistry);
+        completed = Counter.builder("documents.bucket_notifications").tag("result", "completed")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Consumer<List<BucketNotificationEvent>> bucketNotifications() {
+        return events -> {
+            // storageKey -> size and ETag reported by MinIO (last event wins on duplicates)
+            Map<String, StoredObject> uploaded = new HashMap<>();
+            for (BucketNotificationEvent event : events) {
+                if (event == null || event.getRecords() == null) {
+                    continue;
+                }
+                for (BucketNotificationEvent.Record record : event.getRecords()) {
+                    if (record.getEventName() == null || !record.getEventName().startsWith(OBJECT_CREATED)
+                            || record.getS3() == null || record.getS3().getObject() == null) {
+                        continue;
+                    }
+                    BucketNotificationEvent.Bucket bucket = record.getS3().getBucket();
+                    if (bucket != null && !storageShards.isManagedBucket(bucket.getName())) {
+                        continue;
+                    }
+                    String key = URLDecoder.decode(record.getS3().getObject().getKey(), StandardCharsets.UTF_8);
+                    BucketNotificationEvent.S3Object object = record.getS3().getObject();
+                    uploaded.put(key, new StoredObject(object.getSize(), object.getETag()));
+                }
+            }
+            if (uploaded.isEmpty()) {
+                return;
+            }
+            received.increment(uploaded.size());
+            completed.increment(documentService.markUploaded(uploaded));
+        };
+    }
+}
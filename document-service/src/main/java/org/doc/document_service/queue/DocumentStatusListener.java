@@ -0,0 +1,44 @@
+package org.doc.document_service.queue;
+
+import java.util.function.Consumer;
+
+import org.doc.document_service.event.DocumentStatusEvent;
+import org.doc.document_service.service.DocumentChangePublisher;
+import org.doc.document_service.service.DocumentReadCache;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Document changes made by other instances (document-status exchange).
+ *
+ * The binding has no group, so every instance gets its own auto-delete queue
+ * and sees every event. Each one drops its cached copy and notifies its own
+ * SSE subscribers; events this instance published were already handled
+ * locally after commit and are skipped.
+ */
+@Configuration
+public class DocumentStatusListener {
+
+    @Autowired
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Autowired
+    private DocumentReadCache documentReadCache;
+
+    @Autowired
+    private DocumentEventHub documentEventHub;
+
+    @Bean
+    public Consumer<DocumentStatusEvent> documentStatusEvents() {
+        return event -> {
+            if (event == null || event.getDocumentId() == null
+                    || documentChangePublisher.getInstanceId().equals(event.getOrigin())) {
+                return;
+            }
+            documentReadCache.invalidate(event.getDocumentId());
+            documentEventHub.publish(event);
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package org.doc.document_service.queue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.doc.document_service.domain.OutboxEvent;
+import org.doc.document_service.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Drains the outbox table in batches.
+ *
+ * A short transaction claims the next due rows (next_attempt_at pushed out by
+ * claim-ms, so other instances skip them) and commits. The batch is then sent
+ * without waiting in between and all publisher confirms are awaited together,
+ * with no transaction or row lock held. A second short transaction deletes the
+ * confirmed rows; nacked or timed-out rows get their attempt counted and are
+ * retried after an exponential backoff, up to max-attempts. Rows at the cap
+ * stay in the table for an operator to look at (reset attempts to requeue).
+ *
+ * Delivery is at-least-once (a relay that dies after sending leaves its claim
+ * to run out), consumers must tolerate the odd duplicate. A row that is backed
+ * off can be overtaken by newer events.
+ *
+ * Metrics: outbox.relay{result=published|failed|parked}.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StreamBridge streamBridge;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    // Must cover sending a batch and awaiting its confirms
+    @Value("${outbox.relay.claim-ms:30000}")
+    private long claimMs;
+
+    @Value("${outbox.relay.max-attempts:15}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.relay.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private Counter published;
+    private Counter failed;
+    private Counter parked;
+
+    public OutboxRelay(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void init() {
+        published = Counter.builder("outbox.relay").tag("result", "published").register(meterRegistry);
+        failed = Counter.builder("outbox.relay").tag("result", "failed").register(meterRegistry);
+        parked = Counter.builder("outbox.relay").tag("result", "parked").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void drain() {
+        // Keep going while full batches get confirmed, then wait for the next tick
+        // (a failing broker ends the loop: failed rows are backed off, not counted)
+        try {
+            int confirmed;
+            do {
+                confirmed = relayBatch();
+            } while (confirmed == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    /**
+     * @return number of rows the broker confirmed (and that were deleted)
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        List<String> errors = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            Message<byte[]> message = MessageBuilder
+                    .withPayload(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                    .setHeader(MessageHeaders.CONTENT_TYPE, "application/json")
+                    .setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlation)
+                    .build();
+            String error = null;
+            boolean accepted;
+            try {
+                accepted = streamBridge.send(event.getDestination(), message);
+                if (!accepted) {
+                    error = "not accepted by binding " + event.getDestination();
+                }
+            } catch (Exception e) {
+                accepted = false;
+                error = e.getMessage();
+            }
+            confirms.add(accepted ? correlation : null);
+            errors.add(error);
+        }
+
+        List<Long> confirmed = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < batch.size(); i++) {
+            CorrelationData correlation = confirms.get(i);
+            if (correlation == null) {
+                continue;
+            }
+            String error = awaitAck(correlation, deadline);
+            if (error == null) {
+                confirmed.add(batch.get(i).getId());
+            } else {
+                errors.set(i, error);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!confirmed.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(confirmed);
+            }
+            Instant now = Instant.now();
+            for (int i = 0; i < batch.size(); i++) {
+                OutboxEvent event = batch.get(i);
+                if (confirms.get(i) != null && errors.get(i) == null) {
+                    continue;
+                }
+                int attempts = event.getAttempts() + 1;
+                outboxEventRepository.recordFailure(event.getId(), truncate(errors.get(i)),
+                        now.plusMillis(backoffMs(attempts)));
+                if (attempts >= maxAttempts) {
+                    parked.increment();
+                    log.error("Outbox event {} to {} parked after {} attempts: {}", event.getId(), event.getDestination(),
+                            attempts, errors.get(i));
+                }
+            }
+        });
+        published.increment(confirmed.size());
+        failed.increment(batch.size() - confirmed.size());
+        return confirmed.size();
+    }
+
+    // Lock due rows, push their next attempt out by the claim and commit
+    private List<OutboxEvent> claimBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> rows = outboxEventRepository.lockNextBatch(now, maxAttempts, batchSize);
+            if (!rows.isEmpty()) {
+                outboxEventRepository.claim(rows.stream().map(OutboxEvent::getId).toList(), now.plusMillis(claimMs));
+            }
+            return rows;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    // retry-backoff-ms doubled per failed attempt, capped at max-retry-backoff-ms
+    long backoffMs(int attempts) {
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(retryBackoffMs << shift, maxRetryBackoffMs);
+    }
+
+    // null = acked, else why not
+    private static String awaitAck(CorrelationData correlation, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            return confirm.isAck() ? null : "nack: " + confirm.getReason();
+        } catch (Exception e) {
+            return "no publisher confirm: " + e;
+        }
+    }
+
+    private static String truncate(String s) {
+        if (s == null) {
+            return null;
+        }
+        return s.length() > 1024 ? s.substring(0, 1024) : s;
+    }
+}
@@ -1,10 +1,24 @@
 package org.doc.document_service.queue;
 
-import java.util.UUID;
+import java.util.List;
+
+import org.doc.document_service.domain.Document;
 
 public interface ProcessingPublisher {
     /**
-     * Publish a processing job (documentId + storageKey + requestId)
+     * Enqueue a processing job for the document. Must run inside the caller's
+     * transaction; the job is published only after that transaction commits.
+     */
+    void publishProcessingJob(Document document);
+
+    /**
+     * Same as {@link #publishProcessingJob(Document)} for many documents.
+     */
+    void publishProcessingJobs(List<Document> documents);
+
+    /**
+     * Announce that the document reuses the analysis of sourceDocument
+     * (identical content). Same transaction rules as the processing job.
      */
-    void publishProcessingJob(UUID documentId, String storageKey, String requestId);
+    void publishDeduplicated(Document document, Document sourceDocument);
 }
@@ -1,31 +1,64 @@
 package org.doc.document_service.queue;
 
+import org.doc.document_service.event.DocumentDeduplicatedEvent;
 import org.doc.document_service.event.DocumentUploadedEvent;
-import org.doc.document_service.repository.DocumentRepository;
 import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.OutboxEvent;
+import org.doc.document_service.repository.OutboxEventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes processing jobs to the transactional outbox instead of sending them
+ * to RabbitMQ directly; {@link OutboxRelay} publishes them after commit.
+ */
 @Service
 public class ProcessingPublisherImpl implements ProcessingPublisher {
+
+    static final String DESTINATION = "documentUploaded-out-0";
+    static final String DEDUPLICATED_DESTINATION = "documentDeduplicated-out-0";
+
     @Autowired
-    private StreamBridge streamBridge;
+    private OutboxEventRepository outboxEventRepository;
 
     @Autowired
-    private DocumentRepository documentRepository;
+    private ObjectMapper objectMapper;
 
     @Override
-    @Transactional(readOnly = true)
-    public void publishProcessingJob(UUID documentId, String storageKey, String requestId) {
-        // 1. Fetch details needed for the event
-        Document doc = documentRepository.findById(documentId)
-                .orElseThrow(() -> new RuntimeException("Document not found for event publishing"));
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishProcessingJob(Document document) {
+        outboxEventRepository.save(toOutboxEvent(document));
+    }
 
-        // 2. Create your designed event object
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishProcessingJobs(List<Document> documents) {
+        outboxEventRepository.insertAll(documents.stream()
+                .map(this::toOutboxEvent)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishDeduplicated(Document document, Document sourceDocument) {
+        DocumentDeduplicatedEvent event = new DocumentDeduplicatedEvent(
+                document.getId(),
+                document.getOwnerId(),
+                document.getFilename(),
+                sourceDocument.getId());
+        outboxEventRepository.save(outboxEvent(DEDUPLICATED_DESTINATION, document, event));
+    }
+
+    private OutboxEvent toOutboxEvent(Document doc) {
+        // The caller already holds the entity, no need to re-read it
         DocumentUploadedEvent event = new DocumentUploadedEvent(
                 doc.getId(),
                 doc.getOwnerId(),
@@ -34,10 +67,18 @@ public class ProcessingPublisherImpl implements ProcessingPublisher {
                 doc.getSize(),
                 doc.getStorageKey());
 
-        System.out.println("Publishing event to RabbitMQ for doc: " + documentId);
+        return outboxEvent(DESTINATION, doc, event);
+    }
 
-        // 3. Send to the exchange "documentUploaded-out-0"
-        // Spring Cloud Stream will map this name to the actual RabbitMQ exchange
-        streamBridge.send("documentUploaded-out-0", event);
+    private OutboxEvent outboxEvent(String destination, Document doc, Object event) {
+        OutboxEvent outbox = new OutboxEvent();
+        outbox.setDestination(destination);
+        outbox.setAggregateId(doc.getId());
+        try {
+            outbox.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + destination + " event", e);
+        }
+        return outbox;
     }
 }
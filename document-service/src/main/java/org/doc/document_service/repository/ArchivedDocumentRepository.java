@@ -0,0 +1,80 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.doc.document_service.domain.ArchivedDocument;
+import org.doc.document_service.domain.DocumentStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.LockModeType;
+
+public interface ArchivedDocumentRepository extends JpaRepository<ArchivedDocument, UUID> {
+
+    // Copy rows from documents in one INSERT ... SELECT (the caller deletes them there)
+    @Modifying
+    @Query("insert into ArchivedDocument (id, ownerId, tenantId, filename, mimeType, size, storageKey, status, "
+            + "checksum, contentHash, visibility, metadata, uploadId, partCount, partSize, requestId, createdAt, "
+            + "updatedAt, archivedAt) "
+            + "select d.id, d.ownerId, d.tenantId, d.filename, d.mimeType, d.size, d.storageKey, d.status, "
+            + "d.checksum, d.contentHash, d.visibility, d.metadata, d.uploadId, d.partCount, d.partSize, "
+            + "d.requestId, d.createdAt, d.updatedAt, :now "
+            + "from Document d where d.id in :ids")
+    int copyFromDocuments(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    // Archived rows about to be restored, row-locked so two restores of the same document serialize
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id as id, a.ownerId as ownerId, a.status as status, a.updatedAt as updatedAt "
+            + "from ArchivedDocument a where a.id in :ids")
+    List<DocumentStatusView> lockStatusViewsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Query("delete from ArchivedDocument a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    Optional<DocumentStatusView> findStatusViewById(UUID id);
+
+    List<ArchivedDocument> findByOwnerIdAndIdInAndStatusNot(String ownerId, Collection<UUID> ids,
+            DocumentStatus status);
+
+    // Keyset pages, same shape as on documents (merged with them by the listing)
+    @Query("select a from ArchivedDocument a where a.ownerId = :ownerId and a.status <> :excluded "
+            + "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) "
+            + "order by a.createdAt desc, a.id desc")
+    List<ArchivedDocument> findPageAfter(@Param("ownerId") String ownerId, @Param("excluded") DocumentStatus excluded,
+            @Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
+    @Query("select a from ArchivedDocument a where a.ownerId = :ownerId and a.status <> :excluded "
+            + "order by a.createdAt desc, a.id desc")
+    List<ArchivedDocument> findFirstPage(@Param("ownerId") String ownerId, @Param("excluded") DocumentStatus excluded,
+            Limit limit);
+
+    @Query("select a from ArchivedDocument a where a.ownerId = :ownerId and a.status = :status "
+            + "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) "
+            + "order by a.createdAt desc, a.id desc")
+    List<ArchivedDocument> findPageAfterWithStatus(@Param("ownerId") String ownerId,
+            @Param("status") DocumentStatus status, @Param("createdAt") Instant createdAt, @Param("id") UUID id,
+            Limit limit);
+
+    @Query("select a from ArchivedDocument a where a.ownerId = :ownerId and a.status = :status "
+            + "order by a.createdAt desc, a.id desc")
+    List<ArchivedDocument> findFirstPageWithStatus(@Param("ownerId") String ownerId,
+            @Param("status") DocumentStatus status, Limit limit);
+
+    long countByOwnerIdAndStatusNot(String ownerId, DocumentStatus status);
+
+    long countByOwnerIdAndStatus(String ownerId, DocumentStatus status);
+
+    // Archived documents still reference their objects; orphan reconciliation
+    @Query("select distinct a.storageKey from ArchivedDocument a where a.storageKey in :keys and a.status <> :deleted")
+    List<String> findReferencedStorageKeys(@Param("keys") Collection<String> storageKeys,
+            @Param("deleted") DocumentStatus deleted);
+}
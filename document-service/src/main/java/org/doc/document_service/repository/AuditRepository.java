@@ -5,6 +5,6 @@ import java.util.UUID;
 import org.doc.document_service.domain.AuditEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface AuditRepository extends JpaRepository<AuditEntry, UUID>{
+public interface AuditRepository extends JpaRepository<AuditEntry, UUID>, BatchPersistRepository<AuditEntry> {
 
 }
@@ -0,0 +1,19 @@
+package org.doc.document_service.repository;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting many new entities in one go.
+ *
+ * Entities with pre-assigned ids make {@code saveAll} fall back to
+ * {@code merge}, which issues one SELECT per row before inserting. This
+ * fragment always calls {@code persist} so Hibernate can group the INSERTs
+ * into JDBC batches (see hibernate.jdbc.batch_size).
+ */
+public interface BatchPersistRepository<T> {
+
+    /**
+     * Persist all (new) entities and flush them as batched INSERTs.
+     */
+    <S extends T> List<S> persistAll(Iterable<S> entities);
+}
@@ -0,0 +1,27 @@
+package org.doc.document_service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class BatchPersistRepositoryImpl<T> implements BatchPersistRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <S extends T> List<S> persistAll(Iterable<S> entities) {
+        List<S> persisted = new ArrayList<>();
+        for (S entity : entities) {
+            entityManager.persist(entity);
+            persisted.add(entity);
+        }
+        // Flush once so the inserts go out grouped instead of one by one at commit
+        if (!persisted.isEmpty()) {
+            entityManager.flush();
+        }
+        return persisted;
+    }
+}
@@ -0,0 +1,61 @@
+package org.doc.document_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.doc.document_service.domain.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    /**
+     * Register a reference to the content: creates the blob with the given
+     * storage key, or bumps the count of the existing one (whose key wins).
+     * The row stays locked until commit, so a concurrent release cannot drop
+     * the blob underneath the new reference.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO content_blobs (content_hash, storage_key, ref_count) VALUES (:contentHash, :storageKey, 1) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int acquire(@Param("contentHash") String contentHash, @Param("storageKey") String storageKey);
+
+    // Read straight from the database, not from the persistence context
+    @Query("select b.storageKey from ContentBlob b where b.contentHash = :contentHash")
+    String findStorageKey(@Param("contentHash") String contentHash);
+
+    /**
+     * @return 0 if the content is not tracked (uploaded before deduplication existed)
+     */
+    @Modifying
+    @Query("update ContentBlob b set b.refCount = b.refCount - 1 where b.contentHash = :contentHash and b.refCount > 0")
+    int release(@Param("contentHash") String contentHash);
+
+    /**
+     * Drop the blob once its last reference is gone.
+     *
+     * @return 1 if the blob was dropped and its object can be deleted
+     */
+    @Modifying
+    @Query("delete from ContentBlob b where b.contentHash = :contentHash and b.refCount = 0")
+    int deleteIfUnreferenced(@Param("contentHash") String contentHash);
+
+    /**
+     * Drop {@code count} references from each of the given blobs (bulk delete:
+     * callers group hashes by how many deleted documents shared them).
+     */
+    @Modifying
+    @Query("update ContentBlob b set b.refCount = b.refCount - :count "
+            + "where b.contentHash in :contentHashes and b.refCount >= :count")
+    int releaseAll(@Param("contentHashes") Collection<String> contentHashes, @Param("count") int count);
+
+    // Objects of the given blobs nothing references any more (rows stay locked by releaseAll)
+    @Query("select b.storageKey from ContentBlob b where b.contentHash in :contentHashes and b.refCount = 0")
+    List<String> findUnreferencedStorageKeys(@Param("contentHashes") Collection<String> contentHashes);
+
+    @Modifying
+    @Query("delete from ContentBlob b where b.contentHash in :contentHashes and b.refCount = 0")
+    int deleteUnreferenced(@Param("contentHashes") Collection<String> contentHashes);
+}
@@ -0,0 +1,15 @@
+package org.doc.document_service.repository;
+
+import java.util.List;
+
+import org.doc.document_service.domain.DocumentChange;
+
+/**
+ * Repository fragment for writing many change-feed entries in one batched
+ * INSERT while keeping the id as feed sequence. The inserted entities are not
+ * managed and get no id back.
+ */
+public interface DocumentChangeInserts {
+
+    void insertAll(List<DocumentChange> changes);
+}
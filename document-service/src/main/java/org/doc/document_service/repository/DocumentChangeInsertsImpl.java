@@ -0,0 +1,35 @@
+package org.doc.document_service.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.doc.document_service.domain.DocumentChange;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+public class DocumentChangeInsertsImpl extends JdbcBatchInsertSupport implements DocumentChangeInserts {
+
+    private static final String INSERT = "INSERT INTO document_changes (owner_id, document_id, recorded_at) "
+            + "VALUES (?, ?, ?)";
+
+    @Override
+    public void insertAll(List<DocumentChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate().batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                DocumentChange change = changes.get(i);
+                ps.setString(1, change.getOwnerId());
+                setUuid(ps, 2, change.getDocumentId());
+                setInstant(ps, 3, change.getRecordedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changes.size();
+            }
+        });
+    }
+}
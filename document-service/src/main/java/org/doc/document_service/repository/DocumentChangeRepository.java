@@ -0,0 +1,42 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.doc.document_service.domain.DocumentChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface DocumentChangeRepository extends JpaRepository<DocumentChange, Long>,
+        DocumentChangeInserts {
+
+    // Walks idx_document_changes_owner_seq
+    @Query("select c from DocumentChange c where c.ownerId = :ownerId and c.id > :since order by c.id")
+    List<DocumentChange> findAfter(@Param("ownerId") String ownerId, @Param("since") long since, Limit limit);
+
+    // Oldest change still kept (older ones were purged)
+    @Query("select min(c.id) from DocumentChange c")
+    Long findOldestSequence();
+
+    @Query("select max(c.id) from DocumentChange c")
+    Long findLatestSequence();
+
+    // First change recorded after the horizon, i.e. possibly not committed yet
+    @Query("select min(c.id) from DocumentChange c where c.recordedAt > :horizon")
+    Long findFirstSequenceAfter(@Param("horizon") Instant horizon);
+
+    /**
+     * Retention: drop changes recorded before the cutoff, except the newest
+     * one (below keepFrom), whose sequence tells later readers what was purged.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM document_changes WHERE recorded_at < :cutoff AND id < :keepFrom "
+            + "ORDER BY recorded_at LIMIT :limit", nativeQuery = true)
+    int deleteRecordedBeforeBatch(@Param("cutoff") Instant cutoff, @Param("keepFrom") long keepFrom,
+            @Param("limit") int limit);
+}
@@ -3,15 +3,196 @@ package org.doc.document_service.repository;
 import org.doc.document_service.domain.Document;
 import org.doc.document_service.domain.DocumentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.List;
 import java.util.UUID;
 
-public interface DocumentRepository extends JpaRepository<Document, UUID> {
+public interface DocumentRepository extends JpaRepository<Document, UUID>, BatchPersistRepository<Document> {
     // Add custom queries if needed, e.g. findByOwnerId, findByStatus, etc.
      Page<Document> findByOwnerId(String ownerId, Pageable pageable);
 
      // Find documents by owner, excluding specific status (e.g., DELETED)
     Page<Document> findByOwnerIdAndStatusNot(String ownerId, DocumentStatus status, Pageable pageable);
+
+    /**
+     * Keyset page: newest first, strictly after the (createdAt, id) cursor.
+     * Served by idx_documents_owner_created without OFFSET or COUNT.
+     */
+    @Query("select d from Document d where d.ownerId = :ownerId and d.status <> :excluded "
+            + "and (d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)) "
+            + "order by d.createdAt desc, d.id desc")
+    List<Document> findPageAfter(@Param("ownerId") String ownerId, @Param("excluded") DocumentStatus excluded,
+            @Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
+    @Query("select d from Document d where d.ownerId = :ownerId and d.status <> :excluded "
+            + "order by d.createdAt desc, d.id desc")
+    List<Document> findFirstPage(@Param("ownerId") String ownerId, @Param("excluded") DocumentStatus excluded,
+            Limit limit);
+
+    // Same pages restricted to one status; uses idx_documents_owner_status_created
+    @Query("select d from Document d where d.ownerId = :ownerId and d.status = :status "
+            + "and (d.createdAt < :createdAt or (d.createdAt = :createdAt and d.id < :id)) "
+            + "order by d.createdAt desc, d.id desc")
+    List<Document> findPageAfterWithStatus(@Param("ownerId") String ownerId, @Param("status") DocumentStatus status,
+            @Param("createdAt") Instant createdAt, @Param("id") UUID id, Limit limit);
+
+    @Query("select d from Document d where d.ownerId = :ownerId and d.status = :status "
+            + "order by d.createdAt desc, d.id desc")
+    List<Document> findFirstPageWithStatus(@Param("ownerId") String ownerId, @Param("status") DocumentStatus status,
+            Limit limit);
+
+    long countByOwnerIdAndStatusNot(String ownerId, DocumentStatus status);
+
+    long countByOwnerIdAndStatus(String ownerId, DocumentStatus status);
+
+    /**
+     * Merge a JSON patch into metadata (RFC 7396 via JSON_MERGE_PATCH) and move
+     * UPLOADED/PROCESSING documents to PROCESSED, in one UPDATE without loading
+     * the row. Concurrent patches of different keys don't overwrite each other.
+     *
+     * @return rows updated (0 = no such document)
+     */
+    @Modifying
+    @Query("update Document d set "
+            + "d.metadata = function('JSON_MERGE_PATCH', coalesce(d.metadata, '{}'), :patch), "
+            + "d.status = case when d.status in (:fromStatuses) then :toStatus else d.status end, "
+            + "d.updatedAt = :now "
+            + "where d.id = :id")
+    int mergeMetadata(@Param("id") UUID id, @Param("patch") String patchJson,
+            @Param("fromStatuses") Collection<DocumentStatus> fromStatuses, @Param("toStatus") DocumentStatus toStatus,
+            @Param("now") Instant now);
+
+    // Abandoned multipart uploads (sweeper); walks idx_documents_status_updated. Locked so a
+    // concurrent /complete either finishes first (and the row no longer matches) or waits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Document> findByStatusAndUploadIdIsNotNullAndCreatedAtBefore(DocumentStatus status, Instant cutoff,
+            Limit limit);
+
+    // Status and ownership without the metadata column
+    Optional<DocumentStatusView> findStatusViewById(UUID id);
+
+    // Ownership check that reads no columns beyond the key
+    boolean existsByIdAndOwnerId(UUID id, String ownerId);
+
+    List<DocumentStatusView> findStatusViewsByIdIn(Collection<UUID> ids);
+
+    // Multi-get scoped to the caller: ids of other owners simply don't match
+    List<Document> findByOwnerIdAndIdInAndStatusNot(String ownerId, Collection<UUID> ids, DocumentStatus status);
+
+    /**
+     * Status, owner and storage of the given documents, row-locked until
+     * commit so a concurrent delete can't release the same content twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d.id as id, d.ownerId as ownerId, d.status as status, d.updatedAt as updatedAt, "
+            + "d.storageKey as storageKey, d.contentHash as contentHash, d.size as size, "
+            + "cast(function('JSON_VALUE', d.metadata, '$.category') as String) as category "
+            + "from Document d where d.id in :ids")
+    List<DocumentStorageView> lockStorageViewsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Single-document variant (DELETE /documents/{id}, AI metadata merge)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d.id as id, d.ownerId as ownerId, d.status as status, d.updatedAt as updatedAt, "
+            + "d.storageKey as storageKey, d.contentHash as contentHash, d.size as size, "
+            + "cast(function('JSON_VALUE', d.metadata, '$.category') as String) as category "
+            + "from Document d where d.id = :id")
+    Optional<DocumentStorageView> lockStorageViewById(@Param("id") UUID id);
+
+    // Status and owner only, row-locked (AI metadata merge that leaves the category alone)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d.id as id, d.ownerId as ownerId, d.status as status, d.updatedAt as updatedAt "
+            + "from Document d where d.id = :id")
+    Optional<DocumentStatusView> lockStatusViewById(@Param("id") UUID id);
+
+    /**
+     * Compare-and-set status change: moves the document to {@code to} only if
+     * it is still in {@code from}. The row stays locked until commit, so a
+     * concurrent transition waits and then finds nothing to change. Runs
+     * before the document is loaded (the persistence context is not updated).
+     *
+     * @return 1 if this call made the transition, 0 if the document is in
+     *         another status (or doesn't exist)
+     */
+    @Modifying
+    @Query("update Document d set d.status = :to, d.updatedAt = :now where d.id = :id and d.status = :from")
+    int transitionStatus(@Param("id") UUID id, @Param("from") DocumentStatus from, @Param("to") DocumentStatus to,
+            @Param("now") Instant now);
+
+    // Bulk status change (bulk delete), one statement per chunk of ids
+    @Modifying
+    @Query("update Document d set d.status = :status, d.updatedAt = :now where d.id in :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<UUID> ids, @Param("status") DocumentStatus status,
+            @Param("now") Instant now);
+
+    @Modifying
+    @Query("update Document d set d.visibility = :visibility, d.updatedAt = :now where d.id in :ids")
+    int updateVisibilityByIdIn(@Param("ids") Collection<UUID> ids, @Param("visibility") String visibility,
+            @Param("now") Instant now);
+
+    // Bulk variant of mergeMetadata without the status transition (owner edits, not AI results)
+    @Modifying
+    @Query("update Document d set "
+            + "d.metadata = function('JSON_MERGE_PATCH', coalesce(d.metadata, '{}'), :patch), "
+            + "d.updatedAt = :now "
+            + "where d.id in :ids")
+    int mergeMetadataByIdIn(@Param("ids") Collection<UUID> ids, @Param("patch") String patchJson,
+            @Param("now") Instant now);
+
+    // In-flight documents of an owner (initial snapshot of the owner event stream)
+    List<DocumentStatusView> findByOwnerIdAndStatusInOrderByUpdatedAtDesc(String ownerId, Collection<DocumentStatus> statuses, Limit limit);
+
+    // Earliest processed document with this content (dedup source); walks idx_documents_content_hash
+    Document findFirstByContentHashAndStatusOrderByCreatedAtAsc(String contentHash, DocumentStatus status);
+
+    // Used by the bucket-notification consumer to resolve a batch of uploaded objects.
+    // Locked: rows a concurrent /complete has just claimed no longer match once it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Document> findByStorageKeyInAndStatus(Collection<String> storageKeys, DocumentStatus status);
+
+    /**
+     * Archival candidates: documents in one of the statuses, last updated
+     * before the cutoff. Walks idx_documents_status_updated; rows are locked
+     * until commit and rows locked by a writer are skipped (picked up by a
+     * later run).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select d.id as id, d.ownerId as ownerId, d.status as status, d.updatedAt as updatedAt "
+            + "from Document d where d.status in :statuses and d.updatedAt < :before")
+    List<DocumentStatusView> lockArchivable(@Param("statuses") Collection<DocumentStatus> statuses,
+            @Param("before") Instant before, Limit limit);
+
+    // Move archived rows back (the caller deletes them from documents_archive)
+    @Modifying
+    @Query("insert into Document (id, ownerId, tenantId, filename, mimeType, size, storageKey, status, checksum, "
+            + "contentHash, visibility, metadata, uploadId, partCount, partSize, requestId, createdAt, updatedAt) "
+            + "select a.id, a.ownerId, a.tenantId, a.filename, a.mimeType, a.size, a.storageKey, a.status, "
+            + "a.checksum, a.contentHash, a.visibility, a.metadata, a.uploadId, a.partCount, a.partSize, "
+            + "a.requestId, a.createdAt, a.updatedAt "
+            + "from ArchivedDocument a where a.id in :ids")
+    int copyFromArchive(@Param("ids") Collection<UUID> ids);
+
+    // Rows already copied to documents_archive
+    @Modifying
+    @Query("delete from Document d where d.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Which of these storage keys a live (not deleted) document still points at; orphan reconciliation
+    @Query("select distinct d.storageKey from Document d where d.storageKey in :keys and d.status <> :deleted")
+    List<String> findReferencedStorageKeys(@Param("keys") Collection<String> storageKeys,
+            @Param("deleted") DocumentStatus deleted);
 }
@@ -0,0 +1,20 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.doc.document_service.domain.DocumentStatus;
+
+/**
+ * Status and ownership of a document without the metadata JSON.
+ */
+public interface DocumentStatusView {
+
+    UUID getId();
+
+    String getOwnerId();
+
+    DocumentStatus getStatus();
+
+    Instant getUpdatedAt();
+}
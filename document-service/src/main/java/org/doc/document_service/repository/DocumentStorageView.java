@@ -0,0 +1,17 @@
+package org.doc.document_service.repository;
+
+/**
+ * {@link DocumentStatusView} plus where the content is stored, for deletes,
+ * and what the document counts for in the owner's usage.
+ */
+public interface DocumentStorageView extends DocumentStatusView {
+
+    String getStorageKey();
+
+    String getContentHash();
+
+    Long getSize();
+
+    // metadata.category (AI result), read with JSON_VALUE
+    String getCategory();
+}
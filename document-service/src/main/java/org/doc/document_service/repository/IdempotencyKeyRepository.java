@@ -1,12 +1,49 @@
 package org.doc.document_service.repository;
 
 import org.doc.document_service.domain.IdempotencyKey;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID> {
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, UUID>,
+        BatchPersistRepository<IdempotencyKey> {
 
     Optional<IdempotencyKey> findByIdempotencyKeyAndOwnerId(String idempotencyKey, String ownerId);
+
+    // Single IN query for batch uploads
+    List<IdempotencyKey> findByOwnerIdAndIdempotencyKeyIn(String ownerId, Collection<String> idempotencyKeys);
+
+    /**
+     * (ownerId, idempotencyKey) of every stored key, streamed row by row for
+     * the negative-lookup filter rebuild. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select k.ownerId, k.idempotencyKey from IdempotencyKey k")
+    Stream<Object[]> streamAllKeys();
+
+    /**
+     * Delete up to {@code limit} expired keys, oldest first, walking
+     * idx_idempotency_expires. Each call is its own short transaction so the
+     * purge never holds many row locks at once.
+     *
+     * @return rows deleted (less than limit = nothing left to purge)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :cutoff ORDER BY expires_at LIMIT :limit",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
 }
@@ -0,0 +1,68 @@
+package org.doc.document_service.repository;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Base for fragments that insert rows of an append-only table whose
+ * AUTO_INCREMENT id is also its read order (outbox, change feed).
+ *
+ * Hibernate cannot batch IDENTITY inserts, and a pooled generator would hand
+ * each instance its own block of ids, so a row committed later could get a
+ * lower id than one a reader already went past. A plain JDBC batch keeps the
+ * AUTO_INCREMENT order and still goes out as one multi-row INSERT
+ * (rewriteBatchedStatements). It runs on the transaction's connection.
+ */
+abstract class JdbcBatchInsertSupport {
+
+    private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    private JdbcTemplate jdbcTemplate;
+
+    // Same column type Hibernate uses for UUIDs (char(36) or binary(16))
+    @Value("${spring.jpa.properties.hibernate.type.preferred_uuid_jdbc_type:CHAR}")
+    private String uuidJdbcType;
+
+    @Autowired
+    void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    protected JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    protected void setUuid(PreparedStatement ps, int index, UUID id) throws SQLException {
+        if (id == null) {
+            ps.setObject(index, null);
+        } else if ("BINARY".equalsIgnoreCase(uuidJdbcType)) {
+            ps.setBytes(index, ByteBuffer.allocate(16)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .array());
+        } else {
+            ps.setString(index, id.toString());
+        }
+    }
+
+    // Instants are stored as UTC, like Hibernate does
+    protected static void setInstant(PreparedStatement ps, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            ps.setTimestamp(index, null);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(instant), (Calendar) UTC.clone());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.doc.document_service.repository;
+
+import java.util.List;
+
+import org.doc.document_service.domain.OutboxEvent;
+
+/**
+ * Repository fragment for writing many outbox events in one batched INSERT
+ * while keeping the id as publish order. The inserted entities are not
+ * managed and get no id back.
+ */
+public interface OutboxEventInserts {
+
+    void insertAll(List<OutboxEvent> events);
+}
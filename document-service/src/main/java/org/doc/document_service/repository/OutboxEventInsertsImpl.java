@@ -0,0 +1,42 @@
+package org.doc.document_service.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+import org.doc.document_service.domain.OutboxEvent;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+
+public class OutboxEventInsertsImpl extends JdbcBatchInsertSupport implements OutboxEventInserts {
+
+    private static final String INSERT = "INSERT INTO outbox_events "
+            + "(destination, aggregate_id, payload, attempts, last_error, next_attempt_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Override
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        jdbcTemplate().batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OutboxEvent event = events.get(i);
+                ps.setString(1, event.getDestination());
+                setUuid(ps, 2, event.getAggregateId());
+                ps.setString(3, event.getPayload());
+                ps.setInt(4, event.getAttempts());
+                ps.setString(5, event.getLastError());
+                setInstant(ps, 6, event.getNextAttemptAt());
+                setInstant(ps, 7, event.getCreatedAt() != null ? event.getCreatedAt() : now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.doc.document_service.domain.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventInserts {
+
+    /**
+     * Oldest events that are due and below the attempt cap, row-locked for the
+     * calling transaction. SKIP LOCKED lets several document-service instances
+     * claim batches concurrently without sending the same event twice.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE attempts < :maxAttempts "
+            + "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts,
+            @Param("limit") int limit);
+
+    // Hide claimed rows from other relays until the claim runs out
+    @Modifying
+    @Query("update OutboxEvent e set e.nextAttemptAt = :until where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("until") Instant until);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.lastError = :error, "
+            + "e.nextAttemptAt = :nextAttemptAt where e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error,
+            @Param("nextAttemptAt") Instant nextAttemptAt);
+}
@@ -0,0 +1,27 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.doc.document_service.domain.OwnerUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OwnerUsageRepository extends JpaRepository<OwnerUsage, OwnerUsage.Key> {
+
+    // All counters of one owner: a primary-key range read
+    List<OwnerUsage> findByOwnerId(String ownerId);
+
+    /**
+     * Add a delta to a counter, creating it if needed. Additive, so every
+     * instance can flush its own deltas without coordination.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO owner_usage (owner_id, metric, metric_key, amount, updated_at) "
+            + "VALUES (:ownerId, :metric, :metricKey, :delta, :now) "
+            + "ON DUPLICATE KEY UPDATE amount = amount + :delta, updated_at = :now", nativeQuery = true)
+    int add(@Param("ownerId") String ownerId, @Param("metric") String metric, @Param("metricKey") String metricKey,
+            @Param("delta") long delta, @Param("now") Instant now);
+}
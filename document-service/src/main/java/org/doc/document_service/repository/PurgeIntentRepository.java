@@ -0,0 +1,20 @@
+package org.doc.document_service.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.doc.document_service.domain.PurgeIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PurgeIntentRepository extends JpaRepository<PurgeIntent, Long>, BatchPersistRepository<PurgeIntent> {
+
+    /**
+     * Due intents, oldest first, row-locked for the calling transaction. SKIP
+     * LOCKED lets several instances purge concurrently without overlap.
+     */
+    @Query(value = "SELECT * FROM purge_intents WHERE next_attempt_at <= :now ORDER BY next_attempt_at, id "
+            + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PurgeIntent> lockDueBatch(@Param("now") Instant now, @Param("limit") int limit);
+}
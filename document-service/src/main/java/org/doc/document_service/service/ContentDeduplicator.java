@@ -0,0 +1,149 @@
+package org.doc.document_service.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.purge.PurgeQueue;
+import org.doc.document_service.repository.ContentBlobRepository;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStorageView;
+import org.doc.document_service.storage.StoredObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed deduplication of completed uploads.
+ *
+ * Content is identified by the ETag and size the object store computed, never
+ * by the checksum a client claims. Documents with the same content share one
+ * object (reference counted in content_blobs), and a document whose content
+ * was already analyzed copies that analysis instead of being processed again.
+ * Must be called inside the caller's transaction.
+ */
+@Component
+public class ContentDeduplicator {
+
+    // Metadata keys written by the AI processor (ai-processor-service MetadataClient)
+    static final List<String> ANALYSIS_KEYS = List.of("summary", "sentiment", "keywords", "category",
+            "ai_processed");
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private PurgeQueue purgeQueue;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    /**
+     * Register the content of a document whose upload just completed.
+     *
+     * Points the document at the shared copy of its content (its own copy is
+     * queued for purging) and, if a document with the same content has
+     * already been processed, copies its analysis metadata and moves the
+     * document to PROCESSED.
+     *
+     * @return the processed document whose analysis was copied, or null if
+     *         the document still needs processing
+     */
+    public Document deduplicate(Document doc, StoredObject object) {
+        if (object == null || object.getSize() == null || object.getEtag() == null || object.getEtag().isBlank()) {
+            return null;
+        }
+        String contentHash = contentHash(object);
+        doc.setContentHash(contentHash);
+
+        String ownKey = doc.getStorageKey();
+        contentBlobRepository.acquire(contentHash, ownKey);
+        String sharedKey = contentBlobRepository.findStorageKey(contentHash);
+        if (sharedKey != null && !sharedKey.equals(ownKey)) {
+            doc.setStorageKey(sharedKey);
+            purgeQueue.enqueue(ownKey, PurgeQueue.REASON_DEDUPLICATE);
+        }
+
+        Document source = documentRepository.findFirstByContentHashAndStatusOrderByCreatedAtAsc(contentHash,
+                DocumentStatus.PROCESSED);
+        if (source == null) {
+            return null;
+        }
+        Map<String, Object> sourceMetadata = jsonMapper.fromJson(source.getMetadata());
+        if (sourceMetadata == null) {
+            return null;
+        }
+        Map<String, Object> metadata = jsonMapper.fromJson(doc.getMetadata());
+        if (metadata == null) {
+            metadata = new HashMap<>();
+        }
+        for (String key : ANALYSIS_KEYS) {
+            if (sourceMetadata.containsKey(key)) {
+                metadata.put(key, sourceMetadata.get(key));
+            }
+        }
+        doc.setMetadata(jsonMapper.toJson(metadata));
+        doc.setStatus(DocumentStatus.PROCESSED);
+        return source;
+    }
+
+    /**
+     * Drop a deleted document's reference to its content and queue the
+     * object for purging once nothing references it any more.
+     */
+    public void release(DocumentStorageView doc) {
+        if (doc.getStorageKey() == null) {
+            return;
+        }
+        if (doc.getContentHash() == null) {
+            // Never registered (still uploading, or uploaded before dedup existed): the object is its own
+            purgeQueue.enqueue(doc.getStorageKey(), PurgeQueue.REASON_DELETE);
+            return;
+        }
+        if (contentBlobRepository.release(doc.getContentHash()) > 0
+                && contentBlobRepository.deleteIfUnreferenced(doc.getContentHash()) > 0) {
+            purgeQueue.enqueue(doc.getStorageKey(), PurgeQueue.REASON_DELETE);
+        }
+    }
+
+    /**
+     * Bulk {@link #release}: one UPDATE per distinct reference count, one
+     * purge batch for all objects that became unreferenced.
+     */
+    public void releaseAll(Collection<? extends DocumentStorageView> docs) {
+        List<String> toPurge = new ArrayList<>();
+        Map<String, Integer> references = new HashMap<>();
+        for (DocumentStorageView doc : docs) {
+            if (doc.getStorageKey() == null) {
+                continue;
+            }
+            if (doc.getContentHash() == null) {
+                toPurge.add(doc.getStorageKey());
+            } else {
+                references.merge(doc.getContentHash(), 1, Integer::sum);
+            }
+        }
+        if (!references.isEmpty()) {
+            Map<Integer, List<String>> hashesByCount = new HashMap<>();
+            references.forEach((hash, count) -> hashesByCount.computeIfAbsent(count, c -> new ArrayList<>()).add(hash));
+            hashesByCount.forEach((count, hashes) -> contentBlobRepository.releaseAll(hashes, count));
+
+            toPurge.addAll(contentBlobRepository.findUnreferencedStorageKeys(references.keySet()));
+            contentBlobRepository.deleteUnreferenced(references.keySet());
+        }
+        purgeQueue.enqueueAll(toPurge, PurgeQueue.REASON_DELETE);
+    }
+
+    private static String contentHash(StoredObject object) {
+        String etag = object.getEtag().replace("\"", "").toLowerCase(Locale.ROOT);
+        return etag + ":" + object.getSize();
+    }
+}
@@ -0,0 +1,183 @@
+package org.doc.document_service.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentChange;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.domain.OutboxEvent;
+import org.doc.document_service.event.DocumentStatusEvent;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.DocumentChangeRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.doc.document_service.repository.OutboxEventRepository;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Single place writers report a committed document change.
+ *
+ * After commit the change drops the local read-cache entry and is pushed to
+ * this instance's SSE subscribers. It is also written to the outbox
+ * (document-status exchange), so the other instances do the same through
+ * {@link org.doc.document_service.queue.DocumentStatusListener}. Nothing is
+ * announced if the transaction rolls back.
+ *
+ * Every change, creations included, is also appended to document_changes for
+ * the client sync feed (GET /documents/changes).
+ */
+@Component
+public class DocumentChangePublisher {
+
+    static final String DESTINATION = "documentStatus-out-0";
+
+    // Identifies events this instance published, so it doesn't deliver them twice
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private DocumentChangeRepository documentChangeRepository;
+
+    @Autowired
+    private DocumentReadCache documentReadCache;
+
+    @Autowired
+    private DocumentEventHub documentEventHub;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentChanged(Document doc) {
+        documentsChanged(List.of(doc));
+    }
+
+    /**
+     * New documents. Only logged for the change feed: nobody subscribes to a
+     * document before it exists, and the creator has the response.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentsCreated(Collection<Document> docs) {
+        List<DocumentChange> changes = new ArrayList<>(docs.size());
+        Instant now = Instant.now();
+        for (Document doc : docs) {
+            changes.add(newChange(doc.getOwnerId(), doc.getId(), now));
+        }
+        documentChangeRepository.insertAll(changes);
+    }
+
+    /**
+     * Status (or upload details) of the given documents changed. A document
+     * that is already PROCESSED (deduplicated content) carries its copied
+     * analysis along.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentsChanged(Collection<Document> docs) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        List<DocumentStatusEvent> events = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            Map<String, Object> metadata = doc.getStatus() == DocumentStatus.PROCESSED
+                    ? jsonMapper.fromJson(doc.getMetadata())
+                    : null;
+            events.add(new DocumentStatusEvent(doc.getId(), doc.getOwnerId(), statusName(doc.getStatus()),
+                    doc.getUpdatedAt(), metadata, instanceId));
+        }
+        publish(events);
+    }
+
+    /**
+     * Bulk changes made with set-based updates, reported from a re-read of
+     * the changed rows (no metadata carried along).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentViewsChanged(Collection<? extends DocumentStatusView> docs) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        List<DocumentStatusEvent> events = new ArrayList<>(docs.size());
+        for (DocumentStatusView doc : docs) {
+            events.add(new DocumentStatusEvent(doc.getId(), doc.getOwnerId(), statusName(doc.getStatus()),
+                    doc.getUpdatedAt(), null, instanceId));
+        }
+        publish(events);
+    }
+
+    /**
+     * AI results were merged into the document (status as left by the merge).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void metadataChanged(UUID documentId, String ownerId, DocumentStatus status, Instant updatedAt,
+            Map<String, Object> metadata) {
+        publish(List.of(new DocumentStatusEvent(documentId, ownerId, statusName(status), updatedAt, metadata,
+                instanceId)));
+    }
+
+    private void publish(List<DocumentStatusEvent> events) {
+        List<OutboxEvent> rows = new ArrayList<>(events.size());
+        List<DocumentChange> changes = new ArrayList<>(events.size());
+        Instant now = Instant.now();
+        for (DocumentStatusEvent event : events) {
+            rows.add(toOutboxEvent(event));
+            changes.add(newChange(event.getOwnerId(), event.getDocumentId(), now));
+        }
+        outboxEventRepository.insertAll(rows);
+        documentChangeRepository.insertAll(changes);
+
+        List<UUID> ids = events.stream().map(DocumentStatusEvent::getDocumentId).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                documentReadCache.invalidateAll(ids);
+                events.forEach(documentEventHub::publish);
+            }
+        });
+    }
+
+    private static DocumentChange newChange(String ownerId, UUID documentId, Instant now) {
+        DocumentChange change = new DocumentChange();
+        change.setOwnerId(ownerId);
+        change.setDocumentId(documentId);
+        change.setRecordedAt(now);
+        return change;
+    }
+
+    private OutboxEvent toOutboxEvent(DocumentStatusEvent event) {
+        OutboxEvent outbox = new OutboxEvent();
+        outbox.setDestination(DESTINATION);
+        outbox.setAggregateId(event.getDocumentId());
+        try {
+            outbox.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + DESTINATION + " event", e);
+        }
+        return outbox;
+    }
+
+    private static String statusName(DocumentStatus status) {
+        return status != null ? status.name() : null;
+    }
+}
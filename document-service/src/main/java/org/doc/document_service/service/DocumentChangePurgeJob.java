@@ -0,0 +1,60 @@
+package org.doc.document_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.doc.document_service.repository.DocumentChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops change feed entries older than documents.changes.retention-days in
+ * batches. Clients whose cursor is older than what is left are told to list
+ * everything again.
+ */
+@Component
+public class DocumentChangePurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentChangePurgeJob.class);
+
+    @Autowired
+    private DocumentChangeRepository documentChangeRepository;
+
+    @Value("${documents.changes.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${documents.changes.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${documents.changes.purge-max-batches:100}")
+    private int maxBatches;
+
+    @Scheduled(fixedDelayString = "${documents.changes.purge-interval-ms:3600000}",
+            initialDelayString = "${documents.changes.purge-initial-delay-ms:180000}")
+    public void purge() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+        try {
+            Long latest = documentChangeRepository.findLatestSequence();
+            if (latest == null) {
+                return;
+            }
+            long total = 0;
+            for (int i = 0; i < maxBatches; i++) {
+                int deleted = documentChangeRepository.deleteRecordedBeforeBatch(cutoff, latest, batchSize);
+                total += deleted;
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Purged {} change feed entries", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Change feed purge failed", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.doc.document_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.datasource.ReplicaRoutingDataSource;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Read-through cache of documents for the polled read endpoints (status,
+ * metadata). Status lookups have their own cache of metadata-free
+ * projections, so polling never loads the metadata JSON.
+ *
+ * Entries are detached copies that nobody modifies. Writers invalidate after
+ * their transaction commits (via {@link DocumentChangePublisher}), so a reader
+ * never re-caches the pre-commit row; changes made by other instances arrive
+ * over the document-status exchange, and the TTL bounds staleness if one is
+ * missed. Loads always read the primary: an entry reloaded from a lagging
+ * replica right after an invalidation would stay stale for the whole TTL. Concurrent
+ * misses for the same id share one database read. Archived documents are
+ * read from the archive.
+ *
+ * Metrics: cache.* with cache=documents.read and cache=documents.status.
+ */
+@Component
+public class DocumentReadCache {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentMapper documentMapper;
+
+    @Autowired
+    private DocumentArchive documentArchive;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.read-cache.max-entries:50000}")
+    private long maxEntries;
+
+    @Value("${documents.read-cache.ttl-seconds:10}")
+    private long ttlSeconds;
+
+    private Cache<UUID, Document> cache;
+
+    // Status/owner snapshots loaded without the metadata column (status polling, authorization)
+    private Cache<UUID, DocumentStatusView> statusCache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "documents.read");
+        statusCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statusCache, "documents.status");
+    }
+
+    /**
+     * Cached snapshot of the document, loaded from the database on a miss.
+     * Read-only: never modify or save the returned instance.
+     */
+    public Optional<Document> get(UUID documentId) {
+        return Optional.ofNullable(cache.get(documentId, id -> ReplicaRoutingDataSource.onPrimary(
+                () -> documentRepository.findById(id).map(documentMapper::copy)
+                        .or(() -> documentArchive.find(id))
+                        .orElse(null))));
+    }
+
+    /**
+     * Id, owner, status and last update of the document. Taken from the
+     * cached document if there is one, otherwise loaded with a projection
+     * that never reads the (possibly large) metadata column.
+     */
+    public Optional<DocumentStatusView> getStatus(UUID documentId) {
+        Document doc = cache.getIfPresent(documentId);
+        if (doc != null) {
+            return Optional.of(new StatusSnapshot(doc.getId(), doc.getOwnerId(), doc.getStatus(), doc.getUpdatedAt()));
+        }
+        return Optional.ofNullable(statusCache.get(documentId, id -> ReplicaRoutingDataSource.onPrimary(
+                () -> documentRepository.findStatusViewById(id)
+                        .or(() -> documentArchive.findStatusView(id))
+                        .map(view -> new StatusSnapshot(view.getId(), view.getOwnerId(), view.getStatus(),
+                                view.getUpdatedAt()))
+                        .orElse(null))));
+    }
+
+    public void invalidate(UUID documentId) {
+        cache.invalidate(documentId);
+        statusCache.invalidate(documentId);
+    }
+
+    public void invalidateAll(Collection<UUID> documentIds) {
+        cache.invalidateAll(documentIds);
+        statusCache.invalidateAll(documentIds);
+    }
+
+    private static final class StatusSnapshot implements DocumentStatusView {
+        private final UUID id;
+        private final String ownerId;
+        private final DocumentStatus status;
+        private final Instant updatedAt;
+
+        StatusSnapshot(UUID id, String ownerId, DocumentStatus status, Instant updatedAt) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.status = status;
+            this.updatedAt = updatedAt;
+        }
+
+        @Override public UUID getId() { return id; }
+        @Override public String getOwnerId() { return ownerId; }
+        @Override public DocumentStatus getStatus() { return status; }
+        @Override public Instant getUpdatedAt() { return updatedAt; }
+    }
+}
@@ -1,70 +1,145 @@
 package org.doc.document_service.service;
 
-import org.checkerframework.checker.units.qual.A;
-import org.doc.document_service.domain.AuditEntry;
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
 import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentChange;
 import org.doc.document_service.domain.DocumentStatus;
 import org.doc.document_service.domain.IdempotencyKey;
+import org.doc.document_service.dto.DocumentBatchCreateItem;
+import org.doc.document_service.dto.DocumentBatchCreateResponse;
+import org.doc.document_service.dto.DocumentBulkResponse;
+import org.doc.document_service.dto.DocumentBulkUpdateRequest;
+import org.doc.document_service.dto.DocumentChangeItem;
+import org.doc.document_service.dto.DocumentChangesResponse;
 import org.doc.document_service.dto.DocumentCompleteRequest;
 import org.doc.document_service.dto.DocumentCreateRequest;
 import org.doc.document_service.dto.DocumentCreateResponse;
+import org.doc.document_service.dto.DocumentEventResponse;
 import org.doc.document_service.dto.DocumentListItem;
 import org.doc.document_service.dto.DocumentListResponse;
+import org.doc.document_service.dto.DocumentLookupResponse;
 import org.doc.document_service.dto.DocumentMetadataResponse;
+import org.doc.document_service.dto.DocumentMultipartResponse;
+import org.doc.document_service.dto.DocumentPartUrl;
+import org.doc.document_service.dto.DocumentStatsResponse;
 import org.doc.document_service.dto.DocumentStatusResponse;
+import org.doc.document_service.idempotency.IdempotencyStore;
 import org.doc.document_service.mapper.DocumentMapper;
 import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.purge.PurgeQueue;
 import org.doc.document_service.queue.ProcessingPublisher;
-import org.doc.document_service.repository.AuditRepository;
+import org.doc.document_service.repository.DocumentChangeRepository;
 import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.doc.document_service.repository.DocumentStorageView;
 import org.doc.document_service.repository.IdempotencyKeyRepository;
 import org.doc.document_service.storage.PresignedUrlResponse;
+import org.doc.document_service.storage.StorageLayout;
 import org.doc.document_service.storage.StorageService;
-import org.doc.document_service.util.StorageKeyUtil;
+import org.doc.document_service.storage.StoredObject;
+import org.doc.document_service.usage.DocumentUsage;
+import org.doc.document_service.usage.UsageAccounting;
+import org.doc.document_service.util.CursorCodec;
+import org.doc.document_service.util.UuidV7;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import java.util.List;
 import org.springframework.transaction.annotation.Transactional;
-
-import com.netflix.discovery.converters.Auto;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DocumentService {
 
+    private static final Logger log = LoggerFactory.getLogger(DocumentService.class);
+
     @Autowired
     private DocumentRepository documentRepository;
 
     @Autowired
     private StorageService storageService;
 
+    @Autowired
+    private StorageLayout storageLayout;
+
+    @Autowired
+    private TenantResolver tenantResolver;
+
     @Autowired
     private DocumentMapper documentMapper;
 
     @Autowired
     private JsonMapper jsonMapper;
 
-    @Autowired(required = false)
+    @Autowired
     private ProcessingPublisher processingPublisher;
 
     @Autowired
-    private AuditRepository auditRepository;
+    private AuditWriter auditWriter;
 
     @Autowired
     private IdempotencyKeyRepository idempotencyKeyRepository;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ContentDeduplicator contentDeduplicator;
+
+    @Autowired
+    private DocumentReadCache documentReadCache;
+
+    @Autowired
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Autowired
+    private UsageAccounting usageAccounting;
+
+    @Autowired
+    private DocumentChangeRepository documentChangeRepository;
+
+    @Autowired
+    private DocumentArchive documentArchive;
+
+    @Autowired
+    private PurgeQueue purgeQueue;
+
+    // Changes younger than this may belong to transactions still running, which can commit
+    // a lower sequence after a higher one; the feed doesn't hand them out yet
+    @Value("${documents.changes.settle-ms:5000}")
+    private long changesSettleMs;
+
+    @Autowired
+    @Qualifier("documentTaskExecutor")
+    private Executor documentTaskExecutor;
+
     // Configure TTL for presigned URL in seconds (could come from
     // application.properties)
     private final long presignedTtlSeconds = 15 * 60; // 15 minutes
@@ -72,6 +147,36 @@ public class DocumentService {
     // Configure idempotency TTL (how long to remember an idempotency key)
     private final long idempotencyTtlSeconds = 24 * 3600; // 24 hours
 
+    // Statuses an AI metadata write-back moves to PROCESSED
+    private static final Set<DocumentStatus> PROCESSED_FROM = DocumentStatus.PROCESSED.reachableFrom();
+
+    // Statuses shown in the initial snapshot of the owner event stream
+    private static final List<DocumentStatus> IN_FLIGHT = List.of(DocumentStatus.UPLOADING,
+            DocumentStatus.UPLOADED, DocumentStatus.PROCESSING);
+
+    // Actor recorded in audit entries written on behalf of storage notifications
+    private static final String STORAGE_ACTOR = "storage-notification";
+
+    // Actor recorded in audit entries written by the abandoned multipart upload sweeper
+    private static final String MULTIPART_SWEEPER_ACTOR = "multipart-sweeper";
+
+    // Ids per IN list in bulk operations
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    // S3 multipart limits: at most 10000 parts, all but the last at least 5 MiB
+    private static final int MAX_PARTS = 10_000;
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    @Value("${documents.multipart.part-size-bytes:16777216}")
+    private long multipartPartSizeBytes;
+
+    @Value("${documents.multipart.max-size-bytes:10737418240}")
+    private long multipartMaxSizeBytes;
+
+    // Part uploads of large files take a while; clients re-presign parts whose URL expired
+    @Value("${documents.multipart.part-url-ttl-seconds:3600}")
+    private long multipartPartUrlTtlSeconds;
+
     /**
      * Create an upload intent. Handles Idempotency-Key semantics.
      *
@@ -86,100 +191,274 @@ public class DocumentService {
             String requestId,
             String idempotencyKey) {
         // 1) If idempotencyKey present, attempt to return existing mapping
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            Optional<IdempotencyKey> existing = idempotencyKeyRepository
-                    .findByIdempotencyKeyAndOwnerId(idempotencyKey, ownerId);
-            if (existing.isPresent()) {
-                IdempotencyKey key = existing.get();
-                if (key.getExpiresAt() != null && key.getExpiresAt().isAfter(Instant.now())) {
-                    UUID docId = key.getDocumentId();
-                    // Return the existing document create response if it's present
-                    Document doc = documentRepository.findById(docId)
-                            .orElseThrow(
-                                    () -> new IllegalStateException("Document referenced by idempotency key missing"));
-                    // Map entity to response and regenerate a fresh presigned URL if needed
-                    DocumentCreateResponse resp = documentMapper.toCreateResponse(doc);
-                    PresignedUrlResponse presigned = storageService.generatePresignedPutUrl(doc.getStorageKey(),
-                            presignedTtlSeconds);
-                    resp.setPresignedUrl(presigned.getUrl());
-                    resp.setPresignedUrlExpiresAt(presigned.getExpiresAt());
-                    resp.setTtlSeconds(presigned.getTtlSeconds());
-                    return resp;
-                } else {
-                    // expired idempotency entry → fallthrough and create fresh
-                }
+        KeyLookup lookup = lookupIdempotencyKey(ownerId, idempotencyKey);
+        if (lookup.replay() != null) {
+            Document doc = lookup.replay();
+            // Map entity to response; a fresh presigned URL only while the upload is still pending
+            DocumentCreateResponse resp = documentMapper.toCreateResponse(doc);
+            if (acceptsUpload(doc)) {
+                attachPresignedUrl(resp, storageService.generatePresignedPutUrl(doc.getStorageKey(),
+                        presignedTtlSeconds));
             }
+            return resp;
         }
 
         // 2) Basic validations (size, mime) - example checks; replace with real policy
         // checks
-        if (request.getSize() != null && request.getSize() > 100L * 1024 * 1024) { // example 100 MB max
-            throw new IllegalArgumentException("file size exceeds allowed limit");
-        }
-        // TODO: add mime type whitelist checks, quota checks etc.
+        validateUploadRequest(request);
+        usageAccounting.checkQuota(ownerId, 1, sizeOf(request));
 
         // 3) Create Document entity (provisional)
-        UUID documentId = UUID.randomUUID();
-        String tenantId = null; // if you decode tenant from JWT claims, set it here
-        String storageKey = StorageKeyUtil.generateStorageKey(tenantId, documentId, request.getFilename());
-
-        Document doc = new Document();
-        doc.setId(documentId);
-        doc.setOwnerId(ownerId);
-        doc.setTenantId(tenantId);
-        doc.setFilename(request.getFilename());
-        doc.setMimeType(request.getMimeType());
-        doc.setSize(request.getSize());
-        doc.setStorageKey(storageKey);
-        doc.setStatus(DocumentStatus.UPLOADING);
-        doc.setChecksum(null);
-        doc.setVisibility(request.getVisibility());
-        // store metadata as JSON string via mapper or directly
-        doc.setMetadata(jsonMapper.toJson(request.getMetadata()));
-        doc.setRequestId(requestId != null ? requestId : UUID.randomUUID().toString());
+        Document doc = newDocument(ownerId, request, requestId);
         documentRepository.save(doc);
+        documentChangePublisher.documentsCreated(List.of(doc));
 
         // 4) Persist idempotency mapping if provided
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            IdempotencyKey key = new IdempotencyKey();
-            key.setId(UUID.randomUUID());
-            key.setIdempotencyKey(idempotencyKey);
-            key.setOwnerId(ownerId);
-            key.setDocumentId(documentId);
-            key.setExpiresAt(Instant.now().plus(idempotencyTtlSeconds, ChronoUnit.SECONDS));
-            idempotencyKeyRepository.save(key);
-        }
+        storeIdempotencyKey(ownerId, idempotencyKey, lookup, doc.getId());
 
         // 5) Generate presigned PUT URL
-        PresignedUrlResponse presigned = storageService.generatePresignedPutUrl(storageKey, presignedTtlSeconds);
+        PresignedUrlResponse presigned = storageService.generatePresignedPutUrl(doc.getStorageKey(),
+                presignedTtlSeconds);
 
         // 6) Map to create-response and attach presigned URL info
         DocumentCreateResponse response = documentMapper.toCreateResponse(doc);
-        response.setPresignedUrl(presigned.getUrl());
-        response.setPresignedUrlExpiresAt(presigned.getExpiresAt());
-        response.setTtlSeconds(presigned.getTtlSeconds());
+        attachPresignedUrl(response, presigned);
 
         // Return response
         return response;
     }
 
     /**
-     * Mark upload as complete. Idempotent: repeated calls are fine.
+     * Create many upload intents in one transaction (folder uploads).
+     *
+     * Compared to N calls of {@link #createUploadIntent}: idempotency keys are
+     * resolved with at most one IN query, new Document / IdempotencyKey rows go out
+     * as batched inserts and the presigned PUT URLs are generated in parallel.
+     * Items sharing an idempotency key within the batch map to the same document.
+     *
+     * @return responses in the same order as the requested items
      */
     @Transactional
-    public DocumentMetadataResponse completeUpload(UUID documentId, String callerSub, DocumentCompleteRequest req) {
+    public DocumentBatchCreateResponse createUploadIntents(String ownerId,
+            List<DocumentBatchCreateItem> items,
+            String requestId) {
+        // Reject the whole batch up front rather than half-way through
+        items.forEach(this::validateUploadRequest);
+
+        // 1) Resolve all idempotency keys with (at most) one query
+        Set<String> keys = items.stream()
+                .map(DocumentBatchCreateItem::getIdempotencyKey)
+                .filter(k -> k != null && !k.isBlank())
+                .collect(Collectors.toSet());
+
+        Map<String, Document> docsByKey = new HashMap<>();
+        Map<String, IdempotencyKey> expiredKeys = new HashMap<>();
+        if (!keys.isEmpty()) {
+            Instant now = Instant.now();
+            Map<String, UUID> liveKeys = new HashMap<>();
+            idempotencyStore.findAll(ownerId, keys).forEach((key, stored) -> {
+                if (stored.getExpiresAt() != null && stored.getExpiresAt().isAfter(now)) {
+                    liveKeys.put(key, stored.getDocumentId());
+                } else {
+                    expiredKeys.put(key, stored);
+                }
+            });
+            if (!liveKeys.isEmpty()) {
+                Map<UUID, Document> existingDocs = documentRepository.findAllById(liveKeys.values()).stream()
+                        .collect(Collectors.toMap(Document::getId, d -> d));
+                liveKeys.forEach((key, docId) -> {
+                    Document existing = existingDocs.get(docId);
+                    if (existing == null) {
+                        throw new IllegalStateException("Document referenced by idempotency key missing");
+                    }
+                    docsByKey.put(key, existing);
+                });
+            }
+        }
+
+        // 2) Build the new rows; replays reuse the document found above
+        List<Document> resolved = new ArrayList<>(items.size());
+        List<Document> newDocs = new ArrayList<>();
+        List<IdempotencyKey> newKeys = new ArrayList<>();
+        List<IdempotencyKey> renewedKeys = new ArrayList<>();
+        for (DocumentBatchCreateItem item : items) {
+            String key = item.getIdempotencyKey();
+            boolean hasKey = key != null && !key.isBlank();
+            Document doc = hasKey ? docsByKey.get(key) : null;
+            if (doc == null) {
+                doc = newDocument(ownerId, item, requestId);
+                newDocs.add(doc);
+                if (hasKey) {
+                    IdempotencyKey expired = expiredKeys.get(key);
+                    if (expired != null) {
+                        renewedKeys.add(renewIdempotencyKey(expired, doc.getId()));
+                    } else {
+                        newKeys.add(newIdempotencyKey(ownerId, key, doc.getId()));
+                    }
+                    docsByKey.put(key, doc);
+                }
+            }
+            resolved.add(doc);
+        }
+
+        usageAccounting.checkQuota(ownerId, newDocs.size(),
+                newDocs.stream().mapToLong(d -> sizeOf(d.getSize())).sum());
+
+        // 3) Batched inserts (expired keys not purged yet are updated in place)
+        documentRepository.persistAll(newDocs);
+        documentChangePublisher.documentsCreated(newDocs);
+        idempotencyKeyRepository.persistAll(newKeys);
+        newKeys.forEach(idempotencyStore::remember);
+        idempotencyKeyRepository.saveAll(renewedKeys).forEach(idempotencyStore::remember);
+
+        // 4) Presign in parallel (pure signing work, no DB access); replays of completed uploads get no URL
+        List<CompletableFuture<PresignedUrlResponse>> presigned = resolved.stream()
+                .map(doc -> acceptsUpload(doc)
+                        ? CompletableFuture.supplyAsync(
+                                () -> storageService.generatePresignedPutUrl(doc.getStorageKey(), presignedTtlSeconds),
+                                documentTaskExecutor)
+                        : CompletableFuture.<PresignedUrlResponse>completedFuture(null))
+                .collect(Collectors.toList());
+
+        List<DocumentCreateResponse> responses = new ArrayList<>(resolved.size());
+        for (int i = 0; i < resolved.size(); i++) {
+            DocumentCreateResponse resp = documentMapper.toCreateResponse(resolved.get(i));
+            PresignedUrlResponse url = join(presigned.get(i));
+            if (url != null) {
+                attachPresignedUrl(resp, url);
+            }
+            responses.add(resp);
+        }
+
+        DocumentBatchCreateResponse response = new DocumentBatchCreateResponse();
+        response.setItems(responses);
+        return response;
+    }
+
+    /**
+     * Create a multipart upload intent for large files.
+     *
+     * Starts an S3 multipart upload and returns one presigned PUT URL per part,
+     * so the client can upload parts in parallel and retry only the parts that
+     * failed. {@link #completeUpload} assembles the parts. Idempotency-Key
+     * semantics are the same as for {@link #createUploadIntent}.
+     */
+    @Transactional
+    public DocumentMultipartResponse createMultipartUploadIntent(String ownerId,
+            DocumentCreateRequest request,
+            String requestId,
+            String idempotencyKey) {
+        KeyLookup lookup = lookupIdempotencyKey(ownerId, idempotencyKey);
+        if (lookup.replay() != null) {
+            Document doc = lookup.replay();
+            return toMultipartResponse(doc, acceptsUpload(doc) ? allPartNumbers(doc) : List.of());
+        }
+
+        validateMultipartRequest(request);
+        usageAccounting.checkQuota(ownerId, 1, sizeOf(request));
+
+        Document doc = newDocument(ownerId, request, requestId);
+        long partSize = multipartPartSize(request.getSize());
+        String uploadId = storageService.createMultipartUpload(doc.getStorageKey(), request.getMimeType());
+        abortMultipartUploadOnRollback(doc.getStorageKey(), uploadId);
+        doc.setUploadId(uploadId);
+        doc.setPartSize(partSize);
+        doc.setPartCount((int) ((request.getSize() + partSize - 1) / partSize));
+        documentRepository.save(doc);
+        documentChangePublisher.documentsCreated(List.of(doc));
+
+        storeIdempotencyKey(ownerId, idempotencyKey, lookup, doc.getId());
 
+        return toMultipartResponse(doc, allPartNumbers(doc));
+    }
+
+    /**
+     * Fresh presigned URLs for some parts of a multipart upload in progress
+     * (resume after failed parts or expired URLs). Not read-only on purpose:
+     * it follows the create right away and must not hit a lagging replica.
+     */
+    @Transactional
+    public DocumentMultipartResponse presignParts(UUID documentId, String callerSub, List<Integer> partNumbers) {
         Document doc = documentRepository.findById(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("document not found"));
 
+        if (!callerSub.equals(doc.getOwnerId()) && !isAdmin(callerSub)) {
+            throw new SecurityException("Not allowed to upload parts for this document");
+        }
+        if (doc.getStatus() != DocumentStatus.UPLOADING || doc.getUploadId() == null) {
+            throw new IllegalStateException("No multipart upload in progress for this document");
+        }
+        for (Integer partNumber : partNumbers) {
+            if (partNumber < 1 || partNumber > doc.getPartCount()) {
+                throw new IllegalArgumentException("part number must be between 1 and " + doc.getPartCount());
+            }
+        }
+        return toMultipartResponse(doc, partNumbers);
+    }
+
+    /**
+     * Abort multipart uploads started before the cutoff that were never
+     * completed and mark their documents FAILED.
+     *
+     * @return number of documents handled (less than limit = none left)
+     */
+    @Transactional
+    public int abortAbandonedMultipartUploads(Instant cutoff, int limit) {
+        List<Document> docs = documentRepository.findByStatusAndUploadIdIsNotNullAndCreatedAtBefore(
+                DocumentStatus.UPLOADING, cutoff, Limit.of(limit));
+        Instant now = Instant.now();
+        for (Document doc : docs) {
+            storageService.abortMultipartUpload(doc.getStorageKey(), doc.getUploadId());
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("storageKey", doc.getStorageKey());
+            details.put("partCount", doc.getPartCount());
+            auditWriter.record(doc.getId(), MULTIPART_SWEEPER_ACTOR, "ABORT_MULTIPART_UPLOAD", details);
+
+            doc.setUploadId(null);
+            doc.setStatus(DocumentStatus.FAILED);
+            doc.setUpdatedAt(now);
+            recordUsage(doc, DocumentStatus.UPLOADING, doc.getSize(), doc.getMetadata());
+        }
+        documentChangePublisher.documentsChanged(docs);
+        return docs.size();
+    }
+
+    /**
+     * Mark upload as complete. Idempotent: repeated calls are fine.
+     *
+     * @throws UploadRejectedException if a multipart upload assembled to another
+     *         size than declared (or beyond the limit); the document is FAILED then
+     */
+    @Transactional(noRollbackFor = UploadRejectedException.class)
+    public DocumentMetadataResponse completeUpload(UUID documentId, String callerSub, DocumentCompleteRequest req) {
+
+        // Claim UPLOADING -> UPLOADED before anything else. The conditional update
+        // locks the row, so concurrent completes (and the bucket notification) wait
+        // for this transaction and then find nothing to claim: only the claimant
+        // assembles, audits and enqueues processing. Any failure below (not
+        // allowed, object missing) rolls the claim back.
+        boolean claimed = transitionStatus(documentId, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED);
+
+        Optional<Document> found = documentRepository.findById(documentId);
+        if (found.isEmpty() && !documentArchive.restore(List.of(documentId)).isEmpty()) {
+            // Archived, so the claim above couldn't see it: claim the restored row
+            claimed = transitionStatus(documentId, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED);
+            found = documentRepository.findById(documentId);
+        }
+        Document doc = found.orElseThrow(() -> new IllegalArgumentException("document not found"));
+
         // Authorization: owner or admin. Adjust per your roles
         if (!callerSub.equals(doc.getOwnerId()) && !isAdmin(callerSub)) {
             throw new SecurityException("Not allowed to complete upload for this document");
         }
 
-        // If already processed beyond 'uploading' - be idempotent
-        if (doc.getStatus() != null && doc.getStatus() != DocumentStatus.UPLOADING) {
+        // Not claimed: already beyond 'uploading' (a repeated call, a concurrent one
+        // that won, or the bucket notification) - be idempotent, no statObject
+        // round trip needed.
+        if (!claimed) {
             // If checksum provided and DB doesn't have it, update it
+            Long sizeBefore = doc.getSize();
             boolean changed = false;
             if (req.getChecksum() != null
                     && (doc.getChecksum() == null || !doc.getChecksum().equals(req.getChecksum()))) {
@@ -192,6 +471,8 @@ public class DocumentService {
             }
             if (changed) {
                 documentRepository.save(doc);
+                recordUsage(doc, doc.getStatus(), sizeBefore, doc.getMetadata());
+                documentChangePublisher.documentChanged(doc);
                 // record audit
                 Map<String, Object> details = new HashMap<>();
                 details.put("notes", "idempotent update");
@@ -200,60 +481,152 @@ public class DocumentService {
                 if (req.getChecksum() != null)
                     details.put("checksum", req.getChecksum());
 
-                AuditEntry audit = new AuditEntry(null, doc.getId(), callerSub, "COMPLETE_UPLOAD (idempotent update)",
-                        jsonMapper.toJson(details));
-                auditRepository.save(audit);
+                auditWriter.record(doc.getId(), callerSub, "COMPLETE_UPLOAD (idempotent update)", details);
 
             }
             return documentMapper.toMetadataResponse(doc, jsonMapper);
         }
 
-        // At this point status == UPLOADING, proceed to verify object exists
-        boolean exists = storageService.exists(doc.getStorageKey());
-        if (!exists) {
-            throw new IllegalStateException("Uploaded object not found in storage; upload may have failed");
+        // Claimed, so this call moved it out of UPLOADING. Multipart: assemble the parts
+        // and check the result against the declared size (part URLs don't bind
+        // Content-Length). Single PUT: verify the object exists.
+        Long sizeBefore = doc.getSize();
+        String metadataBefore = doc.getMetadata();
+        Integer assembledParts = null;
+        StoredObject stored;
+        if (doc.getUploadId() != null) {
+            stored = storageService.completeMultipartUpload(doc.getStorageKey(), doc.getUploadId(),
+                    doc.getPartCount());
+            assembledParts = doc.getPartCount();
+            doc.setUploadId(null);
+            if (stored.getSize() == null || !stored.getSize().equals(doc.getSize())
+                    || stored.getSize() > multipartMaxSizeBytes) {
+                rejectUpload(doc, stored, callerSub, metadataBefore);
+            }
+        } else {
+            stored = storageService.stat(doc.getStorageKey());
+            if (stored == null) {
+                throw new IllegalStateException("Uploaded object not found in storage; upload may have failed");
+            }
+            if (req.getSize() != null) {
+                doc.setSize(req.getSize());
+            }
         }
 
-        // Update size/checksum if provided
+        // Update checksum if provided
         if (req.getChecksum() != null) {
             doc.setChecksum(req.getChecksum());
         }
-        if (req.getSize() != null) {
-            doc.setSize(req.getSize());
-        }
 
-        doc.setStatus(DocumentStatus.UPLOADED);
+        // Already UPLOADED in the row (and in doc, loaded after the claim)
         doc.setUpdatedAt(Instant.now());
         documentRepository.save(doc);
 
         // Audit the completion
-        AuditEntry audit = new AuditEntry();
-        audit.setDocumentId(doc.getId());
-        audit.setActorId(callerSub);
-        audit.setAction("COMPLETE_UPLOAD");
         Map<String, Object> details2 = new HashMap<>();
-        if (req.getSize() != null)
-            details2.put("size", req.getSize());
+        if (doc.getSize() != null)
+            details2.put("size", doc.getSize());
+        if (assembledParts != null)
+            details2.put("parts", assembledParts);
         if (req.getChecksum() != null)
             details2.put("checksum", req.getChecksum());
         details2.put("storageKey", doc.getStorageKey());
 
-        audit.setDetails(jsonMapper.toJson(details2));
-        auditRepository.save(audit);
+        auditWriter.record(doc.getId(), callerSub, "COMPLETE_UPLOAD", details2);
 
-        // Publish processing job (worker consumes and does scanning/OCR/indexing)
-        processingPublisher.publishProcessingJob(doc.getId(), doc.getStorageKey(),
-        doc.getRequestId());
+        // Enqueue processing job (worker consumes and does scanning/OCR/indexing),
+        // unless the same content was processed before. Goes through the outbox,
+        // so it is only published if this commits.
+        if (!reuseExistingAnalysis(doc, stored, callerSub)) {
+            processingPublisher.publishProcessingJob(doc);
+        }
+        // After dedup, which may already have moved it to PROCESSED
+        recordUsage(doc, DocumentStatus.UPLOADING, sizeBefore, metadataBefore);
+        documentChangePublisher.documentChanged(doc);
 
         return documentMapper.toMetadataResponse(doc, jsonMapper);
     }
 
+    /**
+     * Fail a claimed upload whose object doesn't match the intent: the object
+     * is queued for purging (it is still the document's own, dedup hasn't run),
+     * the document goes to FAILED and counts with its declared size.
+     */
+    private void rejectUpload(Document doc, StoredObject stored, String callerSub, String metadataBefore) {
+        purgeQueue.enqueue(doc.getStorageKey(), PurgeQueue.REASON_REJECTED);
+        doc.setStatus(DocumentStatus.FAILED);
+        doc.setUpdatedAt(Instant.now());
+        documentRepository.save(doc);
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("declaredSize", doc.getSize());
+        details.put("assembledSize", stored.getSize());
+        details.put("storageKey", doc.getStorageKey());
+        auditWriter.record(doc.getId(), callerSub, "REJECT_UPLOAD", details);
+
+        recordUsage(doc, DocumentStatus.UPLOADING, doc.getSize(), metadataBefore);
+        documentChangePublisher.documentChanged(doc);
+        throw new UploadRejectedException("assembled size " + stored.getSize() + " does not match declared size "
+                + doc.getSize());
+    }
+
+    /**
+     * Complete uploads reported by MinIO object-created notifications.
+     *
+     * Only documents still UPLOADING are transitioned, in one transaction for
+     * the whole batch; everything else was already completed via /complete.
+     * No storage check is needed, the notification is the proof of upload.
+     *
+     * @param objectsByStorageKey uploaded storage keys with the size and ETag MinIO reported
+     * @return number of documents moved to UPLOADED
+     */
+    @Transactional
+    public int markUploaded(Map<String, StoredObject> objectsByStorageKey) {
+        List<Document> docs = documentRepository.findByStorageKeyInAndStatus(objectsByStorageKey.keySet(),
+                DocumentStatus.UPLOADING);
+        if (docs.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<Document> toProcess = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            StoredObject stored = objectsByStorageKey.get(doc.getStorageKey());
+            Long sizeBefore = doc.getSize();
+            String metadataBefore = doc.getMetadata();
+            Long size = stored != null ? stored.getSize() : null;
+            if (size != null) {
+                doc.setSize(size);
+            }
+            doc.setStatus(DocumentStatus.UPLOADED);
+            doc.setUploadId(null);
+            doc.setUpdatedAt(now);
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("source", "bucket-notification");
+            details.put("storageKey", doc.getStorageKey());
+            if (size != null)
+                details.put("size", size);
+            auditWriter.record(doc.getId(), STORAGE_ACTOR, "COMPLETE_UPLOAD", details);
+
+            if (!reuseExistingAnalysis(doc, stored, STORAGE_ACTOR)) {
+                toProcess.add(doc);
+            }
+            recordUsage(doc, DocumentStatus.UPLOADING, sizeBefore, metadataBefore);
+        }
+
+        processingPublisher.publishProcessingJobs(toProcess);
+        documentChangePublisher.documentsChanged(docs);
+        return docs.size();
+    }
+
     /**
      * Return lightweight status (id, status, progress, lastUpdated).
+     * Served from the read cache's status projections: the metadata column
+     * is never loaded, not even on a cache miss.
      */
-    @Transactional(readOnly = true)
     public DocumentStatusResponse getStatus(UUID documentId, String callerSub) {
-        Document doc = documentRepository.findById(documentId)
+        DocumentStatusView doc = documentReadCache.getStatus(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("document not found"));
 
         // Authorization: owner or admin
@@ -267,12 +640,52 @@ public class DocumentService {
     }
 
     /**
-     * Return full metadata. If download == true, include a presigned GET URL
-     * (short-lived).
+     * Current state of a document as the first event of its SSE stream.
+     * Same cache and authorization as {@link #getStatus}.
+     */
+    public DocumentEventResponse getStatusEvent(UUID documentId, String callerSub) {
+        DocumentStatusView doc = documentReadCache.getStatus(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("document not found"));
+
+        if (!callerSub.equals(doc.getOwnerId()) && !isAdmin(callerSub)) {
+            throw new SecurityException("Not allowed to view status of this document");
+        }
+
+        DocumentEventResponse resp = new DocumentEventResponse();
+        resp.setDocumentId(doc.getId());
+        resp.setStatus(doc.getStatus() != null ? doc.getStatus().name() : null);
+        resp.setLastUpdated(doc.getUpdatedAt());
+        if (doc.getStatus() == DocumentStatus.PROCESSED) {
+            // Only finished documents carry AI results worth loading the metadata for
+            documentReadCache.get(documentId)
+                    .ifPresent(full -> resp.setMetadata(jsonMapper.fromJson(full.getMetadata())));
+        }
+        return resp;
+    }
+
+    /**
+     * Owner's documents still in flight (uploading or being processed), most
+     * recently updated first, as the initial snapshot of the owner SSE stream.
      */
     @Transactional(readOnly = true)
+    public List<DocumentEventResponse> listInFlightEvents(String ownerId, int limit) {
+        return documentRepository.findByOwnerIdAndStatusInOrderByUpdatedAtDesc(ownerId, IN_FLIGHT, Limit.of(limit)).stream()
+                .map(view -> {
+                    DocumentEventResponse resp = new DocumentEventResponse();
+                    resp.setDocumentId(view.getId());
+                    resp.setStatus(view.getStatus().name());
+                    resp.setLastUpdated(view.getUpdatedAt());
+                    return resp;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Return full metadata. If download == true, include a presigned GET URL
+     * (short-lived). Served from the read cache like {@link #getStatus}.
+     */
     public DocumentMetadataResponse getMetadata(UUID documentId, String callerSub, boolean download) {
-        Document doc = documentRepository.findById(documentId)
+        Document doc = documentReadCache.get(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("document not found"));
 
         // Authorization: owner or admin or allowed by ACL (extend here)
@@ -284,7 +697,7 @@ public class DocumentService {
 
         if (download) {
             // Only provide download if document is in a state that allows it
-            if (doc.getStatus() == DocumentStatus.PROCESSED || doc.getStatus() == DocumentStatus.UPLOADED) {
+            if (isDownloadable(doc.getStatus())) {
                 // ask storage for a presigned GET URL
                 PresignedUrlResponse presigned = storageService.generatePresignedGetUrl(doc.getStorageKey(),
                         presignedTtlSeconds);
@@ -302,14 +715,153 @@ public class DocumentService {
     }
 
     /**
-     * List documents for a specific owner with pagination.
+     * Metadata of many of the caller's documents at once (search result
+     * hydration): one IN query scoped to the owner, presigned GET URLs for
+     * downloadable documents generated in parallel when asked for.
+     */
+    @Transactional(readOnly = true)
+    public DocumentLookupResponse lookupDocuments(List<UUID> documentIds, String ownerId, boolean download) {
+        List<UUID> requested = new ArrayList<>(new LinkedHashSet<>(documentIds));
+        Map<UUID, Document> found = documentRepository
+                .findByOwnerIdAndIdInAndStatusNot(ownerId, requested, DocumentStatus.DELETED).stream()
+                .collect(Collectors.toMap(Document::getId, d -> d));
+        if (found.size() < requested.size()) {
+            List<UUID> missing = requested.stream().filter(id -> !found.containsKey(id)).collect(Collectors.toList());
+            documentArchive.findLive(ownerId, missing).forEach(doc -> found.put(doc.getId(), doc));
+        }
+
+        List<Document> docs = new ArrayList<>(found.size());
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID id : requested) {
+            Document doc = found.get(id);
+            if (doc != null) {
+                docs.add(doc);
+            } else {
+                notFound.add(id);
+            }
+        }
+
+        // Presign in parallel (pure signing work, no DB access)
+        List<CompletableFuture<PresignedUrlResponse>> presigned = docs.stream()
+                .map(doc -> download && isDownloadable(doc.getStatus())
+                        ? CompletableFuture.supplyAsync(
+                                () -> storageService.generatePresignedGetUrl(doc.getStorageKey(), presignedTtlSeconds),
+                                documentTaskExecutor)
+                        : CompletableFuture.<PresignedUrlResponse>completedFuture(null))
+                .collect(Collectors.toList());
+
+        List<DocumentMetadataResponse> items = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            DocumentMetadataResponse resp = documentMapper.toMetadataResponse(docs.get(i), jsonMapper);
+            PresignedUrlResponse url = join(presigned.get(i));
+            if (url != null) {
+                resp.setPresignedGetUrl(url.getUrl());
+                resp.setPresignedGetUrlExpiresAt(url.getExpiresAt());
+                resp.setPresignedGetTtlSeconds(url.getTtlSeconds());
+            }
+            items.add(resp);
+        }
+
+        DocumentLookupResponse response = new DocumentLookupResponse();
+        response.setItems(items);
+        response.setNotFound(notFound);
+        return response;
+    }
+
+    /**
+     * Documents of the owner created, updated or deleted after the cursor
+     * (client sync). Each document appears once with its current state, or as
+     * a tombstone if it was deleted; the cursor is the sequence of the last
+     * change handed out. Without a cursor, or with one older than the
+     * retained changes, only a fresh cursor is returned and the client has to
+     * list everything.
+     */
+    @Transactional(readOnly = true)
+    public DocumentChangesResponse listChanges(String ownerId, String cursor, int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit must be between 1 and 1000");
+        }
+        Instant horizon = Instant.now().minusMillis(changesSettleMs);
+        DocumentChangesResponse resp = new DocumentChangesResponse();
+        resp.setItems(new ArrayList<>());
+
+        long since = cursor == null || cursor.isBlank() ? -1 : CursorCodec.decodeSequence(cursor);
+        Long oldest = documentChangeRepository.findOldestSequence();
+        if (since < 0 || (oldest != null && since < oldest - 1)) {
+            // Head = last settled sequence: everything up to it is committed and in the listing that follows
+            Long unsettled = documentChangeRepository.findFirstSequenceAfter(horizon);
+            Long latest = documentChangeRepository.findLatestSequence();
+            long head = unsettled != null ? unsettled - 1 : (latest != null ? latest : 0);
+            resp.setResyncRequired(true);
+            resp.setNextCursor(CursorCodec.encodeSequence(head));
+            return resp;
+        }
+
+        // One extra row tells whether there is more
+        List<DocumentChange> changes = documentChangeRepository.findAfter(ownerId, since, Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        List<DocumentChange> page = new ArrayList<>(Math.min(changes.size(), limit));
+        for (DocumentChange change : changes) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (change.getRecordedAt().isAfter(horizon)) {
+                // Not settled: stop here, the client picks it up with the next poll
+                hasMore = false;
+                break;
+            }
+            page.add(change);
+        }
+
+        // Last change per document decides its position
+        Map<UUID, Long> latestChange = new LinkedHashMap<>();
+        for (DocumentChange change : page) {
+            latestChange.remove(change.getDocumentId());
+            latestChange.put(change.getDocumentId(), change.getId());
+        }
+        Map<UUID, Document> docs = documentRepository.findAllById(latestChange.keySet()).stream()
+                .collect(Collectors.toMap(Document::getId, d -> d));
+        if (docs.size() < latestChange.size()) {
+            List<UUID> missing = latestChange.keySet().stream().filter(id -> !docs.containsKey(id))
+                    .collect(Collectors.toList());
+            documentArchive.findAllById(missing).forEach(doc -> docs.put(doc.getId(), doc));
+        }
+        for (UUID documentId : latestChange.keySet()) {
+            Document doc = docs.get(documentId);
+            DocumentChangeItem item = new DocumentChangeItem();
+            item.setDocumentId(documentId);
+            if (doc == null || doc.getStatus() == DocumentStatus.DELETED) {
+                item.setDeleted(true);
+            } else {
+                item.setDocument(documentMapper.toListItem(doc));
+            }
+            resp.getItems().add(item);
+        }
+
+        resp.setHasMore(hasMore);
+        resp.setNextCursor(CursorCodec.encodeSequence(page.isEmpty() ? since : page.get(page.size() - 1).getId()));
+        return resp;
+    }
+
+    /**
+     * Usage of one owner from the usage counters: no aggregation over documents.
+     */
+    @Transactional(readOnly = true)
+    public DocumentStatsResponse getStats(String ownerId) {
+        return usageAccounting.getStats(ownerId);
+    }
+
+    /**
+     * List documents for a specific owner with pagination. Hot documents
+     * only: archived ones are listed by the keyset listing.
      */
     @Transactional(readOnly = true)
     public DocumentListResponse listDocuments(String ownerId, int page, int size) {
         // PageRequest is 0-indexed
         PageRequest pageReq = PageRequest.of(page, size, Sort.by("createdAt").descending());
 
-        Page<Document> docPage = documentRepository.findByOwnerId(ownerId, pageReq);
+        Page<Document> docPage = documentRepository.findByOwnerIdAndStatusNot(ownerId, DocumentStatus.DELETED,
+                pageReq);
 
         List<DocumentListItem> items = docPage.getContent().stream()
                 .map(documentMapper::toListItem)
@@ -324,64 +876,557 @@ public class DocumentService {
         return resp;
     }
 
+    /**
+     * Keyset (cursor) listing: newest first, no OFFSET scan.
+     *
+     * @param cursor       opaque cursor from the previous page's nextCursor; null or
+     *                     blank for the first page
+     * @param status       optional status filter; DELETED rows are never listed otherwise
+     * @param includeTotal run the COUNT query too (off by default, it's the slow part)
+     */
+    @Transactional(readOnly = true)
+    public DocumentListResponse listDocumentsAfter(String ownerId, String cursor, int size, DocumentStatus status,
+            boolean includeTotal) {
+        if (size < 1 || size > 500) {
+            throw new IllegalArgumentException("size must be between 1 and 500");
+        }
+        // Fetch one extra row to know whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<Document> docs;
+        CursorCodec.Cursor after = cursor == null || cursor.isBlank() ? null : CursorCodec.decode(cursor);
+        if (after == null) {
+            docs = status != null
+                    ? documentRepository.findFirstPageWithStatus(ownerId, status, limit)
+                    : documentRepository.findFirstPage(ownerId, DocumentStatus.DELETED, limit);
+        } else {
+            docs = status != null
+                    ? documentRepository.findPageAfterWithStatus(ownerId, status, after.createdAt(), after.id(), limit)
+                    : documentRepository.findPageAfter(ownerId, DocumentStatus.DELETED, after.createdAt(), after.id(),
+                            limit);
+        }
+        // Same page from the archive, unless the hot rows alone are provably the newest
+        if (docs.size() <= size || status == DocumentStatus.DELETED
+                || documentArchive.mayHoldLiveCreatedAfter(docs.get(docs.size() - 1).getCreatedAt())) {
+            List<Document> archived = documentArchive.findPage(ownerId, status,
+                    after != null ? after.createdAt() : null, after != null ? after.id() : null, limit);
+            if (!archived.isEmpty()) {
+                docs = newestFirst(docs, archived, size + 1);
+            }
+        }
+
+        boolean hasMore = docs.size() > size;
+        if (hasMore) {
+            docs = docs.subList(0, size);
+        }
+
+        DocumentListResponse resp = new DocumentListResponse();
+        resp.setItems(docs.stream().map(documentMapper::toListItem).collect(Collectors.toList()));
+        resp.setSize(size);
+        if (hasMore) {
+            Document last = docs.get(docs.size() - 1);
+            resp.setNextCursor(CursorCodec.encode(last.getCreatedAt(), last.getId()));
+        }
+        if (includeTotal) {
+            resp.setTotal((status != null
+                    ? documentRepository.countByOwnerIdAndStatus(ownerId, status)
+                    : documentRepository.countByOwnerIdAndStatusNot(ownerId, DocumentStatus.DELETED))
+                    + documentArchive.count(ownerId, status));
+        }
+        return resp;
+    }
+
     /**
      * Delete a document:
-     * 1. Remove from Storage (MinIO).
+     * 1. Queue the object for purging (removed from MinIO in the background).
      * 2. Mark as DELETED in DB (Soft Delete).
      * 3. Create Audit log.
+     * Metadata-only: no storage call on the request path.
      */
     @Transactional
     public void deleteDocument(UUID documentId, String callerSub) {
-        Document doc = documentRepository.findById(documentId)
+        // Projection without the metadata column, row-locked like the bulk delete
+        DocumentStorageView doc = lockStorageViewById(documentId)
                 .orElseThrow(() -> new IllegalArgumentException("document not found"));
 
         if (!callerSub.equals(doc.getOwnerId()) && !isAdmin(callerSub)) {
             throw new SecurityException("Not allowed to delete this document");
         }
 
-        // 1. Remove from MinIO (if it exists and has a key)
-        if (doc.getStorageKey() != null) {
-            try {
-                storageService.delete(doc.getStorageKey());
-            } catch (Exception e) {
-                // Log warning, but proceed to mark as deleted in DB so UI stays consistent
-                System.err.println("Warning: Failed to delete file from storage: " + e.getMessage());
-            }
+        if (doc.getStatus() == DocumentStatus.DELETED) {
+            // Already deleted: don't drop the content reference twice
+            return;
         }
 
+        // 1. Release the content; a purge intent for the MinIO object is written
+        // once no other (deduplicated) document references it
+        contentDeduplicator.release(doc);
+
         // 2. Soft delete in DB
-        doc.setStatus(DocumentStatus.DELETED);
-        doc.setUpdatedAt(Instant.now());
-        documentRepository.save(doc);
+        documentRepository.updateStatusByIdIn(List.of(documentId), DocumentStatus.DELETED, Instant.now());
+        usageAccounting.changed(doc.getOwnerId(), usageOf(doc), null);
+        publishBulkChanges(List.of(documentId));
 
-        // 3. Audit
-        AuditEntry audit = new AuditEntry(null, doc.getId(), callerSub, "DELETE", null);
-        auditRepository.save(audit);
+        // 3. Audit (DELETE is written synchronously, see audit.sync-actions)
+        auditWriter.record(documentId, callerSub, "DELETE", null);
+    }
+
+    /**
+     * Delete many of the caller's documents with set-based statements: per
+     * chunk of ids one locking SELECT, one UPDATE and one batched release of
+     * the content; audit entries are written in one batch and the objects go
+     * to the purge worker. Ids that don't exist or belong to someone else are
+     * reported and skipped; already deleted ones count as processed.
+     */
+    @Transactional
+    public DocumentBulkResponse bulkDelete(List<UUID> documentIds, String callerSub) {
+        DocumentBulkResponse resp = newBulkResponse();
+        Instant now = Instant.now();
+        List<UUID> deleted = new ArrayList<>();
+        for (List<UUID> chunk : bulkChunks(documentIds)) {
+            List<DocumentStorageView> allowed = authorizeBulk(chunk,
+                    withRestored(chunk, documentRepository::lockStorageViewsByIdIn), callerSub, resp);
+            resp.setProcessed(resp.getProcessed() + allowed.size());
+
+            List<DocumentStorageView> live = allowed.stream()
+                    .filter(doc -> doc.getStatus() != DocumentStatus.DELETED)
+                    .collect(Collectors.toList());
+            if (live.isEmpty()) {
+                continue;
+            }
+            List<UUID> ids = live.stream().map(DocumentStorageView::getId).collect(Collectors.toList());
+            contentDeduplicator.releaseAll(live);
+            documentRepository.updateStatusByIdIn(ids, DocumentStatus.DELETED, now);
+            live.forEach(doc -> usageAccounting.changed(doc.getOwnerId(), usageOf(doc), null));
+            deleted.addAll(ids);
+        }
+
+        auditWriter.recordAll(deleted, callerSub, "DELETE", Map.of("bulk", true));
+        publishBulkChanges(deleted);
+        return resp;
+    }
+
+    /**
+     * Set visibility and/or merge a metadata patch on many of the caller's
+     * documents, one UPDATE per chunk of ids. Skips like {@link #bulkDelete};
+     * deleted documents count as not found.
+     */
+    @Transactional
+    public DocumentBulkResponse bulkUpdate(DocumentBulkUpdateRequest request, String callerSub) {
+        if (request.getVisibility() == null && request.getMetadata() == null) {
+            throw new IllegalArgumentException("visibility or metadata is required");
+        }
+        String patch = request.getMetadata() != null ? jsonMapper.toJson(request.getMetadata()) : null;
+        // A category change moves usage counters: read (and lock) the current categories
+        boolean recategorize = request.getMetadata() != null && request.getMetadata().containsKey("category");
+        String category = recategorize ? DocumentUsage.category(request.getMetadata().get("category")) : null;
+
+        DocumentBulkResponse resp = newBulkResponse();
+        Instant now = Instant.now();
+        List<UUID> updated = new ArrayList<>();
+        for (List<UUID> chunk : bulkChunks(request.getDocumentIds())) {
+            List<UUID> ids = new ArrayList<>();
+            List<? extends DocumentStatusView> found = recategorize
+                    ? withRestored(chunk, documentRepository::lockStorageViewsByIdIn)
+                    : withRestored(chunk, documentRepository::findStatusViewsByIdIn);
+            for (DocumentStatusView doc : authorizeBulk(chunk, found, callerSub, resp)) {
+                if (doc.getStatus() == DocumentStatus.DELETED) {
+                    resp.getNotFound().add(doc.getId());
+                } else {
+                    ids.add(doc.getId());
+                    if (recategorize) {
+                        DocumentStorageView view = (DocumentStorageView) doc;
+                        usageAccounting.changed(view.getOwnerId(), usageOf(view),
+                                DocumentUsage.of(view.getStatus(), view.getSize(), category));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                continue;
+            }
+            if (request.getVisibility() != null) {
+                documentRepository.updateVisibilityByIdIn(ids, request.getVisibility(), now);
+            }
+            if (patch != null) {
+                documentRepository.mergeMetadataByIdIn(ids, patch, now);
+            }
+            updated.addAll(ids);
+        }
+        resp.setProcessed(updated.size());
+
+        Map<String, Object> details = new HashMap<>();
+        if (request.getVisibility() != null)
+            details.put("visibility", request.getVisibility());
+        if (request.getMetadata() != null)
+            details.put("metadataKeys", new ArrayList<>(request.getMetadata().keySet()));
+        auditWriter.recordAll(updated, callerSub, "BULK_UPDATE", details);
+        publishBulkChanges(updated);
+        return resp;
     }
 
     /**
      * Update metadata for a document (used by AI processor).
+     *
+     * Single UPDATE with JSON_MERGE_PATCH: no entity load, no Java-side merge.
+     * Top-level keys are replaced as before; nested objects are merged and a
+     * null value removes the key (JSON merge-patch semantics).
      */
     @Transactional
     public void updateMetadata(UUID documentId, Map<String, Object> newMetadata) {
-        Document doc = documentRepository.findById(documentId)
+        // Locked first: the status before the merge decides the usage change. The category
+        // (JSON_VALUE over the metadata) is only read if the patch sets it; otherwise it counts
+        // the same before and after, like the size, and both are left out of the change
+        boolean setsCategory = newMetadata.containsKey("category");
+        DocumentStatusView before = (setsCategory
+                ? lockOrRestore(documentId, documentRepository::lockStorageViewById).map(DocumentStatusView.class::cast)
+                : lockOrRestore(documentId, documentRepository::lockStatusViewById))
                 .orElseThrow(() -> new IllegalArgumentException("document not found"));
+        Instant now = Instant.now();
+        // Optionally update status to PROCESSED if it was PROCESSING
+        documentRepository.mergeMetadata(documentId, jsonMapper.toJson(newMetadata),
+                PROCESSED_FROM, DocumentStatus.PROCESSED, now);
+        // Same rule as the UPDATE, applied to the locked row: nothing to read back
+        DocumentStatus status = PROCESSED_FROM.contains(before.getStatus()) ? DocumentStatus.PROCESSED
+                : before.getStatus();
+        if (before instanceof DocumentStorageView storage) {
+            usageAccounting.changed(before.getOwnerId(), usageOf(storage),
+                    DocumentUsage.of(status, storage.getSize(), newMetadata.get("category")));
+        } else {
+            usageAccounting.changed(before.getOwnerId(), DocumentUsage.of(before.getStatus(), null, null),
+                    DocumentUsage.of(status, null, null));
+        }
+        documentChangePublisher.metadataChanged(documentId, before.getOwnerId(), status, now, newMetadata);
+    }
+
+    private Optional<DocumentStorageView> lockStorageViewById(UUID documentId) {
+        return lockOrRestore(documentId, documentRepository::lockStorageViewById);
+    }
 
-        // Merge new metadata into existing
-        Map<String, Object> existingMeta = jsonMapper.fromJson(doc.getMetadata());
-        if (existingMeta == null) {
-            existingMeta = new HashMap<>();
+    // Writes work on documents only: an archived document is moved back first.
+    // Row-locking lookup; a document that isn't found is restored from the archive and looked up again
+    private <V> Optional<V> lockOrRestore(UUID documentId, Function<UUID, Optional<V>> lock) {
+        Optional<V> doc = lock.apply(documentId);
+        if (doc.isEmpty() && !documentArchive.restore(List.of(documentId)).isEmpty()) {
+            doc = lock.apply(documentId);
         }
-        existingMeta.putAll(newMetadata);
+        return doc;
+    }
 
-        doc.setMetadata(jsonMapper.toJson(existingMeta));
-        
-        // Optionally update status to PROCESSED if it was PROCESSING
-        if (doc.getStatus() == DocumentStatus.UPLOADED || doc.getStatus() == DocumentStatus.PROCESSING) {
-            doc.setStatus(DocumentStatus.PROCESSED);
+    // Bulk variant: ids the lookup doesn't find are restored from the archive and looked up again
+    private <V extends DocumentStatusView> List<V> withRestored(List<UUID> ids, Function<List<UUID>, List<V>> lookup) {
+        List<V> found = lookup.apply(ids);
+        if (found.size() < ids.size()) {
+            Set<UUID> missing = new LinkedHashSet<>(ids);
+            found.forEach(doc -> missing.remove(doc.getId()));
+            List<UUID> restored = documentArchive.restore(missing);
+            if (!restored.isEmpty()) {
+                found = new ArrayList<>(found);
+                found.addAll(lookup.apply(restored));
+            }
         }
-        
-        documentRepository.save(doc);
+        return found;
+    }
+
+    // Merge of two keyset pages (same order as the queries: createdAt desc, id desc), cut at limit
+    private static List<Document> newestFirst(List<Document> hot, List<Document> archived, int limit) {
+        List<Document> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        merged.addAll(archived);
+        // Ids compare like the database does (hex text; same order as binary(16))
+        merged.sort(Comparator.comparing(Document::getCreatedAt)
+                .thenComparing(doc -> doc.getId().toString())
+                .reversed());
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    /**
+     * Atomic status change from one status to another (see
+     * {@link DocumentRepository#transitionStatus}).
+     *
+     * @return false if the document was no longer in {@code from}: another
+     *         writer got there first
+     * @throws IllegalStateException if the transition table forbids the change
+     */
+    private boolean transitionStatus(UUID documentId, DocumentStatus from, DocumentStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStateException("illegal status transition " + from + " -> " + to);
+        }
+        return documentRepository.transitionStatus(documentId, from, to, Instant.now()) == 1;
+    }
+
+    /**
+     * Dedup a completed upload against already stored content. If the same
+     * content was processed before, its analysis is copied, the document is
+     * PROCESSED and consumers are told to copy their derived data.
+     *
+     * @return true if no processing job is needed
+     */
+    private boolean reuseExistingAnalysis(Document doc, StoredObject stored, String actor) {
+        Document source = contentDeduplicator.deduplicate(doc, stored);
+        if (source == null) {
+            return false;
+        }
+        Map<String, Object> details = new HashMap<>();
+        details.put("sourceDocumentId", source.getId().toString());
+        details.put("contentHash", doc.getContentHash());
+        auditWriter.record(doc.getId(), actor, "DEDUPLICATE", details);
+        processingPublisher.publishDeduplicated(doc, source);
+        return true;
+    }
+
+    // Usage change of a loaded document; metadata only differs after dedup copied an analysis
+    private void recordUsage(Document doc, DocumentStatus statusBefore, Long sizeBefore, String metadataBefore) {
+        Object categoryBefore = null;
+        Object categoryAfter = null;
+        if (!Objects.equals(metadataBefore, doc.getMetadata())) {
+            categoryBefore = categoryOf(metadataBefore);
+            categoryAfter = categoryOf(doc.getMetadata());
+        }
+        usageAccounting.changed(doc.getOwnerId(), DocumentUsage.of(statusBefore, sizeBefore, categoryBefore),
+                DocumentUsage.of(doc.getStatus(), doc.getSize(), categoryAfter));
+    }
+
+    private Object categoryOf(String metadataJson) {
+        Map<String, Object> metadata = jsonMapper.fromJson(metadataJson);
+        return metadata != null ? metadata.get("category") : null;
+    }
+
+    private static DocumentUsage usageOf(DocumentStorageView doc) {
+        return DocumentUsage.of(doc.getStatus(), doc.getSize(), doc.getCategory());
+    }
+
+    private static long sizeOf(DocumentCreateRequest request) {
+        return sizeOf(request.getSize());
+    }
+
+    private static long sizeOf(Long size) {
+        return size != null ? size : 0L;
+    }
+
+    private static DocumentBulkResponse newBulkResponse() {
+        DocumentBulkResponse resp = new DocumentBulkResponse();
+        resp.setNotFound(new ArrayList<>());
+        resp.setForbidden(new ArrayList<>());
+        return resp;
+    }
+
+    // Distinct ids in IN-list sized chunks
+    private static List<List<UUID>> bulkChunks(List<UUID> documentIds) {
+        List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(documentIds));
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(distinct.subList(i, Math.min(i + BULK_CHUNK_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    // Documents of the chunk the caller may change; the others are reported in resp
+    private <V extends DocumentStatusView> List<V> authorizeBulk(List<UUID> requested, List<V> found,
+            String callerSub, DocumentBulkResponse resp) {
+        boolean admin = isAdmin(callerSub);
+        Set<UUID> missing = new LinkedHashSet<>(requested);
+        List<V> allowed = new ArrayList<>(found.size());
+        for (V doc : found) {
+            missing.remove(doc.getId());
+            if (admin || callerSub.equals(doc.getOwnerId())) {
+                allowed.add(doc);
+            } else {
+                resp.getForbidden().add(doc.getId());
+            }
+        }
+        resp.getNotFound().addAll(missing);
+        return allowed;
+    }
+
+    // Status events for rows changed by set-based updates, read back in chunks
+    private void publishBulkChanges(List<UUID> documentIds) {
+        for (int i = 0; i < documentIds.size(); i += BULK_CHUNK_SIZE) {
+            List<UUID> chunk = documentIds.subList(i, Math.min(i + BULK_CHUNK_SIZE, documentIds.size()));
+            documentChangePublisher.documentViewsChanged(documentRepository.findStatusViewsByIdIn(chunk));
+        }
+    }
+
+    private void validateMultipartRequest(DocumentCreateRequest request) {
+        if (request.getSize() == null) {
+            throw new IllegalArgumentException("size is required for multipart uploads");
+        }
+        if (request.getSize() > multipartMaxSizeBytes) {
+            throw new IllegalArgumentException("file size exceeds allowed limit");
+        }
+    }
+
+    // Configured part size, grown (in whole MiB) when the file would need more than 10000 parts
+    private long multipartPartSize(long size) {
+        long partSize = Math.max(multipartPartSizeBytes, MIN_PART_SIZE);
+        if ((size + partSize - 1) / partSize > MAX_PARTS) {
+            long mib = 1024L * 1024;
+            long needed = (size + MAX_PARTS - 1) / MAX_PARTS;
+            partSize = (needed + mib - 1) / mib * mib;
+        }
+        return partSize;
+    }
+
+    private List<Integer> allPartNumbers(Document doc) {
+        if (doc.getUploadId() == null || doc.getPartCount() == null) {
+            return List.of();
+        }
+        List<Integer> numbers = new ArrayList<>(doc.getPartCount());
+        for (int i = 1; i <= doc.getPartCount(); i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    private DocumentMultipartResponse toMultipartResponse(Document doc, List<Integer> partNumbers) {
+        List<DocumentPartUrl> parts = new ArrayList<>(partNumbers.size());
+        Instant expiresAt = null;
+        for (Integer partNumber : partNumbers) {
+            PresignedUrlResponse presigned = storageService.generatePresignedPartUrl(doc.getStorageKey(),
+                    doc.getUploadId(), partNumber, multipartPartUrlTtlSeconds);
+            parts.add(new DocumentPartUrl(partNumber, presigned.getUrl()));
+            expiresAt = presigned.getExpiresAt();
+        }
+
+        DocumentMultipartResponse resp = new DocumentMultipartResponse();
+        resp.setDocumentId(doc.getId());
+        resp.setStorageKey(doc.getStorageKey());
+        resp.setStatus(doc.getStatus() != null ? doc.getStatus().name() : null);
+        resp.setPartSize(doc.getPartSize());
+        resp.setPartCount(doc.getPartCount());
+        resp.setParts(parts);
+        resp.setPresignedUrlExpiresAt(expiresAt);
+        resp.setTtlSeconds(parts.isEmpty() ? null : multipartPartUrlTtlSeconds);
+        return resp;
+    }
+
+    // The multipart upload was started before the row was written; don't leave it behind on rollback
+    private void abortMultipartUploadOnRollback(String storageKey, String uploadId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    try {
+                        storageService.abortMultipartUpload(storageKey, uploadId);
+                    } catch (RuntimeException e) {
+                        // The sweeper aborts it later
+                        log.warn("Failed to abort multipart upload {}", uploadId, e);
+                    }
+                }
+            }
+        });
+    }
+
+    private void validateUploadRequest(DocumentCreateRequest request) {
+        if (request.getSize() != null && request.getSize() > 100L * 1024 * 1024) { // example 100 MB max
+            throw new IllegalArgumentException("file size exceeds allowed limit");
+        }
+        // TODO: add mime type whitelist checks, quota checks etc.
+    }
+
+    private Document newDocument(String ownerId, DocumentCreateRequest request, String requestId) {
+        UUID documentId = UuidV7.next();
+        String tenantId = tenantResolver.currentTenant();
+        String storageKey = storageLayout.newKey(tenantId, documentId, request.getFilename());
+
+        Document doc = new Document();
+        doc.setId(documentId);
+        doc.setOwnerId(ownerId);
+        doc.setTenantId(tenantId);
+        doc.setFilename(request.getFilename());
+        doc.setMimeType(request.getMimeType());
+        doc.setSize(request.getSize());
+        doc.setStorageKey(storageKey);
+        doc.setStatus(DocumentStatus.UPLOADING);
+        doc.setChecksum(null);
+        doc.setVisibility(request.getVisibility());
+        // store metadata as JSON string via mapper or directly
+        doc.setMetadata(jsonMapper.toJson(request.getMetadata()));
+        doc.setRequestId(requestId != null ? requestId : UUID.randomUUID().toString());
+        // Counted once the caller's transaction commits, i.e. once the row exists
+        usageAccounting.changed(ownerId, null, DocumentUsage.of(DocumentStatus.UPLOADING, request.getSize(),
+                request.getMetadata() != null ? request.getMetadata().get("category") : null));
+        return doc;
+    }
+
+    /**
+     * Resolve an Idempotency-Key: the document to replay if the key is live,
+     * or the expired (not yet purged) row to reuse for a new document.
+     */
+    private KeyLookup lookupIdempotencyKey(String ownerId, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new KeyLookup(null, null);
+        }
+        Optional<IdempotencyKey> existing = idempotencyStore.find(ownerId, idempotencyKey);
+        if (existing.isEmpty()) {
+            return new KeyLookup(null, null);
+        }
+        IdempotencyKey key = existing.get();
+        if (key.getExpiresAt() != null && key.getExpiresAt().isAfter(Instant.now())) {
+            Document doc = documentRepository.findById(key.getDocumentId())
+                    .orElseThrow(() -> new IllegalStateException("Document referenced by idempotency key missing"));
+            return new KeyLookup(doc, null);
+        }
+        return new KeyLookup(null, key);
+    }
+
+    private void storeIdempotencyKey(String ownerId, String idempotencyKey, KeyLookup lookup, UUID documentId) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return;
+        }
+        IdempotencyKey key = lookup.expired() != null
+                ? renewIdempotencyKey(lookup.expired(), documentId)
+                : newIdempotencyKey(ownerId, idempotencyKey, documentId);
+        idempotencyStore.remember(idempotencyKeyRepository.save(key));
+    }
+
+    private record KeyLookup(Document replay, IdempotencyKey expired) {
+    }
+
+    private IdempotencyKey newIdempotencyKey(String ownerId, String idempotencyKey, UUID documentId) {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setId(UuidV7.next());
+        key.setIdempotencyKey(idempotencyKey);
+        key.setOwnerId(ownerId);
+        key.setDocumentId(documentId);
+        key.setExpiresAt(Instant.now().plus(idempotencyTtlSeconds, ChronoUnit.SECONDS));
+        return key;
+    }
+
+    // Point an expired (not yet purged) key at a new document; the row is updated, not re-inserted
+    private IdempotencyKey renewIdempotencyKey(IdempotencyKey expired, UUID documentId) {
+        expired.setDocumentId(documentId);
+        expired.setExpiresAt(Instant.now().plus(idempotencyTtlSeconds, ChronoUnit.SECONDS));
+        return expired;
+    }
+
+    private void attachPresignedUrl(DocumentCreateResponse resp, PresignedUrlResponse presigned) {
+        resp.setPresignedUrl(presigned.getUrl());
+        resp.setPresignedUrlExpiresAt(presigned.getExpiresAt());
+        resp.setTtlSeconds(presigned.getTtlSeconds());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether a replayed create may hand out upload URLs again: only while the
+     * document is still UPLOADING under its own key. Once completed, the key
+     * may be a shared content_blobs object (see {@link ContentDeduplicator})
+     * that other owners' documents reference.
+     */
+    private static boolean acceptsUpload(Document doc) {
+        return doc.getStatus() == DocumentStatus.UPLOADING && doc.getContentHash() == null;
+    }
+
+    private static boolean isDownloadable(DocumentStatus status) {
+        return status == DocumentStatus.PROCESSED || status == DocumentStatus.UPLOADED;
     }
 
     private boolean isAdmin(String callerSub) {
@@ -0,0 +1,58 @@
+package org.doc.document_service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.doc.document_service.storage.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aborts multipart uploads nobody completed within
+ * documents.multipart.abandon-after-hours.
+ *
+ * First the documents still UPLOADING with an upload id are marked FAILED and
+ * their uploads aborted, then any remaining stale upload in the bucket (e.g.
+ * started by a create whose transaction rolled back) is aborted too, so the
+ * parts stop taking up storage.
+ */
+@Component
+public class MultipartUploadSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipartUploadSweeper.class);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Value("${documents.multipart.abandon-after-hours:24}")
+    private long abandonAfterHours;
+
+    @Value("${documents.multipart.sweep-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${documents.multipart.sweep-interval-ms:900000}",
+            initialDelayString = "${documents.multipart.sweep-initial-delay-ms:120000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(abandonAfterHours));
+        try {
+            int handled;
+            do {
+                handled = documentService.abortAbandonedMultipartUploads(cutoff, batchSize);
+            } while (handled == batchSize);
+
+            int orphans = storageService.abortMultipartUploadsInitiatedBefore(cutoff);
+            if (orphans > 0) {
+                log.info("Aborted {} abandoned multipart uploads", orphans);
+            }
+        } catch (RuntimeException e) {
+            log.error("Multipart upload sweep failed", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.doc.document_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tenant of the current request, from the security.tenant-claim claim of its
+ * JWT. Null without a token or claim (dev auth, single-tenant tokens); such
+ * documents are stored as tenant "global".
+ */
+@Component
+public class TenantResolver {
+
+    @Value("${security.tenant-claim:tenant_id}")
+    private String tenantClaim;
+
+    public String currentTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken jwt) {
+            String tenant = jwt.getToken().getClaimAsString(tenantClaim);
+            return tenant != null && !tenant.isBlank() ? tenant : null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package org.doc.document_service.service;
+
+/**
+ * An upload that doesn't match its upload intent (e.g. a multipart upload
+ * assembled to a different size than declared). The document is marked
+ * FAILED and its object queued for purging; the caller gets an error.
+ */
+public class UploadRejectedException extends IllegalStateException {
+
+    public UploadRejectedException(String message) {
+        super(message);
+    }
+}
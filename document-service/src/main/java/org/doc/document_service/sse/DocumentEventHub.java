@@ -0,0 +1,226 @@
+package org.doc.document_service.sse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentEventResponse;
+import org.doc.document_service.event.DocumentStatusEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fan-out of document status events to this instance's SSE subscribers.
+ *
+ * Streams are async servlet responses: an idle subscriber holds a socket and
+ * an emitter, no thread. Events are written on the sseDispatchExecutor, never
+ * on the committing request thread. Subscribers are indexed by document and
+ * by owner, so an event touches only the emitters that want it.
+ *
+ * A document stream is completed after its terminal status (PROCESSED,
+ * FAILED, DELETED); owner streams stay open until timeout and the client
+ * reconnects (EventSource does so on its own). A periodic comment keeps
+ * proxies from closing idle streams and finds dead connections.
+ *
+ * Metrics: documents.sse.connections (gauge), documents.sse.events.
+ */
+@Component
+public class DocumentEventHub {
+
+    static final String STATUS_EVENT = "status";
+
+    @Autowired
+    @Qualifier("sseDispatchExecutor")
+    private Executor sseDispatchExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final Map<UUID, Set<SseEmitter>> byDocument = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseEmitter>> byOwner = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private Counter eventsSent;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("documents.sse.connections", connections, AtomicInteger::get).register(meterRegistry);
+        eventsSent = Counter.builder("documents.sse.events").register(meterRegistry);
+    }
+
+    /**
+     * Stream of one document, starting with its current state. Already
+     * terminal documents get that one event and the stream ends.
+     *
+     * The state is read after subscribing, so a change committed in between
+     * is delivered (possibly twice) rather than lost. Exceptions from
+     * currentState (not found, not allowed) propagate before the stream opens.
+     */
+    public SseEmitter subscribeDocument(UUID documentId, Supplier<DocumentEventResponse> currentState) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Runnable unregister = register(byDocument, documentId, emitter);
+        DocumentEventResponse current;
+        try {
+            current = currentState.get();
+        } catch (RuntimeException e) {
+            unregister.run();
+            throw e;
+        }
+        if (send(emitter, current) && isTerminal(current.getStatus())) {
+            // Completed before the response is set up: the completion callback never runs
+            unregister.run();
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Stream of all documents of one owner, starting with a snapshot of the
+     * ones still in flight (read after subscribing, as above).
+     */
+    public SseEmitter subscribeOwner(String ownerId, Supplier<List<DocumentEventResponse>> inFlight) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Runnable unregister = register(byOwner, ownerId, emitter);
+        List<DocumentEventResponse> snapshot;
+        try {
+            snapshot = inFlight.get();
+        } catch (RuntimeException e) {
+            unregister.run();
+            throw e;
+        }
+        for (DocumentEventResponse current : snapshot) {
+            if (!send(emitter, current)) {
+                break;
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Deliver an event to the subscribers of its document and owner.
+     * Returns immediately; writing happens on the dispatch executor.
+     */
+    public void publish(DocumentStatusEvent event) {
+        Set<SseEmitter> documentSubscribers = event.getDocumentId() != null ? byDocument.get(event.getDocumentId())
+                : null;
+        Set<SseEmitter> ownerSubscribers = event.getOwnerId() != null ? byOwner.get(event.getOwnerId()) : null;
+        if (documentSubscribers == null && ownerSubscribers == null) {
+            return;
+        }
+        sseDispatchExecutor.execute(() -> dispatch(event, documentSubscribers, ownerSubscribers));
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    @Scheduled(fixedDelayString = "${documents.sse.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        heartbeat(byDocument);
+        heartbeat(byOwner);
+    }
+
+    private void dispatch(DocumentStatusEvent event, Set<SseEmitter> documentSubscribers,
+            Set<SseEmitter> ownerSubscribers) {
+        DocumentEventResponse data = toResponse(event);
+        boolean terminal = isTerminal(event.getStatus());
+        if (documentSubscribers != null) {
+            for (SseEmitter emitter : documentSubscribers) {
+                if (send(emitter, data) && terminal) {
+                    emitter.complete();
+                }
+            }
+        }
+        if (ownerSubscribers != null) {
+            for (SseEmitter emitter : ownerSubscribers) {
+                send(emitter, data);
+            }
+        }
+    }
+
+    private <K> void heartbeat(Map<K, Set<SseEmitter>> index) {
+        for (Set<SseEmitter> emitters : index.values()) {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } catch (IOException | IllegalStateException e) {
+                    // Gone; the error callback unregisters it
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, DocumentEventResponse data) {
+        try {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(STATUS_EVENT).data(data);
+            if (data.getLastUpdated() != null) {
+                event.id(data.getDocumentId() + "@" + data.getLastUpdated());
+            }
+            emitter.send(event);
+            eventsSent.increment();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    // Returns the unregister action, also run on completion, timeout and error
+    private <K> Runnable register(Map<K, Set<SseEmitter>> index, K key, SseEmitter emitter) {
+        // Add inside compute so a concurrent unregister can't drop the set under us
+        index.compute(key, (k, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+        connections.incrementAndGet();
+        Runnable unregister = () -> {
+            // Drop the key with its last emitter so idle owners don't pile up
+            index.computeIfPresent(key, (k, emitters) -> {
+                if (emitters.remove(emitter)) {
+                    connections.decrementAndGet();
+                }
+                return emitters.isEmpty() ? null : emitters;
+            });
+        };
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+        return unregister;
+    }
+
+    private static DocumentEventResponse toResponse(DocumentStatusEvent event) {
+        DocumentEventResponse resp = new DocumentEventResponse();
+        resp.setDocumentId(event.getDocumentId());
+        resp.setStatus(event.getStatus());
+        resp.setLastUpdated(event.getUpdatedAt());
+        resp.setMetadata(event.getMetadata());
+        return resp;
+    }
+
+    private static boolean isTerminal(String status) {
+        return DocumentStatus.PROCESSED.name().equals(status)
+                || DocumentStatus.FAILED.name().equals(status)
+                || DocumentStatus.DELETED.name().equals(status);
+    }
+}
@@ -0,0 +1,75 @@
+package org.doc.document_service.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.minio.SetBucketNotificationArgs;
+import io.minio.messages.EventType;
+import io.minio.messages.NotificationConfiguration;
+import io.minio.messages.QueueConfiguration;
+
+/**
+ * Points the buckets' object-created notifications at the AMQP target on
+ * startup (storage.notifications.enabled=true), one prefix rule per shard
+ * living in the bucket. The target itself is MinIO server config, see
+ * MINIO_NOTIFY_AMQP_* in docker-compose.yml; every endpoint needs it.
+ */
+@Component
+public class BucketNotificationRegistrar {
+
+    private static final Logger log = LoggerFactory.getLogger(BucketNotificationRegistrar.class);
+
+    @Autowired
+    private StorageShards shards;
+
+    @Value("${storage.notifications.enabled:false}")
+    private boolean enabled;
+
+    @Value("${storage.notifications.queue-arn:arn:minio:sqs::PRIMARY:amqp}")
+    private String queueArn;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        if (!enabled) {
+            return;
+        }
+        for (StorageShard bucket : shards.distinctBuckets()) {
+            register(bucket);
+        }
+    }
+
+    // The bucket's whole notification config is replaced, so it carries the rules of every shard in it
+    private void register(StorageShard bucket) {
+        try {
+            List<QueueConfiguration> queues = new ArrayList<>();
+            for (StorageShard shard : shards.all()) {
+                if (shard.getEndpoint().equals(bucket.getEndpoint()) && shard.getBucket().equals(bucket.getBucket())) {
+                    QueueConfiguration queue = new QueueConfiguration();
+                    queue.setQueue(queueArn);
+                    queue.setEvents(List.of(EventType.OBJECT_CREATED_ANY));
+                    queue.setPrefixRule(shard.getKeyRoot());
+                    queues.add(queue);
+                }
+            }
+
+            NotificationConfiguration config = new NotificationConfiguration();
+            config.setQueueConfigurationList(queues);
+
+            bucket.getClient().setBucketNotification(SetBucketNotificationArgs.builder()
+                    .bucket(bucket.getBucket())
+                    .config(config)
+                    .build());
+        } catch (Exception e) {
+            // Uploads still complete through /complete; only the event path is missing
+            log.warn("Failed to register bucket notifications for {}", bucket.getBucket(), e);
+        }
+    }
+}
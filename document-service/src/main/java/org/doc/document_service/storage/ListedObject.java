@@ -0,0 +1,19 @@
+package org.doc.document_service.storage;
+
+import java.time.Instant;
+
+/**
+ * Key and last-modified time of an object from a bucket listing.
+ */
+public class ListedObject {
+    private final String key;
+    private final Instant lastModified;
+
+    public ListedObject(String key, Instant lastModified) {
+        this.key = key;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() { return key; }
+    public Instant getLastModified() { return lastModified; }
+}
@@ -1,18 +1,77 @@
 package org.doc.document_service.storage;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 
 @Configuration
 public class MinioConfig {
 
     @Bean
-    public MinioClient minioClient(StorageProperties props) {
-        return MinioClient.builder()
-                .endpoint(props.getEndpoint())     // http://localhost:9000
-                .credentials(props.getAccessKey(), props.getSecretKey())
+    public StorageShards storageShards(StorageProperties props) {
+        StorageShard defaultShard = shard(null, props.getBucket(), props.getEndpoint(), props.getAccessKey(),
+                props.getSecretKey(), props.getPublicEndpoint(), props.getRegion());
+        List<StorageShard> shards = new ArrayList<>();
+        for (StorageProperties.Shard s : props.getShards()) {
+            if (s.getId() == null || !s.getId().matches("[a-z0-9][a-z0-9-]*")
+                    || StorageShards.LEGACY_ROOT.equals(s.getId() + "/")) {
+                throw new IllegalStateException("invalid storage shard id: " + s.getId());
+            }
+            // A shard on its own endpoint doesn't inherit the default public endpoint
+            String endpoint = or(s.getEndpoint(), props.getEndpoint());
+            String publicEndpoint = s.getEndpoint() != null ? s.getPublicEndpoint()
+                    : or(s.getPublicEndpoint(), props.getPublicEndpoint());
+            shards.add(shard(s.getId(), or(s.getBucket(), props.getBucket()), endpoint,
+                    or(s.getAccessKey(), props.getAccessKey()), or(s.getSecretKey(), props.getSecretKey()),
+                    publicEndpoint, props.getRegion()));
+        }
+        return new StorageShards(defaultShard, shards);
+    }
+
+    @Bean
+    public StorageLayout storageLayout(StorageProperties props, StorageShards shards) {
+        switch (props.getLayout()) {
+            case "single":
+                return new SingleBucketStorageLayout();
+            case "sharded":
+                Map<String, StorageShard> tenantShards = new HashMap<>();
+                props.getTenantShards().forEach((tenant, shardId) -> {
+                    StorageShard shard = shards.resolve(shardId + "/");
+                    if (shard.getId() == null) {
+                        throw new IllegalStateException("unknown storage shard for tenant " + tenant + ": " + shardId);
+                    }
+                    tenantShards.put(tenant, shard);
+                });
+                return new ShardedStorageLayout(shards.getShards(), tenantShards, props.getHashedPrefixes());
+            default:
+                throw new IllegalStateException("unknown storage.layout: " + props.getLayout());
+        }
+    }
+
+    private static StorageShard shard(String id, String bucket, String endpoint, String accessKey, String secretKey,
+            String publicEndpoint, String region) {
+        MinioClient client = MinioClient.builder()
+                .endpoint(endpoint)     // http://localhost:9000
+                .credentials(accessKey, secretKey)
                 .build();
+        MultipartMinioClient multipartClient = new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey)
+                .build());
+        // Sign for the internal host MinIO sees, hand out URLs on the public endpoint
+        String urlEndpoint = (publicEndpoint != null && !publicEndpoint.isBlank()) ? publicEndpoint : endpoint;
+        SigV4Presigner presigner = new SigV4Presigner(accessKey, secretKey, region, endpoint, urlEndpoint);
+        return new StorageShard(id, endpoint, bucket, client, multipartClient, presigner);
+    }
+
+    private static String or(String value, String fallback) {
+        return value != null && !value.isBlank() ? value : fallback;
     }
 }
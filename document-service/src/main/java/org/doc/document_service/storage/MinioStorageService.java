@@ -2,53 +2,42 @@ package org.doc.document_service.storage;
 
 import io.minio.*;
 import io.minio.errors.*;
-import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import io.minio.messages.Part;
+import io.minio.messages.Upload;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
 
 import java.time.Instant;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class MinioStorageService implements StorageService {
 
 
+    // Every call resolves the shard from the key; see StorageShards
     @Autowired
-    private MinioClient client;
+    private StorageShards shards;
 
     @Autowired
-    private StorageProperties props;
+    private PresignedUrlCache presignedUrlCache;
 
-    @Value("${storage.public-endpoint:}") 
-    private String publicEndpoint;
-
-    // Inject the internal endpoint (e.g., http://minio:9000)
-    // This is needed to identify what part of the URL to replace
-    @Value("${storage.endpoint}")
-    private String internalEndpoint;
+    // S3 limit on parts per multipart upload
+    private static final int MAX_PARTS = 10_000;
 
     @Override
     public PresignedUrlResponse generatePresignedPutUrl(String storageKey, long ttlSeconds) {
         try {
-            String url = client.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs
-                            .builder()
-                            .bucket(props.getBucket())
-                            .object(storageKey)
-                            .method(Method.PUT)
-                            .expiry((int) ttlSeconds, TimeUnit.SECONDS)
-                            .build()
-            );
-
-            if (publicEndpoint != null && !publicEndpoint.isBlank()) {
-                // Replace "http://minio:9000" with "http://localhost:3000/minio"
-                url = url.replace(internalEndpoint, publicEndpoint);
-            }
-
-            return new PresignedUrlResponse(url, Instant.now().plusSeconds(ttlSeconds), ttlSeconds);
-
+            return presignedUrlCache.get(storageKey, "PUT", ttlSeconds, () -> presign("PUT", storageKey, ttlSeconds));
         } catch (Exception ex) {
             throw new RuntimeException("Failed to generate presigned PUT URL", ex);
         }
@@ -56,17 +45,23 @@ public class MinioStorageService implements StorageService {
 
     @Override
     public boolean exists(String storageKey) {
+        return stat(storageKey) != null;
+    }
+
+    @Override
+    public StoredObject stat(String storageKey) {
+        StorageShard shard = shards.resolve(storageKey);
         try {
-            client.statObject(
+            StatObjectResponse stat = shard.getClient().statObject(
                     StatObjectArgs.builder()
-                            .bucket(props.getBucket())
+                            .bucket(shard.getBucket())
                             .object(storageKey)
                             .build()
             );
-            return true;
+            return new StoredObject(stat.size(), stat.etag());
         } catch (ErrorResponseException e) {
             if (e.errorResponse().code().equals("NoSuchKey")) {
-                return false;
+                return null;
             }
             throw new RuntimeException("Error checking object existence", e);
         } catch (Exception ex) {
@@ -77,23 +72,7 @@ public class MinioStorageService implements StorageService {
     @Override
     public PresignedUrlResponse generatePresignedGetUrl(String storageKey, long ttlSeconds) {
         try {
-            String url = client.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs
-                            .builder()
-                            .bucket(props.getBucket())
-                            .object(storageKey)
-                            .method(Method.GET)
-                            .expiry((int) ttlSeconds, TimeUnit.SECONDS)
-                            .build()
-            );
-
-            if (publicEndpoint != null && !publicEndpoint.isBlank()) {
-                // Replace "http://minio:9000" with "http://localhost:3000/minio"
-                url = url.replace(internalEndpoint, publicEndpoint);
-            }
-
-            return new PresignedUrlResponse(url, Instant.now().plusSeconds(ttlSeconds), ttlSeconds);
-
+            return presignedUrlCache.get(storageKey, "GET", ttlSeconds, () -> presign("GET", storageKey, ttlSeconds));
         } catch (Exception ex) {
             throw new RuntimeException("Failed to generate presigned GET URL", ex);
         }
@@ -101,15 +80,190 @@ public class MinioStorageService implements StorageService {
 
     @Override
     public void delete(String storageKey) {
+        StorageShard shard = shards.resolve(storageKey);
         try {
-            client.removeObject(
+            shard.getClient().removeObject(
                     RemoveObjectArgs.builder()
-                            .bucket(props.getBucket())
+                            .bucket(shard.getBucket())
                             .object(storageKey)
                             .build()
             );
         } catch (Exception ex) {
             throw new RuntimeException("Failed to delete object", ex);
+        } finally {
+            presignedUrlCache.invalidate(storageKey);
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteAll(Collection<String> storageKeys) {
+        Map<String, String> failed = new HashMap<>();
+        if (storageKeys.isEmpty()) {
+            return failed;
+        }
+        // One multi-object delete per shard
+        Map<StorageShard, List<String>> byShard = new LinkedHashMap<>();
+        for (String key : storageKeys) {
+            byShard.computeIfAbsent(shards.resolve(key), s -> new ArrayList<>()).add(key);
+        }
+        byShard.forEach((shard, keys) -> deleteAll(shard, keys, failed));
+        return failed;
+    }
+
+    private void deleteAll(StorageShard shard, List<String> storageKeys, Map<String, String> failed) {
+        List<DeleteObject> objects = new ArrayList<>(storageKeys.size());
+        for (String key : storageKeys) {
+            objects.add(new DeleteObject(key));
+        }
+        try {
+            // Lazy: requests go out (1000 keys each) while the results are iterated
+            Iterable<Result<DeleteError>> results = shard.getClient().removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(shard.getBucket())
+                            .objects(objects)
+                            .build()
+            );
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                if (!"NoSuchKey".equals(error.code())) {
+                    failed.put(error.objectName(), error.code() + ": " + error.message());
+                }
+            }
+        } catch (Exception ex) {
+            // Whole request failed; nothing is known to be deleted
+            String message = "Failed to delete objects: " + ex.getMessage();
+            for (String key : storageKeys) {
+                failed.putIfAbsent(key, message);
+            }
+        } finally {
+            storageKeys.forEach(presignedUrlCache::invalidate);
+        }
+    }
+
+    @Override
+    public List<ListedObject> listObjects(String prefix, String startAfter, int maxKeys) {
+        // Prefixes never span shards: they start with a shard id or documents/
+        StorageShard shard = shards.resolve(prefix);
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(shard.getBucket())
+                .prefix(prefix)
+                .recursive(true)
+                .maxKeys(maxKeys);
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        List<ListedObject> page = new ArrayList<>(maxKeys);
+        try {
+            // The iterable fetches further pages on demand; stop after one
+            for (Result<Item> result : shard.getClient().listObjects(args.build())) {
+                Item item = result.get();
+                if (item.isDir()) {
+                    continue;
+                }
+                Instant lastModified = item.lastModified() != null ? item.lastModified().toInstant() : null;
+                page.add(new ListedObject(item.objectName(), lastModified));
+                if (page.size() >= maxKeys) {
+                    break;
+                }
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to list objects", ex);
+        }
+        return page;
+    }
+
+    @Override
+    public String createMultipartUpload(String storageKey, String contentType) {
+        StorageShard shard = shards.resolve(storageKey);
+        try {
+            return shard.getMultipartClient().createMultipartUpload(shard.getBucket(), storageKey, contentType);
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to create multipart upload", ex);
+        }
+    }
+
+    @Override
+    public PresignedUrlResponse generatePresignedPartUrl(String storageKey, String uploadId, int partNumber,
+            long ttlSeconds) {
+        if (partNumber < 1 || partNumber > MAX_PARTS) {
+            throw new IllegalArgumentException("part number must be between 1 and " + MAX_PARTS);
+        }
+        Instant now = Instant.now();
+        Map<String, String> query = Map.of("partNumber", Integer.toString(partNumber), "uploadId", uploadId);
+        StorageShard shard = shards.resolve(storageKey);
+        String url = shard.getPresigner().presign("PUT", shard.getBucket(), storageKey, query, now, ttlSeconds);
+        return new PresignedUrlResponse(url, now.plusSeconds(ttlSeconds), ttlSeconds);
+    }
+
+    @Override
+    public StoredObject completeMultipartUpload(String storageKey, String uploadId, int expectedParts) {
+        StorageShard shard = shards.resolve(storageKey);
+        try {
+            List<Part> uploaded = shard.getMultipartClient().listParts(shard.getBucket(), storageKey, uploadId);
+            if (uploaded.size() < expectedParts) {
+                throw new IllegalStateException("Multipart upload incomplete: " + uploaded.size() + " of "
+                        + expectedParts + " parts uploaded");
+            }
+            Part[] parts = uploaded.stream()
+                    .sorted(Comparator.comparingInt(Part::partNumber))
+                    .map(p -> new Part(p.partNumber(), p.etag()))
+                    .toArray(Part[]::new);
+            ObjectWriteResponse assembled = shard.getMultipartClient().completeMultipartUpload(shard.getBucket(),
+                    storageKey, uploadId, parts);
+            return new StoredObject(uploaded.stream().mapToLong(Part::partSize).sum(), assembled.etag());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchUpload".equals(e.errorResponse().code())) {
+                // Completed by an earlier attempt whose transaction did not commit
+                StoredObject assembled = stat(storageKey);
+                if (assembled != null) {
+                    return assembled;
+                }
+                throw new IllegalStateException("Multipart upload no longer exists; it may have been aborted", e);
+            }
+            throw new RuntimeException("Failed to complete multipart upload", e);
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to complete multipart upload", ex);
         }
     }
+
+    @Override
+    public void abortMultipartUpload(String storageKey, String uploadId) {
+        StorageShard shard = shards.resolve(storageKey);
+        try {
+            shard.getMultipartClient().abortMultipartUpload(shard.getBucket(), storageKey, uploadId);
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchUpload".equals(e.errorResponse().code())) {
+                throw new RuntimeException("Failed to abort multipart upload", e);
+            }
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to abort multipart upload", ex);
+        }
+    }
+
+    @Override
+    public int abortMultipartUploadsInitiatedBefore(Instant cutoff) {
+        int aborted = 0;
+        for (StorageShard shard : shards.distinctBuckets()) {
+            List<Upload> stale;
+            try {
+                stale = shard.getMultipartClient().listMultipartUploadsInitiatedBefore(shard.getBucket(), cutoff);
+            } catch (Exception ex) {
+                throw new RuntimeException("Failed to list multipart uploads in " + shard.getBucket(), ex);
+            }
+            for (Upload upload : stale) {
+                abortMultipartUpload(upload.objectName(), upload.uploadId());
+            }
+            aborted += stale.size();
+        }
+        return aborted;
+    }
+
+    private PresignedUrlResponse presign(String method, String storageKey, long ttlSeconds) {
+        Instant now = Instant.now();
+        StorageShard shard = shards.resolve(storageKey);
+        String url = shard.getPresigner().presign(method, shard.getBucket(), storageKey, null, now, ttlSeconds);
+        return new PresignedUrlResponse(url, now.plusSeconds(ttlSeconds), ttlSeconds);
+    }
 }
@@ -0,0 +1,107 @@
+package org.doc.document_service.storage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+
+import io.minio.ListMultipartUploadsResponse;
+import io.minio.ListPartsResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.Part;
+import io.minio.messages.Upload;
+
+/**
+ * Exposes the S3 multipart calls MinioClient keeps protected (create, list
+ * parts, complete, abort, list uploads). The part uploads themselves never go
+ * through here: clients PUT them to presigned URLs.
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public String createMultipartUpload(String bucket, String object, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null && !contentType.isBlank()) {
+            headers.put("Content-Type", contentType);
+        }
+        return await(createMultipartUploadAsync(bucket, null, object, headers, none())).result().uploadId();
+    }
+
+    /**
+     * All uploaded parts, following pagination.
+     */
+    public List<Part> listParts(String bucket, String object, String uploadId) throws Exception {
+        List<Part> parts = new ArrayList<>();
+        Integer marker = null;
+        while (true) {
+            ListPartsResponse page = await(listPartsAsync(bucket, null, object, 1000, marker, uploadId, none(), none()));
+            parts.addAll(page.result().partList());
+            if (!page.result().isTruncated()) {
+                return parts;
+            }
+            marker = page.result().nextPartNumberMarker();
+        }
+    }
+
+    public ObjectWriteResponse completeMultipartUpload(String bucket, String object, String uploadId, Part[] parts)
+            throws Exception {
+        return await(completeMultipartUploadAsync(bucket, null, object, uploadId, parts, none(), none()));
+    }
+
+    public void abortMultipartUpload(String bucket, String object, String uploadId) throws Exception {
+        await(abortMultipartUploadAsync(bucket, null, object, uploadId, none(), none()));
+    }
+
+    /**
+     * Upload ids (with their object names) of every in-progress multipart
+     * upload started before the cutoff.
+     */
+    public List<Upload> listMultipartUploadsInitiatedBefore(String bucket, Instant cutoff) throws Exception {
+        List<Upload> uploads = new ArrayList<>();
+        String keyMarker = null;
+        String uploadIdMarker = null;
+        while (true) {
+            ListMultipartUploadsResponse page = await(listMultipartUploadsAsync(bucket, null, null, null, keyMarker, 1000,
+                    null, uploadIdMarker, none(), none()));
+            for (Upload upload : page.result().uploads()) {
+                if (upload.initiated() != null && upload.initiated().toInstant().isBefore(cutoff)) {
+                    uploads.add(upload);
+                }
+            }
+            if (!page.result().isTruncated()) {
+                return uploads;
+            }
+            keyMarker = page.result().nextKeyMarker();
+            uploadIdMarker = page.result().nextUploadIdMarker();
+        }
+    }
+
+    private static Multimap<String, String> none() {
+        return HashMultimap.create();
+    }
+
+    // Surface the S3 error (e.g. ErrorResponseException NoSuchUpload) rather than the future's wrapper
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        }
+    }
+}
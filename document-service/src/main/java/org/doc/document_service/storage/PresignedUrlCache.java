@@ -0,0 +1,79 @@
+package org.doc.document_service.storage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Caches issued presigned URLs per (storageKey, method).
+ *
+ * A cached URL is handed out again as long as at least half of the requested
+ * TTL is left on it (and never with more than the requested TTL), so UI
+ * refreshes of the same document reuse one URL instead of re-signing.
+ *
+ * Bounded by max-entries (Caffeine's size eviction keeps the URLs that are
+ * asked for again); each entry expires when its URL does.
+ *
+ * Metrics: cache.* with cache=storage.presign.
+ */
+@Component
+public class PresignedUrlCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.presign.cache.max-entries:10000}")
+    private long maxEntries;
+
+    private Cache<String, PresignedUrlResponse> entries;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.creating((String key, PresignedUrlResponse url) -> {
+                    Duration left = Duration.between(Instant.now(), url.getExpiresAt());
+                    return left.isNegative() ? Duration.ZERO : left;
+                }))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "storage.presign");
+    }
+
+    public PresignedUrlResponse get(String storageKey, String method, long ttlSeconds,
+            Supplier<PresignedUrlResponse> issuer) {
+        String cacheKey = method + " " + storageKey;
+
+        PresignedUrlResponse cached = entries.getIfPresent(cacheKey);
+        if (cached != null) {
+            long remaining = cached.getExpiresAt().getEpochSecond() - Instant.now().getEpochSecond();
+            if (remaining >= ttlSeconds / 2 && remaining <= ttlSeconds) {
+                return new PresignedUrlResponse(cached.getUrl(), cached.getExpiresAt(), remaining);
+            }
+        }
+
+        PresignedUrlResponse issued = issuer.get();
+        entries.put(cacheKey, issued);
+        return issued;
+    }
+
+    /**
+     * Drop all cached URLs of an object (e.g. after it was deleted).
+     */
+    public void invalidate(String storageKey) {
+        entries.invalidateAll(List.of("GET " + storageKey, "PUT " + storageKey));
+    }
+}
@@ -0,0 +1,59 @@
+package org.doc.document_service.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.doc.document_service.util.StorageKeyUtil;
+
+/**
+ * Spreads new objects over the configured shards and, inside each, over
+ * hashed prefixes: {shardId}/{hash}/{tenant}/{documentId}/{name}.
+ *
+ * MinIO/S3 request limits apply per prefix, and document ids are time-ordered
+ * (UUIDv7), so the hash is taken over the whole id rather than its leading
+ * bits. Tenants listed in storage.tenant-shards are pinned to their shard;
+ * everyone else is spread over all shards by document id.
+ */
+public class ShardedStorageLayout implements StorageLayout {
+
+    private final List<StorageShard> shards;
+    private final Map<String, StorageShard> tenantShards;
+    private final int prefixCount;
+    private final String prefixFormat;
+
+    public ShardedStorageLayout(List<StorageShard> shards, Map<String, StorageShard> tenantShards,
+            int prefixCount) {
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("storage.layout=sharded needs at least one storage.shards entry");
+        }
+        if (prefixCount < 1 || prefixCount > 65536) {
+            throw new IllegalStateException("storage.hashed-prefixes must be between 1 and 65536");
+        }
+        this.shards = List.copyOf(shards);
+        this.tenantShards = Map.copyOf(tenantShards);
+        this.prefixCount = prefixCount;
+        this.prefixFormat = prefixCount <= 256 ? "%02x" : "%04x";
+    }
+
+    @Override
+    public String newKey(String tenantId, UUID documentId, String filename) {
+        long hash = mix(documentId.getMostSignificantBits() ^ documentId.getLeastSignificantBits());
+        StorageShard shard = tenantId != null ? tenantShards.get(tenantId) : null;
+        if (shard == null) {
+            shard = shards.get((int) Math.floorMod(hash >>> 32, (long) shards.size()));
+        }
+        String prefix = String.format(prefixFormat, Math.floorMod(hash, prefixCount));
+        return StorageKeyUtil.generateShardedStorageKey(shard.getId(), prefix, tenantId, documentId, filename);
+    }
+
+    // murmur3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,186 @@
+package org.doc.document_service.storage;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * In-process AWS Signature V4 query-string presigner (S3 path-style URLs).
+ *
+ * Replaces MinioClient#getPresignedObjectUrl on the hot path:
+ * - the per-day signing key (4 chained HMACs) is derived once per UTC day
+ *   instead of on every call;
+ * - the signature is computed for the host MinIO actually sees (the internal
+ *   endpoint) while the URL is built on the public base directly, so no
+ *   endpoint string rewrite is needed afterwards.
+ */
+public class SigV4Presigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final long MAX_EXPIRY_SECONDS = 7 * 24 * 3600; // SigV4 limit
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String signingHost;
+    private final String urlBase;
+
+    private final AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+
+    /**
+     * @param signingEndpoint endpoint MinIO is reached at (its host is signed)
+     * @param urlEndpoint     endpoint put in front of the URL handed to clients;
+     *                        may carry a path prefix (e.g. a reverse proxy)
+     */
+    public SigV4Presigner(String accessKey, String secretKey, String region,
+            String signingEndpoint, String urlEndpoint) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.signingHost = hostHeader(URI.create(signingEndpoint));
+        this.urlBase = stripTrailingSlash(urlEndpoint);
+    }
+
+    /**
+     * Build a presigned URL for the given HTTP method and object.
+     *
+     * @param extraQuery additional query parameters to sign (e.g. uploadId/partNumber), may be null
+     */
+    public String presign(String method, String bucket, String objectKey, Map<String, String> extraQuery,
+            Instant now, long ttlSeconds) {
+        if (ttlSeconds < 1 || ttlSeconds > MAX_EXPIRY_SECONDS) {
+            throw new IllegalArgumentException("presign expiry must be between 1 second and 7 days");
+        }
+        String date = DATE.format(now);
+        String scope = date + "/" + region + "/" + SERVICE + "/aws4_request";
+
+        TreeMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", DATE_TIME.format(now));
+        query.put("X-Amz-Expires", Long.toString(ttlSeconds));
+        query.put("X-Amz-SignedHeaders", "host");
+        if (extraQuery != null) {
+            query.putAll(extraQuery);
+        }
+
+        String path = "/" + uriEncode(bucket, false) + "/" + uriEncode(objectKey, true);
+        StringBuilder canonicalQuery = new StringBuilder(256);
+        for (Map.Entry<String, String> e : query.entrySet()) {
+            if (canonicalQuery.length() > 0) {
+                canonicalQuery.append('&');
+            }
+            canonicalQuery.append(uriEncode(e.getKey(), false)).append('=').append(uriEncode(e.getValue(), false));
+        }
+
+        String canonicalRequest = method + "\n"
+                + path + "\n"
+                + canonicalQuery + "\n"
+                + "host:" + signingHost + "\n"
+                + "\n"
+                + "host\n"
+                + UNSIGNED_PAYLOAD;
+
+        String stringToSign = ALGORITHM + "\n"
+                + query.get("X-Amz-Date") + "\n"
+                + scope + "\n"
+                + hex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+
+        String signature = hex(hmac(signingKeyFor(date), stringToSign.getBytes(StandardCharsets.UTF_8)));
+
+        return urlBase + path + "?" + canonicalQuery + "&X-Amz-Signature=" + signature;
+    }
+
+    private byte[] signingKeyFor(String date) {
+        SigningKey current = signingKey.get();
+        if (current != null && current.date().equals(date)) {
+            return current.key();
+        }
+        byte[] kDate = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date.getBytes(StandardCharsets.UTF_8));
+        byte[] kRegion = hmac(kDate, region.getBytes(StandardCharsets.UTF_8));
+        byte[] kService = hmac(kRegion, SERVICE.getBytes(StandardCharsets.UTF_8));
+        byte[] key = hmac(kService, "aws4_request".getBytes(StandardCharsets.UTF_8));
+        // Racing threads derive the same key, so last writer wins is fine
+        signingKey.set(new SigningKey(date, key));
+        return key;
+    }
+
+    private static byte[] hmac(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data);
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
+    /**
+     * RFC 3986 encoding as required by SigV4: everything except unreserved
+     * characters is percent-encoded (and '/' too, unless it's a path).
+     */
+    static String uriEncode(String value, boolean keepSlash) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(bytes.length + 16);
+        for (byte b : bytes) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(HEX[(c >> 4) & 0xF]))
+                        .append(Character.toUpperCase(HEX[c & 0xF]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equalsIgnoreCase(uri.getScheme()) && port == 80)
+                || ("https".equalsIgnoreCase(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private static String stripTrailingSlash(String s) {
+        return s.endsWith("/") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    private record SigningKey(String date, byte[] key) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.doc.document_service.storage;
+
+import java.util.UUID;
+
+import org.doc.document_service.util.StorageKeyUtil;
+
+/**
+ * Everything in the default bucket under documents/{tenant}/{documentId}/...
+ */
+public class SingleBucketStorageLayout implements StorageLayout {
+
+    @Override
+    public String newKey(String tenantId, UUID documentId, String filename) {
+        return StorageKeyUtil.generateStorageKey(tenantId, documentId, filename);
+    }
+}
@@ -0,0 +1,15 @@
+package org.doc.document_service.storage;
+
+import java.util.UUID;
+
+/**
+ * Decides the storage key of a new object. The key also decides the shard
+ * (see {@link StorageShards#resolve}), so a layout only ever changes where
+ * new objects go; existing keys keep resolving as before.
+ *
+ * Chosen with storage.layout (single | sharded).
+ */
+public interface StorageLayout {
+
+    String newKey(String tenantId, UUID documentId, String filename);
+}
@@ -1,4 +1,9 @@
 package org.doc.document_service.storage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -13,4 +18,50 @@ public class StorageProperties {
     private String endpoint;
     private String accessKey;
     private String secretKey;
+
+    /**
+     * Endpoint browsers use to reach MinIO (e.g. through the UI proxy).
+     * Empty means clients use {@link #endpoint} directly.
+     */
+    private String publicEndpoint;
+
+    /**
+     * Region used for SigV4 signing; MinIO's default is us-east-1.
+     */
+    private String region = "us-east-1";
+
+    /**
+     * Key layout for new objects: single (documents/... in {@link #bucket})
+     * or sharded (spread over {@link #shards}).
+     */
+    private String layout = "single";
+
+    /**
+     * Hashed prefixes per shard in the sharded layout.
+     */
+    private int hashedPrefixes = 256;
+
+    /**
+     * Additional buckets, possibly on other endpoints. The id is the first
+     * segment of every key in the shard and must never change or be reused.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Tenants pinned to one shard (tenant id -> shard id); others are spread.
+     */
+    private Map<String, String> tenantShards = new HashMap<>();
+
+    /**
+     * Unset fields fall back to the top-level bucket, endpoint and credentials.
+     */
+    @Data
+    public static class Shard {
+        private String id;
+        private String bucket;
+        private String endpoint;
+        private String accessKey;
+        private String secretKey;
+        private String publicEndpoint;
+    }
 }
@@ -1,5 +1,10 @@
 package org.doc.document_service.storage;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface StorageService {
     
     /**
@@ -12,6 +17,11 @@ public interface StorageService {
      */
     boolean exists(String storageKey);
 
+    /**
+     * Size and ETag of the object at storageKey, or null if there is none.
+     */
+    StoredObject stat(String storageKey);
+
     /**
      * Generate a presigned GET URL for downloads.
      */
@@ -21,4 +31,54 @@ public interface StorageService {
      * Delete object at storageKey (used by purge jobs).
      */
     void delete(String storageKey);
+
+    /**
+     * Delete many objects with multi-object delete requests (up to 1000 keys
+     * per request). Keys that don't exist count as deleted.
+     *
+     * @return error message by storage key for the objects that were not deleted
+     */
+    Map<String, String> deleteAll(Collection<String> storageKeys);
+
+    /**
+     * One page of the objects under prefix, in key order.
+     *
+     * @param startAfter last key of the previous page, null for the first page
+     * @param maxKeys    page size
+     */
+    List<ListedObject> listObjects(String prefix, String startAfter, int maxKeys);
+
+    /**
+     * Start a multipart upload for storageKey and return its upload id.
+     */
+    String createMultipartUpload(String storageKey, String contentType);
+
+    /**
+     * Generate a presigned PUT URL for one part (1..10000) of a multipart upload.
+     * Not cached: every call signs a fresh URL so clients can resume failed parts.
+     */
+    PresignedUrlResponse generatePresignedPartUrl(String storageKey, String uploadId, int partNumber,
+            long ttlSeconds);
+
+    /**
+     * Assemble the uploaded parts into the final object.
+     *
+     * @param expectedParts number of parts the upload was planned with
+     * @return size and ETag of the assembled object
+     * @throws IllegalStateException if parts are missing
+     */
+    StoredObject completeMultipartUpload(String storageKey, String uploadId, int expectedParts);
+
+    /**
+     * Abort a multipart upload and discard its parts. No-op if it is already gone.
+     */
+    void abortMultipartUpload(String storageKey, String uploadId);
+
+    /**
+     * Abort every multipart upload started before the cutoff (sweeper for
+     * uploads no document tracks any more).
+     *
+     * @return number of uploads aborted
+     */
+    int abortMultipartUploadsInitiatedBefore(Instant cutoff);
 }
@@ -0,0 +1,61 @@
+package org.doc.document_service.storage;
+
+import io.minio.MinioClient;
+
+/**
+ * One bucket on one MinIO endpoint, with the clients that talk to it.
+ *
+ * The default shard (id null) is storage.bucket on storage.endpoint and holds
+ * every key that doesn't start with a configured shard id, including all
+ * legacy documents/... keys.
+ */
+public class StorageShard {
+
+    private final String id;
+    private final String endpoint;
+    private final String bucket;
+    private final MinioClient client;
+    private final MultipartMinioClient multipartClient;
+    private final SigV4Presigner presigner;
+
+    public StorageShard(String id, String endpoint, String bucket, MinioClient client,
+            MultipartMinioClient multipartClient, SigV4Presigner presigner) {
+        this.id = id;
+        this.endpoint = endpoint;
+        this.bucket = bucket;
+        this.client = client;
+        this.multipartClient = multipartClient;
+        this.presigner = presigner;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public MinioClient getClient() {
+        return client;
+    }
+
+    public MultipartMinioClient getMultipartClient() {
+        return multipartClient;
+    }
+
+    public SigV4Presigner getPresigner() {
+        return presigner;
+    }
+
+    /**
+     * Key prefix this shard's objects live under.
+     */
+    public String getKeyRoot() {
+        return id != null ? id + "/" : StorageShards.LEGACY_ROOT;
+    }
+}
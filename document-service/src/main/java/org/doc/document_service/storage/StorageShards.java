@@ -0,0 +1,95 @@
+package org.doc.document_service.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configured storage shards and the key-to-shard mapping.
+ *
+ * A key names its shard in its first path segment ({shardId}/...), so
+ * resolving where an object lives needs neither a database lookup nor a
+ * stored bucket column. Keys whose first segment is not a shard id (legacy
+ * documents/... keys) belong to the default shard. Shard ids therefore must
+ * never change once objects have been written under them.
+ */
+public class StorageShards {
+
+    static final String LEGACY_ROOT = "documents/";
+
+    private final StorageShard defaultShard;
+    private final Map<String, StorageShard> byId;
+    private final List<StorageShard> shards;
+
+    public StorageShards(StorageShard defaultShard, List<StorageShard> configured) {
+        this.defaultShard = defaultShard;
+        Map<String, StorageShard> ids = new LinkedHashMap<>();
+        for (StorageShard shard : configured) {
+            if (ids.put(shard.getId(), shard) != null) {
+                throw new IllegalStateException("duplicate storage shard id: " + shard.getId());
+            }
+        }
+        this.byId = Collections.unmodifiableMap(ids);
+        this.shards = List.copyOf(ids.values());
+    }
+
+    public StorageShard getDefault() {
+        return defaultShard;
+    }
+
+    /**
+     * Configured shards in declaration order (without the default shard).
+     * Their order decides where new keys go; append, don't reorder.
+     */
+    public List<StorageShard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Shard holding the given key (or every key under the given prefix).
+     */
+    public StorageShard resolve(String storageKey) {
+        int slash = storageKey.indexOf('/');
+        if (slash > 0) {
+            StorageShard shard = byId.get(storageKey.substring(0, slash));
+            if (shard != null) {
+                return shard;
+            }
+        }
+        return defaultShard;
+    }
+
+    /**
+     * Default shard first, then the configured ones.
+     */
+    public List<StorageShard> all() {
+        List<StorageShard> all = new ArrayList<>(shards.size() + 1);
+        all.add(defaultShard);
+        all.addAll(shards);
+        return all;
+    }
+
+    /**
+     * One shard per distinct endpoint and bucket, for bucket-wide calls
+     * (listing uploads, notification config) that must not run twice when
+     * several shards share a bucket.
+     */
+    public List<StorageShard> distinctBuckets() {
+        Map<String, StorageShard> distinct = new LinkedHashMap<>();
+        for (StorageShard shard : all()) {
+            distinct.putIfAbsent(shard.getEndpoint() + "|" + shard.getBucket(), shard);
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    public boolean isManagedBucket(String bucket) {
+        for (StorageShard shard : all()) {
+            if (shard.getBucket().equals(bucket)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
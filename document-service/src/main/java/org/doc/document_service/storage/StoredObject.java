@@ -0,0 +1,21 @@
+package org.doc.document_service.storage;
+
+/**
+ * Size and ETag of an object as the object store reports them.
+ *
+ * The ETag is computed by the store (MD5 of the content for single PUTs,
+ * MD5 of the part MD5s plus "-N" for multipart uploads), so unlike a
+ * client-supplied checksum it can be trusted to identify the content.
+ */
+public class StoredObject {
+    private final Long size;
+    private final String etag;
+
+    public StoredObject(Long size, String etag) {
+        this.size = size;
+        this.etag = etag;
+    }
+
+    public Long getSize() { return size; }
+    public String getEtag() { return etag; }
+}
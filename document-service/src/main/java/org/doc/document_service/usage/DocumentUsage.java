@@ -0,0 +1,37 @@
+package org.doc.document_service.usage;
+
+import org.doc.document_service.domain.DocumentStatus;
+
+/**
+ * What one document counts for in its owner's usage: one document of its
+ * status, its size, and one of its AI category if it has one.
+ */
+public record DocumentUsage(DocumentStatus status, long size, String category) {
+
+    static final int MAX_CATEGORY_LENGTH = 128;
+
+    /**
+     * @return null for DELETED documents, which count for nothing
+     */
+    public static DocumentUsage of(DocumentStatus status, Long size, Object category) {
+        if (status == null || status == DocumentStatus.DELETED) {
+            return null;
+        }
+        return new DocumentUsage(status, size != null ? size : 0L, category(category));
+    }
+
+    /**
+     * metadata.category as counted: its text, cut to the column length;
+     * missing or blank means uncategorized.
+     */
+    public static String category(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String category = value.toString().trim();
+        if (category.isEmpty()) {
+            return null;
+        }
+        return category.length() > MAX_CATEGORY_LENGTH ? category.substring(0, MAX_CATEGORY_LENGTH) : category;
+    }
+}
@@ -0,0 +1,285 @@
+package org.doc.document_service.usage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.doc.document_service.domain.OwnerUsage;
+import org.doc.document_service.dto.DocumentStatsResponse;
+import org.doc.document_service.repository.OwnerUsageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-owner usage counters (documents per status, bytes, documents per AI
+ * category), kept without ever aggregating over documents.
+ *
+ * Writers report each document's usage before and after their change. The
+ * difference is collected per transaction and, after commit, added to striped
+ * in-memory accumulators (LongAdder per counter). A scheduled flush swaps the
+ * accumulators out and adds their deltas to owner_usage in one transaction.
+ * The upserts are additive, so instances need no coordination. Deltas of a
+ * failed flush go back into the accumulators.
+ *
+ * Reads combine owner_usage with this instance's unflushed deltas; the deltas
+ * of other instances show up within one flush interval. Quotas are therefore
+ * soft by up to that much. Deltas not yet flushed when an instance dies are
+ * lost: the counters are for dashboards and quotas, not billing, and
+ * db/owner-usage.sql rebuilds them.
+ *
+ * Metrics: documents.usage.flushes{result}, documents.usage.quota.rejections.
+ */
+@Component
+public class UsageAccounting {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageAccounting.class);
+
+    @Autowired
+    private OwnerUsageRepository ownerUsageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${documents.usage.quota.max-documents:0}")
+    private long maxDocuments;
+
+    @Value("${documents.usage.quota.max-bytes:0}")
+    private long maxBytes;
+
+    // Writers share the read lock; the flush takes the write lock only to swap the map
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Map<UsageKey, LongAdder>> pending = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Counter flushed;
+    private Counter flushFailures;
+    private Counter quotaRejections;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushed = Counter.builder("documents.usage.flushes").tag("result", "ok").register(meterRegistry);
+        flushFailures = Counter.builder("documents.usage.flushes").tag("result", "failed").register(meterRegistry);
+        quotaRejections = Counter.builder("documents.usage.quota.rejections").register(meterRegistry);
+    }
+
+    /**
+     * A document's usage changed from before to after (null = didn't count:
+     * not created yet, or DELETED). Applied once the transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(String ownerId, DocumentUsage before, DocumentUsage after) {
+        if (ownerId == null || (before == null ? after == null : before.equals(after))) {
+            return;
+        }
+        Map<UsageKey, Long> deltas = transactionDeltas(ownerId);
+        if (before != null) {
+            add(deltas, before, -1);
+        }
+        if (after != null) {
+            add(deltas, after, 1);
+        }
+    }
+
+    /**
+     * Reject an intent that would take the owner over a quota.
+     *
+     * @throws IllegalArgumentException if a quota would be exceeded
+     */
+    public void checkQuota(String ownerId, int documents, long bytes) {
+        if (maxDocuments <= 0 && maxBytes <= 0) {
+            return;
+        }
+        Map<UsageKey, Long> usage = usage(ownerId);
+        long documentCount = 0;
+        for (Map.Entry<UsageKey, Long> counter : usage.entrySet()) {
+            if (OwnerUsage.DOCUMENTS.equals(counter.getKey().metric())) {
+                documentCount += counter.getValue();
+            }
+        }
+        if (maxDocuments > 0 && documentCount + documents > maxDocuments) {
+            quotaRejections.increment();
+            throw new IllegalArgumentException("document quota exceeded");
+        }
+        long storedBytes = usage.getOrDefault(new UsageKey(OwnerUsage.BYTES, ""), 0L);
+        if (maxBytes > 0 && storedBytes + bytes > maxBytes) {
+            quotaRejections.increment();
+            throw new IllegalArgumentException("storage quota exceeded");
+        }
+    }
+
+    public DocumentStatsResponse getStats(String ownerId) {
+        Map<String, Long> byStatus = new TreeMap<>();
+        Map<String, Long> byCategory = new TreeMap<>();
+        long total = 0;
+        long bytes = 0;
+        for (Map.Entry<UsageKey, Long> counter : usage(ownerId).entrySet()) {
+            long amount = counter.getValue();
+            if (amount == 0) {
+                continue;
+            }
+            String metric = counter.getKey().metric();
+            if (OwnerUsage.DOCUMENTS.equals(metric)) {
+                byStatus.put(counter.getKey().key(), amount);
+                total += amount;
+            } else if (OwnerUsage.CATEGORY.equals(metric)) {
+                byCategory.put(counter.getKey().key(), amount);
+            } else if (OwnerUsage.BYTES.equals(metric)) {
+                bytes = amount;
+            }
+        }
+        DocumentStatsResponse resp = new DocumentStatsResponse();
+        resp.setTotalDocuments(total);
+        resp.setDocumentsByStatus(byStatus);
+        resp.setDocumentsByCategory(byCategory);
+        resp.setBytesStored(bytes);
+        resp.setMaxDocuments(maxDocuments > 0 ? maxDocuments : null);
+        resp.setMaxBytes(maxBytes > 0 ? maxBytes : null);
+        return resp;
+    }
+
+    @Scheduled(fixedDelayString = "${documents.usage.flush-interval-ms:5000}")
+    public void flush() {
+        Map<String, Map<UsageKey, LongAdder>> batch;
+        swapLock.writeLock().lock();
+        try {
+            batch = pending;
+            if (batch.isEmpty()) {
+                return;
+            }
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        // No writer holds the swapped-out map any more; sum it up in key order,
+        // so two instances flushing the same owners lock rows in the same order
+        List<Map.Entry<String, Map<UsageKey, Long>>> deltas = new ArrayList<>();
+        new TreeMap<>(batch).forEach((ownerId, counters) -> {
+            Map<UsageKey, Long> sums = new TreeMap<>(KEY_ORDER);
+            counters.forEach((key, adder) -> {
+                long sum = adder.sum();
+                if (sum != 0) {
+                    sums.put(key, sum);
+                }
+            });
+            if (!sums.isEmpty()) {
+                deltas.add(Map.entry(ownerId, sums));
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<String, Map<UsageKey, Long>> owner : deltas) {
+                    owner.getValue().forEach((key, delta) -> ownerUsageRepository.add(owner.getKey(), key.metric(),
+                            key.key(), delta, now));
+                }
+            });
+            flushed.increment();
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Usage counter flush failed, retrying with the next one", e);
+            for (Map.Entry<String, Map<UsageKey, Long>> owner : deltas) {
+                accumulate(owner.getKey(), owner.getValue());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // Stored counters plus this instance's unflushed deltas
+    private Map<UsageKey, Long> usage(String ownerId) {
+        Map<UsageKey, Long> usage = new HashMap<>();
+        for (OwnerUsage row : ownerUsageRepository.findByOwnerId(ownerId)) {
+            usage.put(new UsageKey(row.getMetric(), row.getMetricKey()), row.getAmount());
+        }
+        Map<UsageKey, LongAdder> local = pending.get(ownerId);
+        if (local != null) {
+            local.forEach((key, adder) -> usage.merge(key, adder.sum(), Long::sum));
+        }
+        return usage;
+    }
+
+    private Map<UsageKey, Long> transactionDeltas(String ownerId) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<UsageKey, Long>> deltas = (Map<String, Map<UsageKey, Long>>) TransactionSynchronizationManager
+                .getResource(this);
+        if (deltas == null) {
+            Map<String, Map<UsageKey, Long>> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.forEach(UsageAccounting.this::accumulate);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(UsageAccounting.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas.computeIfAbsent(ownerId, o -> new HashMap<>());
+    }
+
+    private void accumulate(String ownerId, Map<UsageKey, Long> deltas) {
+        swapLock.readLock().lock();
+        try {
+            Map<UsageKey, LongAdder> counters = pending.computeIfAbsent(ownerId, o -> new ConcurrentHashMap<>());
+            deltas.forEach((key, delta) -> {
+                if (delta != 0) {
+                    counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+                }
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<UsageKey, Long> deltas, DocumentUsage usage, int sign) {
+        deltas.merge(new UsageKey(OwnerUsage.DOCUMENTS, usage.status().name()), (long) sign, Long::sum);
+        if (usage.size() != 0) {
+            deltas.merge(new UsageKey(OwnerUsage.BYTES, ""), sign * usage.size(), Long::sum);
+        }
+        if (usage.category() != null) {
+            deltas.merge(new UsageKey(OwnerUsage.CATEGORY, usage.category()), (long) sign, Long::sum);
+        }
+    }
+
+    private static final Comparator<UsageKey> KEY_ORDER = Comparator.comparing(UsageKey::metric)
+            .thenComparing(UsageKey::key);
+
+    private record UsageKey(String metric, String key) {
+    }
+}
@@ -0,0 +1,92 @@
+package org.doc.document_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ *
+ * {@link #mightContain} never returns false for a value that was {@link #put}
+ * into the filter; it returns true for values that were not with roughly the
+ * configured false-positive probability. Bits are set with a CAS per word, so
+ * concurrent puts and reads need no lock.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        long wordCount = (numBits + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bloom filter too large");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.numBits = wordCount * 64;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Size a filter for the expected number of insertions and target
+     * false-positive probability (0 &lt; fpp &lt; 1).
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < numHashes; i++) {
+            setBit(Math.floorMod(h1 + i * h2, numBits));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+    }
+
+    // FNV-1a over the UTF-8 bytes, finished with the murmur3 fmix64 avalanche
+    private static long hash(String value, long seed) {
+        long h = 0xcbf29ce484222325L ^ seed;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,64 @@
+package org.doc.document_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor for document listing: base64url of "createdAt|id" of
+ * the last row of the previous page. Change feed cursors encode the last
+ * change sequence the same way.
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {}
+
+    public record Cursor(Instant createdAt, UUID id) {
+    }
+
+    /**
+     * Cursor that wasn't issued by us (malformed or altered); a client error.
+     */
+    public static final class InvalidCursorException extends IllegalArgumentException {
+        InvalidCursorException(Throwable cause) {
+            super("invalid cursor", cause);
+        }
+    }
+
+    public static String encode(Instant createdAt, UUID id) {
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("no separator");
+            }
+            return new Cursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+
+    public static String encodeSequence(long sequence) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeSequence(String cursor) {
+        try {
+            long sequence = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (sequence < 0) {
+                throw new IllegalArgumentException("negative sequence");
+            }
+            return sequence;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.doc.document_service.util;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Producers claim a slot with a CAS on the tail and never block: when the
+ * buffer is full {@link #offer} returns false and the caller decides what to
+ * do (drop, fall back, ...). Only one thread may call {@link #drainTo}.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        // Round up to a power of two so the slot index is a mask, not a modulo
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return false if the buffer is full (element not added)
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long t = tail.get();
+            if (t - head >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code max} elements into {@code target}, in offer order.
+     * A slot that was claimed but not yet written ends the drain early; it is
+     * picked up by the next call.
+     */
+    public int drainTo(List<? super E> target, int max) {
+        long h = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (h & mask);
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            h++;
+            drained++;
+        }
+        head = h;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
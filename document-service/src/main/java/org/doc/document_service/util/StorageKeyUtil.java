@@ -17,6 +17,16 @@ public final class StorageKeyUtil {
         return String.format("documents/%s/%s/%s", tenant, documentId.toString(), name);
     }
 
+    /**
+     * Example: {shardId}/{hashedPrefix}/{tenantId or "global"}/{documentId}/{url-encoded-filename}
+     */
+    public static String generateShardedStorageKey(String shardId, String hashedPrefix, String tenantId,
+            UUID documentId, String filename) {
+        String tenant = (tenantId == null || tenantId.isBlank()) ? "global" : sanitize(tenantId);
+        String name = filename == null ? documentId.toString() : sanitize(filename);
+        return String.format("%s/%s/%s/%s/%s", shardId, hashedPrefix, tenant, documentId.toString(), name);
+    }
+
     private static String sanitize(String s) {
         // Basic URL-encode; you can add more rules (remove path separators, length limits)
         return URLEncoder.encode(s, StandardCharsets.UTF_8);
@@ -0,0 +1,38 @@
+package org.doc.document_service.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7).
+ *
+ * Layout: 48-bit Unix milliseconds, version, 12-bit counter, variant, 62
+ * random bits. Consecutive ids from this process are strictly increasing,
+ * so InnoDB appends to the right-most page instead of splitting pages at
+ * random positions as it does with UUID.randomUUID().
+ */
+public final class UuidV7 {
+
+    // (millis << 12) | counter of the last issued id
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {}
+
+    public static UUID next() {
+        long candidate = System.currentTimeMillis() << 12;
+        long stamp;
+        long prev;
+        do {
+            prev = LAST.get();
+            // Same millisecond (or clock went back): bump the counter instead
+            stamp = candidate > prev ? candidate : prev + 1;
+        } while (!LAST.compareAndSet(prev, stamp));
+
+        long millis = stamp >>> 12;
+        long counter = stamp & 0xFFFL;
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
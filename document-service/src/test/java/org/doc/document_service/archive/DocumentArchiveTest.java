@@ -0,0 +1,162 @@
+package org.doc.document_service.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.DocumentMapperImpl;
+import org.doc.document_service.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Moving rows between documents and documents_archive against a real
+ * database (H2 in MySQL mode): which rows are archived, that a restore
+ * brings them back unchanged, and the archive-side lookups.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DocumentArchive.class, DocumentMapperImpl.class, DocumentArchiveTest.Metrics.class })
+class DocumentArchiveTest {
+
+    private static final String OWNER = "owner-1";
+    private static final Set<DocumentStatus> DELETED = Set.of(DocumentStatus.DELETED);
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private DocumentArchive documentArchive;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Instant cutoff = Instant.now().minus(Duration.ofDays(30));
+
+    @Test
+    void onlyStaleRowsInTheStatusesAreArchived() {
+        UUID staleDeleted = persist(OWNER, DocumentStatus.DELETED, 40);
+        UUID recentDeleted = persist(OWNER, DocumentStatus.DELETED, 1);
+        UUID staleProcessing = persist(OWNER, DocumentStatus.PROCESSING, 40);
+
+        assertThat(documentArchive.archive(DELETED, cutoff, 10)).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(documentRepository.findById(staleDeleted)).isEmpty();
+        assertThat(documentArchive.find(staleDeleted)).isPresent();
+        assertThat(documentRepository.findById(recentDeleted)).isPresent();
+        assertThat(documentRepository.findById(staleProcessing)).isPresent();
+        assertThat(meterRegistry.counter("documents.archive", "action", "archived").count()).isEqualTo(1);
+    }
+
+    @Test
+    void archiveMovesAtMostOneBatch() {
+        for (int i = 0; i < 3; i++) {
+            persist(OWNER, DocumentStatus.DELETED, 40);
+        }
+
+        assertThat(documentArchive.archive(DELETED, cutoff, 2)).isEqualTo(2);
+        assertThat(documentArchive.archive(DELETED, cutoff, 2)).isEqualTo(1);
+        assertThat(documentArchive.archive(DELETED, cutoff, 2)).isZero();
+    }
+
+    @Test
+    void restoreBringsTheRowBackUnchanged() {
+        UUID id = persist(OWNER, DocumentStatus.PROCESSED, 40);
+        Document before = reload(id);
+        documentArchive.archive(Set.of(DocumentStatus.PROCESSED), cutoff, 10);
+        entityManager.clear();
+
+        assertThat(documentArchive.restore(List.of(id, UUID.randomUUID()))).containsExactly(id);
+        entityManager.clear();
+
+        Document after = reload(id);
+        assertThat(after.getOwnerId()).isEqualTo(before.getOwnerId());
+        assertThat(after.getFilename()).isEqualTo(before.getFilename());
+        assertThat(after.getStorageKey()).isEqualTo(before.getStorageKey());
+        assertThat(after.getStatus()).isEqualTo(DocumentStatus.PROCESSED);
+        assertThat(after.getCreatedAt()).isEqualTo(before.getCreatedAt());
+        // Not a change of the document: the update time stays old
+        assertThat(after.getUpdatedAt()).isEqualTo(before.getUpdatedAt());
+        assertThat(documentArchive.find(id)).isEmpty();
+        assertThat(meterRegistry.counter("documents.archive", "action", "restored").count()).isEqualTo(1);
+    }
+
+    @Test
+    void restoreOfHotDocumentsDoesNothing() {
+        UUID id = persist(OWNER, DocumentStatus.PROCESSED, 1);
+
+        assertThat(documentArchive.restore(List.of(id))).isEmpty();
+        assertThat(documentArchive.restore(List.of())).isEmpty();
+    }
+
+    @Test
+    void findLiveSkipsDeletedAndOtherOwners() {
+        UUID live = persist(OWNER, DocumentStatus.PROCESSED, 40);
+        UUID deleted = persist(OWNER, DocumentStatus.DELETED, 40);
+        UUID foreign = persist("owner-2", DocumentStatus.PROCESSED, 40);
+        documentArchive.archive(Set.of(DocumentStatus.PROCESSED, DocumentStatus.DELETED), cutoff, 10);
+        entityManager.clear();
+
+        List<Document> found = documentArchive.findLive(OWNER, List.of(live, deleted, foreign));
+
+        assertThat(found).extracting(Document::getId).containsExactly(live);
+        assertThat(documentArchive.count(OWNER, null)).isEqualTo(1);
+        assertThat(documentArchive.count(OWNER, DocumentStatus.DELETED)).isEqualTo(1);
+    }
+
+    // Document last updated daysAgo days ago (set after insert, @UpdateTimestamp would overwrite it)
+    private UUID persist(String ownerId, DocumentStatus status, int daysAgo) {
+        Document doc = new Document();
+        doc.setId(UUID.randomUUID());
+        doc.setOwnerId(ownerId);
+        doc.setFilename("a.pdf");
+        doc.setStorageKey("documents/" + ownerId + "/" + doc.getId() + "/a.pdf");
+        doc.setStatus(status);
+        doc.setRequestId("req");
+        entityManager.persistAndFlush(doc);
+        entityManager.getEntityManager()
+                .createQuery("update Document d set d.updatedAt = :at where d.id = :id")
+                .setParameter("at", Instant.now().minus(Duration.ofDays(daysAgo)).truncatedTo(ChronoUnit.MICROS))
+                .setParameter("id", doc.getId())
+                .executeUpdate();
+        entityManager.clear();
+        return doc.getId();
+    }
+
+    private Document reload(UUID id) {
+        entityManager.clear();
+        return entityManager.find(Document.class, id);
+    }
+}
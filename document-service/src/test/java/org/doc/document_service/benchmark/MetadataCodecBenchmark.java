@@ -0,0 +1,87 @@
+package org.doc.document_service.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.doc.document_service.mapper.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Metadata JSON on the response and create paths.
+ *
+ * Response: parsing the stored JSON into a Map and serializing the Map (as
+ * before) against writing the stored JSON through MetadataView. Create:
+ * serializing the request's Map with a freshly allocated ObjectMapper (as
+ * DocumentMapper did) against the shared writer. keys = top-level entries
+ * of the metadata object.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="MetadataCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetadataCodecBenchmark {
+
+    @Param({ "5", "50" })
+    public int keys;
+
+    // Stands in for Spring's response ObjectMapper
+    private final ObjectMapper responseMapper = new ObjectMapper();
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+    private final JsonMapper jsonMapper = new JsonMapper();
+
+    private String stored;
+    private Map<String, Object> metadata;
+
+    @Setup
+    public void setUp() {
+        metadata = new LinkedHashMap<>();
+        metadata.put("category", "invoice");
+        metadata.put("summary", "Invoice from ACME Corp. for consulting services in Q3 2024, due within 30 days.");
+        metadata.put("tags", List.of("finance", "q3", "acme"));
+        metadata.put("ocr", Map.of("lang", "en", "score", 0.97, "pages", 4));
+        for (int i = metadata.size(); i < keys; i++) {
+            metadata.put("field" + i, i % 2 == 0 ? "value " + i : i);
+        }
+        stored = jsonMapper.toJson(metadata);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String responseViaMap() throws Exception {
+        Map<String, Object> map = legacyMapper.readValue(stored, Map.class);
+        return responseMapper.writeValueAsString(map);
+    }
+
+    @Benchmark
+    public String responseViaView() throws Exception {
+        return responseMapper.writeValueAsString(jsonMapper.view(stored));
+    }
+
+    @Benchmark
+    public String createWithNewMapper() throws Exception {
+        return new ObjectMapper().writeValueAsString(metadata);
+    }
+
+    @Benchmark
+    public String createWithSharedWriter() {
+        return JsonMapper.shared().toJson(metadata);
+    }
+}
@@ -0,0 +1,92 @@
+package org.doc.document_service.benchmark;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.doc.document_service.storage.SigV4Presigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+
+/**
+ * Presigning one GET URL: MinioClient#getPresignedObjectUrl (what the
+ * service used before) against the in-process SigV4 presigner, single
+ * object and multipart part. Both sign locally (the client has its region
+ * set, so no bucket-location call).
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="SigV4PresignerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class SigV4PresignerBenchmark {
+
+    private static final String ENDPOINT = "http://minio:9000";
+    private static final String BUCKET = "documents";
+    private static final String KEY = "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/annual report 2024.pdf";
+    private static final int TTL_SECONDS = 900;
+
+    private MinioClient minioClient;
+    private SigV4Presigner presigner;
+    private Map<String, String> partQuery;
+
+    @Setup
+    public void setUp() {
+        minioClient = MinioClient.builder()
+                .endpoint(ENDPOINT)
+                .credentials("minioadmin", "minioadmin")
+                .region("us-east-1")
+                .build();
+        presigner = new SigV4Presigner("minioadmin", "minioadmin", "us-east-1", ENDPOINT,
+                "https://files.example.com");
+        partQuery = Map.of("uploadId", "YjY2ZTk0ZDEtNWE2Mi00ZjQ4LWI5YjEtMzY2ZWE1ZTk0Zjk0", "partNumber", "7");
+    }
+
+    @Benchmark
+    public String minioClient() throws Exception {
+        return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.GET)
+                .bucket(BUCKET)
+                .object(KEY)
+                .expiry(TTL_SECONDS)
+                .build());
+    }
+
+    @Benchmark
+    public String sigV4Presigner() {
+        return presigner.presign("GET", BUCKET, KEY, null, Instant.now(), TTL_SECONDS);
+    }
+
+    @Benchmark
+    public String minioClientPart() throws Exception {
+        return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.PUT)
+                .bucket(BUCKET)
+                .object(KEY)
+                .expiry(TTL_SECONDS)
+                .extraQueryParams(partQuery)
+                .build());
+    }
+
+    @Benchmark
+    public String sigV4PresignerPart() {
+        return presigner.presign("PUT", BUCKET, KEY, partQuery, Instant.now(), TTL_SECONDS);
+    }
+}
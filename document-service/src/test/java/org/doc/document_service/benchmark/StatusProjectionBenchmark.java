@@ -0,0 +1,188 @@
+package org.doc.document_service.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.doc.document_service.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Status/ownership lookup by id on documents carrying AI metadata of
+ * metadataKb: the full row (what findById reads, metadata JSON included)
+ * against the status projection (id, owner, status, updated_at) and the
+ * existence check. The JSON column is stored off-page once it is large, so
+ * the full row costs extra page reads and the transfer of the whole value.
+ *
+ * Needs a MySQL 8 schema it may create and drop bench_status_projection in:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="StatusProjectionBenchmark
+ *     -p jdbcUrl=jdbc:mysql://localhost:3306/bench -p user=root -p password=..."
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StatusProjectionBenchmark {
+
+    private static final String OWNER = "owner-1";
+
+    @Param("jdbc:mysql://localhost:3306/bench")
+    public String jdbcUrl;
+
+    @Param("root")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    @Param({ "1", "64" })
+    public int metadataKb;
+
+    @Param("10000")
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement fullRow;
+    private PreparedStatement statusView;
+    private PreparedStatement exists;
+    private final List<String> ids = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_status_projection");
+            ddl.execute("CREATE TABLE bench_status_projection ("
+                    + "id char(36) NOT NULL PRIMARY KEY, "
+                    + "owner_id varchar(255) NOT NULL, "
+                    + "filename varchar(255) NOT NULL, "
+                    + "mime_type varchar(255), "
+                    + "size bigint, "
+                    + "storage_key varchar(1024), "
+                    + "status varchar(32) NOT NULL, "
+                    + "checksum varchar(255), "
+                    + "metadata json, "
+                    + "created_at datetime(6) NOT NULL, "
+                    + "updated_at datetime(6) NOT NULL"
+                    + ") ENGINE=InnoDB");
+        }
+        String metadata = metadata(metadataKb * 1024);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench_status_projection "
+                + "(id, owner_id, filename, mime_type, size, storage_key, status, checksum, metadata, created_at, "
+                + "updated_at) VALUES (?, ?, ?, 'application/pdf', 48213, ?, 'PROCESSED', 'abc', ?, ?, ?)")) {
+            Timestamp now = Timestamp.from(Instant.now());
+            for (int i = 0; i < rows; i++) {
+                String id = UuidV7.next().toString();
+                ids.add(id);
+                insert.setString(1, id);
+                insert.setString(2, OWNER);
+                insert.setString(3, "document-" + i + ".pdf");
+                insert.setString(4, "documents/" + id + "/document.pdf");
+                insert.setString(5, metadata);
+                insert.setTimestamp(6, now);
+                insert.setTimestamp(7, now);
+                insert.addBatch();
+                if (i % 100 == 99) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        fullRow = connection.prepareStatement("SELECT * FROM bench_status_projection WHERE id = ?");
+        statusView = connection.prepareStatement(
+                "SELECT id, owner_id, status, updated_at FROM bench_status_projection WHERE id = ?");
+        exists = connection.prepareStatement(
+                "SELECT 1 FROM bench_status_projection WHERE id = ? AND owner_id = ? LIMIT 1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_status_projection");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void fullRow(Blackhole bh) throws SQLException {
+        fullRow.setString(1, randomId());
+        try (ResultSet rs = fullRow.executeQuery()) {
+            if (rs.next()) {
+                bh.consume(rs.getString("owner_id"));
+                bh.consume(rs.getString("status"));
+                bh.consume(rs.getString("metadata"));
+            }
+        }
+    }
+
+    @Benchmark
+    public void statusView(Blackhole bh) throws SQLException {
+        statusView.setString(1, randomId());
+        try (ResultSet rs = statusView.executeQuery()) {
+            if (rs.next()) {
+                bh.consume(rs.getString("owner_id"));
+                bh.consume(rs.getString("status"));
+                bh.consume(rs.getTimestamp("updated_at"));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean existsByIdAndOwner() throws SQLException {
+        exists.setString(1, randomId());
+        exists.setString(2, OWNER);
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    // AI-result-like JSON of about the given size
+    private static String metadata(int bytes) {
+        StringBuilder json = new StringBuilder(bytes + 256)
+                .append("{\"category\": \"invoice\", \"model\": \"doc-ai-2\", \"entities\": [");
+        int i = 0;
+        while (json.length() < bytes) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append("{\"type\": \"line_item\", \"text\": \"Consulting services ").append(i)
+                    .append("\", \"amount\": ").append(100 + i).append(", \"id\": \"").append(UUID.randomUUID())
+                    .append("\"}");
+            i++;
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,129 @@
+package org.doc.document_service.benchmark;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.doc.document_service.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert throughput into a documents-shaped InnoDB table: random (v4)
+ * against time-ordered (v7) primary keys, stored as char(36) or binary(16).
+ * The table is pre-filled so the primary key is well beyond a few pages; a
+ * random key then splits pages anywhere in the tree, a v7 key appends.
+ *
+ * Needs a MySQL 8 schema it may create and drop bench_uuid_insert in:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="UuidInsertBenchmark
+ *     -p jdbcUrl=jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true -p user=root -p password=..."
+ *
+ * Score is rows per second (one operation = one row, committed in batches of 100).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param("jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true")
+    public String jdbcUrl;
+
+    @Param("root")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    @Param({ "v4", "v7" })
+    public String ids;
+
+    @Param({ "char36", "binary16" })
+    public String column;
+
+    @Param("500000")
+    public int prefill;
+
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        String idType = "binary16".equals(column) ? "binary(16)" : "char(36)";
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_uuid_insert");
+            ddl.execute("CREATE TABLE bench_uuid_insert ("
+                    + "id " + idType + " NOT NULL PRIMARY KEY, "
+                    + "owner_id varchar(255) NOT NULL, "
+                    + "filename varchar(255) NOT NULL, "
+                    + "status varchar(32) NOT NULL, "
+                    + "created_at datetime(6) NOT NULL, "
+                    + "KEY idx_owner_created (owner_id, created_at)"
+                    + ") ENGINE=InnoDB");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO bench_uuid_insert "
+                + "(id, owner_id, filename, status, created_at) VALUES (?, ?, ?, ?, ?)");
+        for (int i = 0; i < prefill; i += BATCH) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_uuid_insert");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insert() throws SQLException {
+        insertBatch();
+    }
+
+    private void insertBatch() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < BATCH; i++) {
+            UUID id = "v7".equals(ids) ? UuidV7.next() : UUID.randomUUID();
+            if ("binary16".equals(column)) {
+                insert.setBytes(1, ByteBuffer.allocate(16).putLong(id.getMostSignificantBits())
+                        .putLong(id.getLeastSignificantBits()).array());
+            } else {
+                insert.setString(1, id.toString());
+            }
+            insert.setString(2, "owner-" + (i % 50));
+            insert.setString(3, "document-" + i + ".pdf");
+            insert.setString(4, "UPLOADING");
+            insert.setTimestamp(5, now);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,68 @@
+package org.doc.document_service.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Open-in-view must be off whenever reads are routed to the replica.
+ */
+class ReplicaOpenInViewGuardTest {
+
+    private static final String REPLICA = "jdbc:mysql://mysql-replica:3306/insight_doc_db";
+
+    private final ReplicaOpenInViewGuard guard = new ReplicaOpenInViewGuard();
+
+    @Test
+    void withoutReplicaNothingChanges() {
+        MockEnvironment env = new MockEnvironment();
+
+        guard.postProcessEnvironment(env, new SpringApplication());
+
+        assertThat(env.getProperty("spring.jpa.open-in-view")).isNull();
+    }
+
+    @Test
+    void replicaForcesOpenInViewOffWhenUnset() {
+        MockEnvironment env = new MockEnvironment().withProperty("documents.datasource.replica.url", REPLICA);
+
+        guard.postProcessEnvironment(env, new SpringApplication());
+
+        assertThat(env.getProperty("spring.jpa.open-in-view", Boolean.class)).isFalse();
+    }
+
+    @Test
+    void replicaWithOpenInViewEnabledFailsStartup() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("documents.datasource.replica.url", REPLICA)
+                .withProperty("spring.jpa.open-in-view", "true");
+
+        assertThatThrownBy(() -> guard.postProcessEnvironment(env, new SpringApplication()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("spring.jpa.open-in-view");
+    }
+
+    @Test
+    void replicaWithOpenInViewDisabledStarts() {
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("documents.datasource.replica.url", REPLICA)
+                .withProperty("spring.jpa.open-in-view", "false");
+
+        guard.postProcessEnvironment(env, new SpringApplication());
+
+        assertThat(env.getProperty("spring.jpa.open-in-view", Boolean.class)).isFalse();
+    }
+
+    @Test
+    void registeredWithSpringBoot() {
+        // Other post processors need constructor arguments Boot supplies: skip those
+        assertThat(SpringFactoriesLoader.forDefaultResourceLocation().load(EnvironmentPostProcessor.class, null,
+                (factoryType, className, failure) -> { }))
+                .hasAtLeastOneElementOfType(ReplicaOpenInViewGuard.class);
+    }
+}
@@ -0,0 +1,112 @@
+package org.doc.document_service.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.doc.document_service.dto.DocumentChangesResponse;
+import org.doc.document_service.dto.DocumentListResponse;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.doc.document_service.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Cursors come from clients: one we didn't issue must be answered with 400.
+ * The service is mocked but decodes the cursor as the real one does.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentControllerCursorTest {
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private DocumentEventHub documentEventHub;
+
+    @InjectMocks
+    private DocumentController documentController;
+
+    private MockMvc mockMvc;
+
+    private final UsernamePasswordAuthenticationToken caller = UsernamePasswordAuthenticationToken
+            .authenticated("alice", null, List.of());
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(documentController).build();
+        when(documentService.listDocumentsAfter(anyString(), any(), anyInt(), any(), anyBoolean()))
+                .thenAnswer(inv -> {
+                    String cursor = inv.getArgument(1);
+                    if (cursor != null && !cursor.isBlank()) {
+                        CursorCodec.decode(cursor);
+                    }
+                    return new DocumentListResponse();
+                });
+        when(documentService.listChanges(anyString(), any(), anyInt())).thenAnswer(inv -> {
+            String since = inv.getArgument(1);
+            if (since != null) {
+                CursorCodec.decodeSequence(since);
+            }
+            return new DocumentChangesResponse();
+        });
+    }
+
+    @Test
+    void issuedCursorIsAccepted() throws Exception {
+        String cursor = CursorCodec.encode(Instant.now(), UUID.randomUUID());
+
+        mockMvc.perform(get("/documents").param("cursor", cursor).principal(caller))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/documents").param("cursor", "").principal(caller))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void invalidListCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/documents").param("cursor", "garbage!").principal(caller))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("invalid cursor"));
+    }
+
+    @Test
+    void tamperedListCursorIsBadRequest() throws Exception {
+        String cursor = CursorCodec.encode(Instant.now(), UUID.randomUUID());
+        String tampered = cursor.substring(0, cursor.length() - 6) + "AAAAAA";
+
+        mockMvc.perform(get("/documents").param("cursor", tampered).principal(caller))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidChangeFeedCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/documents/changes").param("since", CursorCodec.encodeSequence(42)).principal(caller))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/documents/changes").param("since", "LTE").principal(caller))
+                .andExpect(status().isBadRequest());
+    }
+}
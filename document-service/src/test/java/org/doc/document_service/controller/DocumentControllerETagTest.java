@@ -0,0 +1,212 @@
+package org.doc.document_service.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.mapper.DocumentMapperImpl;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.DocumentChangeRepository;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.doc.document_service.repository.OutboxEventRepository;
+import org.doc.document_service.service.DocumentChangePublisher;
+import org.doc.document_service.service.DocumentReadCache;
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Conditional GETs of the status endpoint through the real service, read
+ * cache and change publisher; only the database is mocked. A metadata write
+ * must change the ETag, and the cached copy must be dropped once the write
+ * commits (the test drives the commit by hand).
+ */
+class DocumentControllerETagTest {
+
+    private static final String OWNER = "alice";
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final UsernamePasswordAuthenticationToken caller = UsernamePasswordAuthenticationToken
+            .authenticated(OWNER, null, List.of());
+
+    private final UUID documentId = UUID.randomUUID();
+    // The row as the database has it
+    private final AtomicReference<DocumentStatusView> row = new AtomicReference<>();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DocumentArchive documentArchive = mock(DocumentArchive.class);
+        when(documentArchive.findStatusView(any())).thenReturn(Optional.empty());
+
+        DocumentReadCache documentReadCache = new DocumentReadCache();
+        ReflectionTestUtils.setField(documentReadCache, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(documentReadCache, "documentMapper", new DocumentMapperImpl());
+        ReflectionTestUtils.setField(documentReadCache, "documentArchive", documentArchive);
+        ReflectionTestUtils.setField(documentReadCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(documentReadCache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(documentReadCache, "ttlSeconds", 600L);
+        ReflectionTestUtils.invokeMethod(documentReadCache, "init");
+
+        DocumentChangePublisher documentChangePublisher = new DocumentChangePublisher();
+        ReflectionTestUtils.setField(documentChangePublisher, "outboxEventRepository",
+                mock(OutboxEventRepository.class));
+        ReflectionTestUtils.setField(documentChangePublisher, "documentChangeRepository",
+                mock(DocumentChangeRepository.class));
+        ReflectionTestUtils.setField(documentChangePublisher, "documentReadCache", documentReadCache);
+        ReflectionTestUtils.setField(documentChangePublisher, "documentEventHub", mock(DocumentEventHub.class));
+        ReflectionTestUtils.setField(documentChangePublisher, "jsonMapper", new JsonMapper());
+        ReflectionTestUtils.setField(documentChangePublisher, "objectMapper", new ObjectMapper().findAndRegisterModules());
+
+        DocumentService documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(documentService, "documentReadCache", documentReadCache);
+        ReflectionTestUtils.setField(documentService, "documentChangePublisher", documentChangePublisher);
+        ReflectionTestUtils.setField(documentService, "documentMapper", new DocumentMapperImpl());
+        ReflectionTestUtils.setField(documentService, "jsonMapper", new JsonMapper());
+        ReflectionTestUtils.setField(documentService, "usageAccounting", mock(UsageAccounting.class));
+        ReflectionTestUtils.setField(documentService, "documentArchive", documentArchive);
+
+        DocumentController documentController = new DocumentController();
+        ReflectionTestUtils.setField(documentController, "documentService", documentService);
+        ReflectionTestUtils.setField(documentController, "idempotencyStore", mock(IdempotencyStore.class));
+        ReflectionTestUtils.setField(documentController, "documentEventHub", mock(DocumentEventHub.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(documentController).build();
+
+        row.set(view(DocumentStatus.PROCESSING, Instant.parse("2024-05-01T10:00:00.123456Z")));
+        when(documentRepository.findStatusViewById(documentId)).thenAnswer(inv -> Optional.of(row.get()));
+        when(documentRepository.lockStatusViewById(documentId)).thenAnswer(inv -> Optional.of(row.get()));
+        when(documentRepository.mergeMetadata(eq(documentId), anyString(), any(), any(), any())).thenAnswer(inv -> {
+            row.set(view(DocumentStatus.PROCESSED, inv.getArgument(4)));
+            return 1;
+        });
+
+        // Stands in for the write's transaction
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String etag = getStatus().andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void staleIfNoneMatchGetsTheDocument() throws Exception {
+        mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void writeChangesTheETagOnceCommitted() throws Exception {
+        String before = getStatus().andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/documents/{id}/metadata", documentId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"summary\":\"text\"}"))
+                .andExpect(status().isNoContent());
+
+        // Not committed yet: readers keep getting the cached copy, never the pending row
+        mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller)
+                        .header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+        verify(documentRepository, times(1)).findStatusViewById(documentId);
+
+        commit();
+
+        String after = mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller)
+                        .header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(after).isNotBlank().isNotEqualTo(before);
+        verify(documentRepository, times(2)).findStatusViewById(documentId);
+
+        mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller)
+                        .header(HttpHeaders.IF_NONE_MATCH, after))
+                .andExpect(status().isNotModified());
+    }
+
+    private ResultActions getStatus() throws Exception {
+        return mockMvc.perform(get("/documents/{id}/status", documentId).principal(caller));
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+    }
+
+    private DocumentStatusView view(DocumentStatus status, Instant updatedAt) {
+        return new DocumentStatusView() {
+            @Override
+            public UUID getId() {
+                return documentId;
+            }
+
+            @Override
+            public String getOwnerId() {
+                return OWNER;
+            }
+
+            @Override
+            public DocumentStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package org.doc.document_service.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.mapper.DocumentMapperImpl;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.doc.document_service.storage.PresignedUrlResponse;
+import org.doc.document_service.storage.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * POST /documents/lookup through the real service with the repository,
+ * archive and storage mocked: request order, ids that aren't the caller's,
+ * archived documents, download URLs and request validation.
+ */
+class DocumentControllerLookupTest {
+
+    private static final String OWNER = "alice";
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final DocumentArchive documentArchive = mock(DocumentArchive.class);
+    private final StorageService storageService = mock(StorageService.class);
+    private final UsernamePasswordAuthenticationToken caller = UsernamePasswordAuthenticationToken
+            .authenticated(OWNER, null, List.of());
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DocumentService documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(documentService, "documentArchive", documentArchive);
+        ReflectionTestUtils.setField(documentService, "storageService", storageService);
+        ReflectionTestUtils.setField(documentService, "documentMapper", new DocumentMapperImpl());
+        ReflectionTestUtils.setField(documentService, "jsonMapper", new JsonMapper());
+        ReflectionTestUtils.setField(documentService, "documentTaskExecutor", (Executor) Runnable::run);
+
+        DocumentController documentController = new DocumentController();
+        ReflectionTestUtils.setField(documentController, "documentService", documentService);
+        ReflectionTestUtils.setField(documentController, "idempotencyStore", mock(IdempotencyStore.class));
+        ReflectionTestUtils.setField(documentController, "documentEventHub", mock(DocumentEventHub.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(documentController).build();
+
+        when(documentArchive.findLive(anyString(), anyCollection())).thenReturn(List.of());
+        when(storageService.generatePresignedGetUrl(anyString(), anyLong()))
+                .thenAnswer(inv -> new PresignedUrlResponse("http://minio/get/" + inv.getArgument(0),
+                        Instant.now().plusSeconds(900), 900L));
+    }
+
+    @Test
+    void itemsComeInRequestOrderWithOthersNotFound() throws Exception {
+        Document a = document(DocumentStatus.PROCESSED);
+        Document b = document(DocumentStatus.UPLOADING);
+        UUID someoneElses = UUID.randomUUID();
+        // The database returns them in its own order
+        when(documentRepository.findByOwnerIdAndIdInAndStatusNot(eq(OWNER), anyCollection(),
+                eq(DocumentStatus.DELETED))).thenReturn(List.of(a, b));
+
+        lookup(false, b.getId(), someoneElses, a.getId(), b.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].documentId").value(b.getId().toString()))
+                .andExpect(jsonPath("$.items[1].documentId").value(a.getId().toString()))
+                .andExpect(jsonPath("$.items[0].presignedGetUrl").doesNotExist())
+                .andExpect(jsonPath("$.notFound").value(someoneElses.toString()));
+
+        // Duplicates are looked up once
+        verify(documentRepository).findByOwnerIdAndIdInAndStatusNot(OWNER, List.of(b.getId(), someoneElses,
+                a.getId()), DocumentStatus.DELETED);
+        verify(storageService, never()).generatePresignedGetUrl(anyString(), anyLong());
+    }
+
+    @Test
+    void archivedDocumentsAreFound() throws Exception {
+        Document hot = document(DocumentStatus.PROCESSED);
+        Document archived = document(DocumentStatus.PROCESSED);
+        when(documentRepository.findByOwnerIdAndIdInAndStatusNot(eq(OWNER), anyCollection(), any()))
+                .thenReturn(List.of(hot));
+        when(documentArchive.findLive(OWNER, List.of(archived.getId()))).thenReturn(List.of(archived));
+
+        lookup(false, archived.getId(), hot.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].documentId").value(archived.getId().toString()))
+                .andExpect(jsonPath("$.items[1].documentId").value(hot.getId().toString()))
+                .andExpect(jsonPath("$.notFound").isEmpty());
+    }
+
+    @Test
+    void downloadUrlsOnlyForDownloadableDocuments() throws Exception {
+        Document processed = document(DocumentStatus.PROCESSED);
+        Document uploading = document(DocumentStatus.UPLOADING);
+        when(documentRepository.findByOwnerIdAndIdInAndStatusNot(eq(OWNER), anyCollection(), any()))
+                .thenReturn(List.of(processed, uploading));
+
+        lookup(true, processed.getId(), uploading.getId())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].presignedGetUrl").value("http://minio/get/" + processed.getStorageKey()))
+                .andExpect(jsonPath("$.items[1].presignedGetUrl").doesNotExist());
+
+        verify(storageService, never()).generatePresignedGetUrl(eq(uploading.getStorageKey()), anyLong());
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws Exception {
+        mockMvc.perform(post("/documents/lookup").principal(caller)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"documentIds\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/documents/lookup").principal(caller)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"documentIds\":[null]}"))
+                .andExpect(status().isBadRequest());
+
+        UUID[] tooMany = IntStream.range(0, 501).mapToObj(i -> UUID.randomUUID()).toArray(UUID[]::new);
+        lookup(false, tooMany).andExpect(status().isBadRequest());
+
+        verify(documentRepository, never()).findByOwnerIdAndIdInAndStatusNot(any(), any(), any());
+    }
+
+    private ResultActions lookup(boolean download, UUID... ids) throws Exception {
+        String body = List.of(ids).stream().map(id -> "\"" + id + "\"")
+                .collect(Collectors.joining(",", "{\"download\":" + download + ",\"documentIds\":[", "]}"));
+        return mockMvc.perform(post("/documents/lookup").principal(caller)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+
+    private static Document document(DocumentStatus status) {
+        Document doc = new Document();
+        doc.setId(UUID.randomUUID());
+        doc.setOwnerId(OWNER);
+        doc.setFilename("a.pdf");
+        doc.setStorageKey("documents/alice/" + doc.getId() + "/a.pdf");
+        doc.setStatus(status);
+        doc.setRequestId("req");
+        return doc;
+    }
+}
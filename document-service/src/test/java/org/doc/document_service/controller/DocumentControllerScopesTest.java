@@ -0,0 +1,81 @@
+package org.doc.document_service.controller;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.doc.document_service.dto.DocumentBulkUpdateRequest;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+/**
+ * Scopes of the bulk endpoints, checked by method security: a mutation of
+ * many documents needs the same scope as changing one.
+ */
+@SpringJUnitConfig(DocumentControllerScopesTest.Config.class)
+class DocumentControllerScopesTest {
+
+    @Configuration
+    @EnableMethodSecurity
+    static class Config {
+
+        @Bean
+        DocumentController documentController() {
+            return new DocumentController();
+        }
+    }
+
+    @MockitoBean
+    private DocumentService documentService;
+
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockitoBean
+    private DocumentEventHub documentEventHub;
+
+    @Autowired
+    private DocumentController documentController;
+
+    @Test
+    @WithMockUser(username = "alice", authorities = "SCOPE_doc:create")
+    void bulkUpdateIsDeniedWithCreateScope() {
+        assertThatThrownBy(() -> documentController.bulkUpdate(
+                SecurityContextHolder.getContext().getAuthentication(), request()))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(documentService, never()).bulkUpdate(any(), anyString());
+    }
+
+    @Test
+    @WithMockUser(username = "alice", authorities = "SCOPE_doc:update")
+    void bulkUpdateIsAllowedWithUpdateScope() {
+        DocumentBulkUpdateRequest request = request();
+
+        documentController.bulkUpdate(SecurityContextHolder.getContext().getAuthentication(), request);
+
+        verify(documentService).bulkUpdate(request, "alice");
+    }
+
+    private static DocumentBulkUpdateRequest request() {
+        DocumentBulkUpdateRequest request = new DocumentBulkUpdateRequest();
+        request.setDocumentIds(List.of(UUID.randomUUID()));
+        request.setVisibility("private");
+        return request;
+    }
+}
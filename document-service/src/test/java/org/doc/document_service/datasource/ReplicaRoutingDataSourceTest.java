@@ -0,0 +1,192 @@
+package org.doc.document_service.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which pool a transaction's connection comes from. Transactions are set up
+ * the way JpaTransactionManager leaves them (synchronization active,
+ * read-only flag set) without a real transaction manager.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5), 1000);
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(lagMonitor.isReplicaUsable()).thenReturn(true);
+        routing = new ReplicaRoutingDataSource(lagMonitor, readYourWrites);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        signIn("alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        endTransaction();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() throws SQLException {
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readWriteTransactionGoesToPrimary() throws SQLException {
+        assertThat(connectionIn(false)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void noTransactionGoesToPrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() throws SQLException {
+        when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void onPrimaryForcesPrimaryUntilItReturns() throws SQLException {
+        Connection nested = ReplicaRoutingDataSource.onPrimary(() -> ReplicaRoutingDataSource.onPrimary(() -> {
+            try {
+                return connectionIn(true);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        endTransaction();
+
+        assertThat(nested).isSameAs(primaryConnection);
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void committedWriteKeepsCallersReadsOnPrimary() throws SQLException {
+        connectionIn(false);
+        commit();
+
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        // Other callers are not affected
+        endTransaction();
+        signIn("bob");
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void rolledBackWriteDoesNotCount() throws SQLException {
+        connectionIn(false);
+        rollback();
+
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void readYourWritesWindowExpires() throws Exception {
+        ReadYourWritesTracker shortWindow = new ReadYourWritesTracker(Duration.ofMillis(50), 1000);
+        routing = new ReplicaRoutingDataSource(lagMonitor, shortWindow);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.afterPropertiesSet();
+
+        connectionIn(false);
+        commit();
+        assertThat(connectionIn(true)).isSameAs(primaryConnection);
+
+        Thread.sleep(200);
+        endTransaction();
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void anonymousWritesAreNotTracked() throws SQLException {
+        SecurityContextHolder.clearContext();
+        connectionIn(false);
+        commit();
+
+        assertThat(connectionIn(true)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void lagIsUnknownUntilMeasured() throws SQLException {
+        DataSource unreachable = mock(DataSource.class);
+        when(unreachable.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(unreachable, unreachable, Duration.ofSeconds(2),
+                Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        monitor.measure();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+    }
+
+    // Connection the first statement of a (new) transaction would get
+    private Connection connectionIn(boolean readOnly) throws SQLException {
+        endTransaction();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return routing.getConnection();
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        endTransaction();
+    }
+
+    private void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        endTransaction();
+    }
+
+    private static void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private static void signIn(String subject) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(subject, null, List.of()));
+    }
+}
@@ -0,0 +1,33 @@
+package org.doc.document_service.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BucketNotificationEventTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parsesMinioObjectCreatedNotification() throws Exception {
+        BucketNotificationEvent event;
+        try (InputStream in = getClass().getResourceAsStream("/minio/object-created-put.json")) {
+            event = objectMapper.readValue(in, BucketNotificationEvent.class);
+        }
+
+        assertThat(event.getEventName()).isEqualTo("s3:ObjectCreated:Put");
+        assertThat(event.getRecords()).hasSize(1);
+        BucketNotificationEvent.Record record = event.getRecords().get(0);
+        assertThat(record.getEventName()).isEqualTo("s3:ObjectCreated:Put");
+        assertThat(record.getS3().getBucket().getName()).isEqualTo("documents");
+        BucketNotificationEvent.S3Object object = record.getS3().getObject();
+        assertThat(object.getKey())
+                .isEqualTo("documents%2F0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20%2Fannual+report+2024.pdf");
+        assertThat(object.getSize()).isEqualTo(48213L);
+        assertThat(object.getETag()).isEqualTo("9b2cf535f27731c974343645a3985328");
+    }
+}
@@ -0,0 +1,175 @@
+package org.doc.document_service.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.doc.document_service.domain.IdempotencyKey;
+import org.doc.document_service.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Negative-lookup filter rebuilds and the recent-key cache against a mocked
+ * idempotency_keys table: which lookups still reach the database.
+ */
+class IdempotencyStoreTest {
+
+    private static final String OWNER = "owner-1";
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore();
+        ReflectionTestUtils.setField(store, "idempotencyKeyRepository", idempotencyKeyRepository);
+        ReflectionTestUtils.setField(store, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(store, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(store, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(store, "filterExpectedKeys", 1000L);
+        ReflectionTestUtils.setField(store, "filterFpp", 0.000001);
+        store.init();
+    }
+
+    @Test
+    void beforeFirstRebuildEveryLookupGoesToDatabase() {
+        store.find(OWNER, "k1");
+
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k1"));
+        assertThat(lookups("db_miss")).isEqualTo(1);
+        assertThat(lookups("filter_skip")).isZero();
+    }
+
+    @Test
+    void rebuildLetsUnknownKeysSkipDatabase() {
+        storedKeys(row(OWNER, "k1"));
+        store.rebuildFilter();
+
+        store.find(OWNER, "k2");
+        store.find("owner-2", "k1");
+        verify(idempotencyKeyRepository, never()).findByOwnerIdAndIdempotencyKeyIn(any(), anyCollection());
+        assertThat(lookups("filter_skip")).isEqualTo(2);
+
+        store.find(OWNER, "k1");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k1"));
+    }
+
+    @Test
+    void rebuildForgetsPurgedKeys() {
+        storedKeys(row(OWNER, "k1"));
+        store.rebuildFilter();
+        // k1 was purged, k2 issued since
+        storedKeys(row(OWNER, "k2"));
+        store.rebuildFilter();
+
+        store.find(OWNER, "k1");
+        verify(idempotencyKeyRepository, never()).findByOwnerIdAndIdempotencyKeyIn(any(), anyCollection());
+
+        store.find(OWNER, "k2");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k2"));
+    }
+
+    @Test
+    void keysSeenDuringRebuildSurviveTheSwap() {
+        // Another request stores a key while the rows are being streamed
+        when(idempotencyKeyRepository.streamAllKeys()).thenAnswer(inv -> Stream.of(row(OWNER, "k1"))
+                .peek(r -> store.markSeen(OWNER, List.of("k-new"))));
+        store.rebuildFilter();
+
+        store.find(OWNER, "k-new");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k-new"));
+    }
+
+    @Test
+    void failedRebuildKeepsPreviousFilter() {
+        storedKeys(row(OWNER, "k1"));
+        store.rebuildFilter();
+        when(idempotencyKeyRepository.streamAllKeys()).thenThrow(new IllegalStateException("connection lost"));
+        store.rebuildFilter();
+
+        store.find(OWNER, "k2");
+        verify(idempotencyKeyRepository, never()).findByOwnerIdAndIdempotencyKeyIn(any(), anyCollection());
+        store.find(OWNER, "k1");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k1"));
+
+        // The abandoned rebuild must not keep collecting keys: they still reach the live filter
+        store.markSeen(OWNER, List.of("k3"));
+        clearInvocations(idempotencyKeyRepository);
+        store.find(OWNER, "k3");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k3"));
+    }
+
+    @Test
+    void failedFirstRebuildKeepsUsingDatabase() {
+        when(idempotencyKeyRepository.streamAllKeys()).thenThrow(new IllegalStateException("connection lost"));
+        store.rebuildFilter();
+
+        store.find(OWNER, "k1");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(OWNER, List.of("k1"));
+    }
+
+    @Test
+    void rememberedKeyIsServedFromCache() {
+        IdempotencyKey key = key("k1", Instant.now().plus(Duration.ofHours(1)));
+        store.remember(key);
+
+        assertThat(store.find(OWNER, "k1")).hasValueSatisfying(found -> {
+            assertThat(found.getId()).isEqualTo(key.getId());
+            assertThat(found.getDocumentId()).isEqualTo(key.getDocumentId());
+        });
+        verify(idempotencyKeyRepository, never()).findByOwnerIdAndIdempotencyKeyIn(any(), anyCollection());
+        assertThat(lookups("cache_hit")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredKeyIsNotServedFromCache() {
+        store.remember(key("k1", Instant.now().minusSeconds(1)));
+
+        store.find(OWNER, "k1");
+        verify(idempotencyKeyRepository).findByOwnerIdAndIdempotencyKeyIn(eq(OWNER), eq(List.of("k1")));
+        assertThat(lookups("cache_hit")).isZero();
+    }
+
+    private void storedKeys(Object[]... rows) {
+        when(idempotencyKeyRepository.count()).thenReturn((long) rows.length);
+        when(idempotencyKeyRepository.streamAllKeys()).thenAnswer(inv -> Stream.of(rows));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("idempotency.lookups", "result", result).count();
+    }
+
+    private static Object[] row(String ownerId, String idempotencyKey) {
+        return new Object[] { ownerId, idempotencyKey };
+    }
+
+    private static IdempotencyKey key(String idempotencyKey, Instant expiresAt) {
+        IdempotencyKey key = new IdempotencyKey();
+        key.setId(UUID.randomUUID());
+        key.setOwnerId(OWNER);
+        key.setIdempotencyKey(idempotencyKey);
+        key.setDocumentId(UUID.randomUUID());
+        key.setCreatedAt(Instant.now());
+        key.setExpiresAt(expiresAt);
+        return key;
+    }
+}
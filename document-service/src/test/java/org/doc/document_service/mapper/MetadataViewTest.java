@@ -0,0 +1,103 @@
+package org.doc.document_service.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.doc.document_service.dto.DocumentMetadataResponse;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Metadata codec: Map round trips through JsonMapper, and MetadataView
+ * writing the stored JSON into responses unchanged.
+ */
+class MetadataViewTest {
+
+    // As MySQL returns a JSON column: normalized, with a space after ':' and ','
+    private static final String STORED = "{\"tags\": [\"q3\", \"finance\"], \"pages\": 12, \"category\": \"invoice\", "
+            + "\"summary\": \"Invoice \\\"ACME\\\" \\u00e9t\\u00e9 2024\", \"ocr\": {\"lang\": \"de\", \"score\": 0.97}, "
+            + "\"reviewed\": false, \"note\": null}";
+
+    private final JsonMapper jsonMapper = new JsonMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void mapRoundTrip() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("category", "invoice");
+        metadata.put("pages", 12);
+        metadata.put("score", 0.97);
+        metadata.put("tags", List.of("q3", "finance"));
+        metadata.put("ocr", Map.of("lang", "de"));
+        metadata.put("reviewed", false);
+        metadata.put("note", null);
+
+        assertThat(jsonMapper.fromJson(jsonMapper.toJson(metadata))).isEqualTo(metadata);
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertThat(jsonMapper.toJson(null)).isNull();
+        assertThat(jsonMapper.fromJson(null)).isNull();
+        assertThat(jsonMapper.view(null)).isNull();
+    }
+
+    @Test
+    void malformedJsonFailsOnRead() {
+        assertThatThrownBy(() -> jsonMapper.fromJson("{\"a\":")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void viewWritesStoredJsonVerbatim() throws Exception {
+        DocumentMetadataResponse response = new DocumentMetadataResponse();
+        response.setFilename("invoice.pdf");
+        response.setMetadata(jsonMapper.view(STORED));
+
+        String body = objectMapper.writeValueAsString(response);
+
+        assertThat(body).contains("\"metadata\":" + STORED);
+        // Same document as serializing the parsed Map
+        JsonNode viaMap = objectMapper.valueToTree(jsonMapper.fromJson(STORED));
+        assertThat(objectMapper.readTree(body).get("metadata")).isEqualTo(viaMap);
+    }
+
+    @Test
+    void viewParsesLazilyIntoReadOnlyMap() {
+        MetadataView view = jsonMapper.view(STORED);
+
+        assertThat(view.toJson()).isSameAs(STORED);
+        assertThat(view.get("category")).isEqualTo("invoice");
+        assertThat(view.get("pages")).isEqualTo(12);
+        assertThat(view.get("tags")).isEqualTo(List.of("q3", "finance"));
+        assertThat(view.get("summary")).isEqualTo("Invoice \"ACME\" été 2024");
+        assertThat(view.asMap()).containsKey("note").isSameAs(view.asMap());
+        assertThatThrownBy(() -> view.asMap().put("category", "other"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void viewOfMapRoundTrips() throws Exception {
+        Map<String, Object> metadata = Map.of("category", "contract", "pages", 3);
+
+        MetadataView view = MetadataView.of(metadata);
+
+        assertThat(view.asMap()).isEqualTo(metadata);
+        assertThat(jsonMapper.fromJson(view.toJson())).isEqualTo(metadata);
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsString(view), Map.class)).isEqualTo(metadata);
+    }
+
+    @Test
+    void emptyObject() throws Exception {
+        MetadataView view = jsonMapper.view("{}");
+
+        assertThat(view.asMap()).isEmpty();
+        assertThat(objectMapper.writeValueAsString(view)).isEqualTo("{}");
+    }
+}
@@ -0,0 +1,228 @@
+package org.doc.document_service.purge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.doc.document_service.domain.PurgeIntent;
+import org.doc.document_service.repository.PurgeIntentRepository;
+import org.doc.document_service.storage.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Batched purging against a mocked purge_intents table and object store:
+ * which rows are deleted, and how failed keys are kept for a later retry.
+ */
+class ObjectPurgeWorkerTest {
+
+    private static final long BASE_MS = 30_000;
+    private static final long MAX_MS = 3_600_000;
+
+    private final PurgeIntentRepository purgeIntentRepository = mock(PurgeIntentRepository.class);
+    private final StorageService storageService = mock(StorageService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ObjectPurgeWorker worker;
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        worker = new ObjectPurgeWorker(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(worker, "purgeIntentRepository", purgeIntentRepository);
+        ReflectionTestUtils.setField(worker, "storageService", storageService);
+        ReflectionTestUtils.setField(worker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(worker, "batchSize", 3);
+        ReflectionTestUtils.setField(worker, "maxBatches", 4);
+        ReflectionTestUtils.setField(worker, "backoffBaseMs", BASE_MS);
+        ReflectionTestUtils.setField(worker, "backoffMaxMs", MAX_MS);
+        worker.init();
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of());
+    }
+
+    @Test
+    void deletedObjectsLoseTheirRows() {
+        PurgeIntent a = intent("documents/a.pdf", 0);
+        PurgeIntent b = intent("documents/b.pdf", 0);
+        due(List.of(a, b));
+
+        worker.drain();
+
+        verify(storageService).deleteAll(Set.of("documents/a.pdf", "documents/b.pdf"));
+        verify(purgeIntentRepository).deleteAllByIdInBatch(List.of(a.getId(), b.getId()));
+        assertThat(purged("deleted")).isEqualTo(2);
+        assertThat(purged("failed")).isZero();
+    }
+
+    @Test
+    void failedKeyIsKeptWithBackoff() {
+        PurgeIntent a = intent("documents/a.pdf", 0);
+        PurgeIntent b = intent("documents/b.pdf", 0);
+        PurgeIntent c = intent("documents/c.pdf", 0);
+        due(List.of(a, b, c), List.of());
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of("documents/b.pdf", "AccessDenied"));
+        Instant before = Instant.now();
+
+        worker.drain();
+
+        verify(purgeIntentRepository).deleteAllByIdInBatch(List.of(a.getId(), c.getId()));
+        assertThat(b.getAttempts()).isEqualTo(1);
+        assertThat(b.getLastError()).isEqualTo("AccessDenied");
+        assertThat(b.getNextAttemptAt()).isBetween(before.plusMillis(BASE_MS), Instant.now().plusMillis(BASE_MS));
+        assertThat(a.getAttempts()).isZero();
+        assertThat(purged("deleted")).isEqualTo(2);
+        assertThat(purged("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void failedKeyIsRetriedOnceDue() {
+        PurgeIntent b = intent("documents/b.pdf", 0);
+        due(List.of(b));
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of("documents/b.pdf", "SlowDown"));
+        worker.drain();
+        verify(purgeIntentRepository, never()).deleteAllByIdInBatch(any());
+
+        // Due again: this time the delete goes through and the row goes
+        due(List.of(b));
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of());
+        worker.drain();
+
+        verify(purgeIntentRepository).deleteAllByIdInBatch(List.of(b.getId()));
+        assertThat(b.getAttempts()).isEqualTo(1);
+        assertThat(purged("deleted")).isEqualTo(1);
+        assertThat(purged("failed")).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableStoreBacksOffTheWholeBatch() {
+        PurgeIntent a = intent("documents/a.pdf", 0);
+        PurgeIntent b = intent("documents/b.pdf", 2);
+        due(List.of(a, b));
+        when(storageService.deleteAll(anyCollection())).thenThrow(new IllegalStateException("Connection refused"));
+        Instant before = Instant.now();
+
+        worker.drain();
+
+        verify(purgeIntentRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(a.getAttempts()).isEqualTo(1);
+        assertThat(a.getLastError()).isEqualTo("Connection refused");
+        assertThat(a.getNextAttemptAt()).isAfterOrEqualTo(before.plusMillis(BASE_MS));
+        assertThat(b.getAttempts()).isEqualTo(3);
+        assertThat(b.getNextAttemptAt()).isAfterOrEqualTo(before.plusMillis(BASE_MS * 4));
+        assertThat(purged("failed")).isEqualTo(2);
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheCap() {
+        assertThat(backoffAfterFailure(0)).isEqualTo(Duration.ofMillis(BASE_MS));
+        assertThat(backoffAfterFailure(1)).isEqualTo(Duration.ofMillis(BASE_MS * 2));
+        assertThat(backoffAfterFailure(3)).isEqualTo(Duration.ofMillis(BASE_MS * 8));
+        assertThat(backoffAfterFailure(7)).isEqualTo(Duration.ofMillis(MAX_MS));
+        // Shift overflow must not wrap around to a short delay
+        assertThat(backoffAfterFailure(70)).isEqualTo(Duration.ofMillis(MAX_MS));
+    }
+
+    @Test
+    void longErrorIsTruncated() {
+        PurgeIntent a = intent("documents/a.pdf", 0);
+        due(List.of(a));
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of("documents/a.pdf", "x".repeat(5000)));
+
+        worker.drain();
+
+        assertThat(a.getLastError()).hasSize(1024);
+    }
+
+    @Test
+    void objectQueuedTwiceIsDeletedOnce() {
+        PurgeIntent first = intent("documents/a.pdf", 0);
+        PurgeIntent second = intent("documents/a.pdf", 0);
+        due(List.of(first, second));
+
+        worker.drain();
+
+        verify(storageService).deleteAll(Set.of("documents/a.pdf"));
+        verify(purgeIntentRepository).deleteAllByIdInBatch(List.of(first.getId(), second.getId()));
+    }
+
+    @Test
+    void drainContinuesWhileBatchesAreFull() {
+        due(batch(3), batch(3), batch(1));
+
+        worker.drain();
+
+        verify(purgeIntentRepository, times(3)).lockDueBatch(any(), eq(3));
+        assertThat(purged("deleted")).isEqualTo(7);
+    }
+
+    @Test
+    void drainStopsAfterMaxBatches() {
+        when(purgeIntentRepository.lockDueBatch(any(), anyInt())).thenAnswer(inv -> batch(3));
+
+        worker.drain();
+
+        verify(purgeIntentRepository, times(4)).lockDueBatch(any(), anyInt());
+    }
+
+    private Duration backoffAfterFailure(int attempts) {
+        PurgeIntent intent = intent("documents/a.pdf", attempts);
+        due(List.of(intent));
+        when(storageService.deleteAll(anyCollection())).thenReturn(Map.of("documents/a.pdf", "InternalError"));
+        Instant before = Instant.now();
+
+        worker.drain();
+
+        Duration delay = Duration.between(before, intent.getNextAttemptAt());
+        // Round away the time the drain itself took
+        return Duration.ofSeconds(Math.round(delay.toMillis() / 1000.0));
+    }
+
+    @SafeVarargs
+    private void due(List<PurgeIntent>... batches) {
+        var stubbing = when(purgeIntentRepository.lockDueBatch(any(), anyInt()));
+        for (List<PurgeIntent> batch : batches) {
+            stubbing = stubbing.thenReturn(batch);
+        }
+        stubbing.thenReturn(List.of());
+    }
+
+    private List<PurgeIntent> batch(int size) {
+        List<PurgeIntent> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(intent("documents/" + nextId + ".pdf", 0));
+        }
+        return batch;
+    }
+
+    private PurgeIntent intent(String storageKey, int attempts) {
+        PurgeIntent intent = new PurgeIntent();
+        intent.setId(nextId++);
+        intent.setStorageKey(storageKey);
+        intent.setReason(PurgeQueue.REASON_DELETE);
+        intent.setAttempts(attempts);
+        intent.setNextAttemptAt(Instant.now());
+        return intent;
+    }
+
+    private double purged(String result) {
+        return meterRegistry.counter("storage.purge", "result", result).count();
+    }
+}
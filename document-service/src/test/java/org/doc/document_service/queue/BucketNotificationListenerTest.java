@@ -0,0 +1,115 @@
+package org.doc.document_service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.doc.document_service.service.DocumentService;
+import org.doc.document_service.storage.StorageShards;
+import org.doc.document_service.storage.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Feeds MinIO notifications through the bucketNotifications binding with the
+ * test binder standing in for RabbitMQ.
+ */
+@SpringBootTest(classes = BucketNotificationListenerTest.App.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.cloud.function.definition=bucketNotifications",
+                "spring.cloud.stream.default-binder=integration",
+                "spring.cloud.config.enabled=false",
+                "eureka.client.enabled=false"
+        })
+class BucketNotificationListenerTest {
+
+    private static final String DESTINATION = "minio-events";
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = DataSourceAutoConfiguration.class)
+    @Import({ TestChannelBinderConfiguration.class, BucketNotificationListener.class })
+    static class App {
+    }
+
+    @Autowired
+    private InputDestination input;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private DocumentService documentService;
+
+    @MockitoBean
+    private StorageShards storageShards;
+
+    @BeforeEach
+    void setUp() {
+        when(storageShards.isManagedBucket(anyString())).thenAnswer(inv -> "documents".equals(inv.getArgument(0)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void objectCreatedCompletesUploadByDecodedKey() throws Exception {
+        when(documentService.markUploaded(anyMap())).thenReturn(1);
+        double completedBefore = count("completed");
+
+        send("[" + fixture() + "]");
+
+        ArgumentCaptor<Map<String, StoredObject>> uploaded = ArgumentCaptor.forClass(Map.class);
+        verify(documentService).markUploaded(uploaded.capture());
+        assertThat(uploaded.getValue()).containsOnlyKeys(
+                "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/annual report 2024.pdf");
+        StoredObject object = uploaded.getValue().values().iterator().next();
+        assertThat(object.getSize()).isEqualTo(48213L);
+        assertThat(object.getEtag()).isEqualTo("9b2cf535f27731c974343645a3985328");
+        assertThat(count("completed") - completedBefore).isEqualTo(1.0);
+    }
+
+    @Test
+    void ignoresOtherEventsAndUnmanagedBuckets() throws Exception {
+        String removed = fixture().replace("s3:ObjectCreated:Put", "s3:ObjectRemoved:Delete");
+        String foreign = fixture().replace("\"name\": \"documents\"", "\"name\": \"backups\"");
+
+        send("[" + removed + "," + foreign + "]");
+
+        verify(documentService, never()).markUploaded(any());
+    }
+
+    private void send(String payload) {
+        input.send(MessageBuilder.withPayload(payload.getBytes(StandardCharsets.UTF_8))
+                .setHeader("contentType", "application/json")
+                .build(), DESTINATION);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("documents.bucket_notifications", "result", result).count();
+    }
+
+    private String fixture() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/minio/object-created-put.json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.doc.document_service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.doc.document_service.domain.OutboxEvent;
+import org.doc.document_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Drain loop of the outbox relay against a mocked table and broker. The
+ * table hands out batches until it is empty; the broker acks or not.
+ */
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 10;
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final StreamBridge streamBridge = mock(StreamBridge.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(relay, "outboxEventRepository", outboxEventRepository);
+        ReflectionTestUtils.setField(relay, "streamBridge", streamBridge);
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 50L);
+        ReflectionTestUtils.setField(relay, "claimMs", 30000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryBackoffMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxRetryBackoffMs", 5000L);
+        relay.init();
+    }
+
+    @Test
+    void brokerDownEndsDrainAfterOneBatch() {
+        // Always a full batch due: without the confirmed count the loop would never end
+        when(outboxEventRepository.lockNextBatch(any(), anyInt(), anyInt())).thenAnswer(inv -> batch(BATCH_SIZE, 0));
+        when(streamBridge.send(anyString(), any(Message.class))).thenReturn(false);
+
+        relay.drain();
+
+        verify(outboxEventRepository, times(1)).lockNextBatch(any(), eq(3), eq(BATCH_SIZE));
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxEventRepository, times(BATCH_SIZE)).recordFailure(anyLong(), anyString(), any());
+        assertThat(meterRegistry.counter("outbox.relay", "result", "failed").count()).isEqualTo(BATCH_SIZE);
+    }
+
+    @Test
+    void unconfirmedSendsAreBackedOff() {
+        when(outboxEventRepository.lockNextBatch(any(), anyInt(), anyInt())).thenReturn(batch(2, 1));
+        // Accepted but the confirm never arrives
+        when(streamBridge.send(anyString(), any(Message.class))).thenReturn(true);
+
+        Instant before = Instant.now();
+        assertThat(relay.relayBatch()).isZero();
+
+        ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+        verify(outboxEventRepository, times(2)).recordFailure(anyLong(), anyString(), next.capture());
+        // Second attempt failed: 2s
+        assertThat(next.getValue()).isAfterOrEqualTo(before.plusMillis(2000));
+        verify(outboxEventRepository).claim(anyCollection(), any());
+    }
+
+    @Test
+    void confirmedRowsAreDeletedAndDrainContinues() {
+        List<List<OutboxEvent>> batches = new ArrayList<>(List.of(batch(BATCH_SIZE, 0), batch(BATCH_SIZE, 0),
+                batch(3, 0)));
+        when(outboxEventRepository.lockNextBatch(any(), anyInt(), anyInt()))
+                .thenAnswer(inv -> batches.isEmpty() ? List.of() : batches.remove(0));
+        when(streamBridge.send(anyString(), any(Message.class))).thenAnswer(inv -> {
+            Message<?> message = inv.getArgument(1);
+            CorrelationData correlation = (CorrelationData) message.getHeaders()
+                    .get(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return true;
+        });
+
+        relay.drain();
+
+        verify(outboxEventRepository, times(3)).lockNextBatch(any(), anyInt(), anyInt());
+        verify(outboxEventRepository, times(3)).deleteAllByIdInBatch(any());
+        verify(outboxEventRepository, never()).recordFailure(anyLong(), any(), any());
+        assertThat(meterRegistry.counter("outbox.relay", "result", "published").count())
+                .isEqualTo(2 * BATCH_SIZE + 3);
+    }
+
+    @Test
+    void lastAttemptParksTheRow() {
+        when(outboxEventRepository.lockNextBatch(any(), anyInt(), anyInt())).thenReturn(batch(1, 2));
+        when(streamBridge.send(anyString(), any(Message.class))).thenThrow(new IllegalStateException("closed"));
+
+        relay.relayBatch();
+
+        verify(outboxEventRepository).recordFailure(anyLong(), eq("closed"), any());
+        assertThat(meterRegistry.counter("outbox.relay", "result", "parked").count()).isEqualTo(1);
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertThat(relay.backoffMs(1)).isEqualTo(1000);
+        assertThat(relay.backoffMs(2)).isEqualTo(2000);
+        assertThat(relay.backoffMs(3)).isEqualTo(4000);
+        assertThat(relay.backoffMs(4)).isEqualTo(5000);
+        assertThat(relay.backoffMs(60)).isEqualTo(5000);
+    }
+
+    private List<OutboxEvent> batch(int size, int attempts) {
+        List<OutboxEvent> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(ids.incrementAndGet());
+            event.setDestination("documentUploaded-out-0");
+            event.setPayload("{}");
+            event.setAttempts(attempts);
+            batch.add(event);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,98 @@
+package org.doc.document_service.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * The compare-and-set UPDATE behind upload completion, run against a real
+ * database (H2 in MySQL mode): only a row still in the expected status is
+ * changed, and the rows-affected count says whether this call won.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:transition;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DocumentRepositoryTransitionTest {
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void expectedStatusIsChanged() {
+        UUID id = persist(DocumentStatus.UPLOADING);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        assertThat(documentRepository.transitionStatus(id, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED, now))
+                .isEqualTo(1);
+
+        Document row = reload(id);
+        assertThat(row.getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+        assertThat(row.getUpdatedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void staleExpectedStatusUpdatesNothing() {
+        UUID id = persist(DocumentStatus.PROCESSING);
+        Instant updatedBefore = reload(id).getUpdatedAt();
+
+        assertThat(documentRepository.transitionStatus(id, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED,
+                Instant.now())).isZero();
+
+        Document row = reload(id);
+        assertThat(row.getStatus()).isEqualTo(DocumentStatus.PROCESSING);
+        assertThat(row.getUpdatedAt()).isEqualTo(updatedBefore);
+    }
+
+    @Test
+    void secondClaimLoses() {
+        UUID id = persist(DocumentStatus.UPLOADING);
+
+        assertThat(documentRepository.transitionStatus(id, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED,
+                Instant.now())).isEqualTo(1);
+        assertThat(documentRepository.transitionStatus(id, DocumentStatus.UPLOADING, DocumentStatus.UPLOADED,
+                Instant.now())).isZero();
+        assertThat(reload(id).getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+    }
+
+    @Test
+    void unknownDocumentUpdatesNothing() {
+        persist(DocumentStatus.UPLOADING);
+
+        assertThat(documentRepository.transitionStatus(UUID.randomUUID(), DocumentStatus.UPLOADING,
+                DocumentStatus.UPLOADED, Instant.now())).isZero();
+    }
+
+    private UUID persist(DocumentStatus status) {
+        Document doc = new Document();
+        doc.setOwnerId("owner-1");
+        doc.setFilename("a.pdf");
+        doc.setStorageKey("documents/a.pdf");
+        doc.setStatus(status);
+        doc.setRequestId("req");
+        UUID id = entityManager.persistAndFlush(doc).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    // The UPDATE bypasses the persistence context: read the row again
+    private Document reload(UUID id) {
+        entityManager.clear();
+        return documentRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,280 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.doc.document_service.domain.ContentBlob;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.purge.PurgeQueue;
+import org.doc.document_service.repository.ContentBlobRepository;
+import org.doc.document_service.repository.DocumentStorageView;
+import org.doc.document_service.storage.StoredObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+/**
+ * Deduplication and reference counting against a real content_blobs table
+ * (H2 in MySQL mode). Only the purge queue is mocked: it records which
+ * objects would be deleted.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:dedup;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ ContentDeduplicator.class, JsonMapper.class })
+class ContentDeduplicatorTest {
+
+    private static final String ETAG = "\"9B2CF535F27731C974343645A3985328\"";
+    private static final String HASH = "9b2cf535f27731c974343645a3985328:48213";
+
+    @Autowired
+    private ContentDeduplicator contentDeduplicator;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoSpyBean
+    private ContentBlobRepository contentBlobRepository;
+
+    @MockitoBean
+    private PurgeQueue purgeQueue;
+
+    @Test
+    void firstUploadKeepsItsOwnObject() {
+        Document doc = uploaded("documents/a.pdf");
+
+        assertThat(contentDeduplicator.deduplicate(doc, new StoredObject(48213L, ETAG))).isNull();
+
+        assertThat(doc.getContentHash()).isEqualTo(HASH);
+        assertThat(doc.getStorageKey()).isEqualTo("documents/a.pdf");
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+        assertThat(blob(HASH).getRefCount()).isEqualTo(1);
+        verify(purgeQueue, never()).enqueue(anyString(), anyString());
+    }
+
+    @Test
+    void sameEtagAndSizeSharesTheFirstObject() {
+        contentDeduplicator.deduplicate(uploaded("documents/a.pdf"), new StoredObject(48213L, ETAG));
+        Document second = uploaded("documents/b.pdf");
+
+        contentDeduplicator.deduplicate(second, new StoredObject(48213L, ETAG));
+
+        assertThat(second.getStorageKey()).isEqualTo("documents/a.pdf");
+        assertThat(blob(HASH).getRefCount()).isEqualTo(2);
+        verify(purgeQueue).enqueue("documents/b.pdf", PurgeQueue.REASON_DEDUPLICATE);
+    }
+
+    @Test
+    void sameEtagWithOtherSizeIsOtherContent() {
+        contentDeduplicator.deduplicate(uploaded("documents/a.pdf"), new StoredObject(48213L, ETAG));
+        Document other = uploaded("documents/b.pdf");
+
+        contentDeduplicator.deduplicate(other, new StoredObject(1024L, ETAG));
+
+        assertThat(other.getStorageKey()).isEqualTo("documents/b.pdf");
+        assertThat(blob(HASH).getRefCount()).isEqualTo(1);
+        verify(purgeQueue, never()).enqueue(anyString(), anyString());
+    }
+
+    @Test
+    void missingEtagIsNotTracked() {
+        Document doc = uploaded("documents/a.pdf");
+
+        assertThat(contentDeduplicator.deduplicate(doc, new StoredObject(48213L, " "))).isNull();
+
+        assertThat(doc.getContentHash()).isNull();
+        assertThat(contentBlobRepository.count()).isZero();
+    }
+
+    @Test
+    void analysisIsCopiedFromEarliestProcessedSource() {
+        Document earliest = processed(Instant.parse("2024-01-01T00:00:00Z"),
+                Map.of("summary", "first", "category", "invoice", "ai_processed", true, "title", "not copied"));
+        processed(Instant.parse("2024-06-01T00:00:00Z"), Map.of("summary", "second", "category", "receipt"));
+        Document doc = uploaded("documents/c.pdf");
+        doc.setMetadata(jsonMapper.toJson(Map.of("title", "mine")));
+
+        Document source = contentDeduplicator.deduplicate(doc, new StoredObject(48213L, ETAG));
+
+        assertThat(source.getId()).isEqualTo(earliest.getId());
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.PROCESSED);
+        assertThat(jsonMapper.fromJson(doc.getMetadata())).isEqualTo(Map.of(
+                "title", "mine", "summary", "first", "category", "invoice", "ai_processed", true));
+        assertThat(ContentDeduplicator.ANALYSIS_KEYS).doesNotContain("title");
+    }
+
+    @Test
+    void unprocessedDuplicateStillNeedsProcessing() {
+        Document pending = uploaded("documents/a.pdf");
+        pending.setContentHash(HASH);
+        pending.setStatus(DocumentStatus.PROCESSING);
+        entityManager.persistAndFlush(pending);
+        Document doc = uploaded("documents/b.pdf");
+
+        assertThat(contentDeduplicator.deduplicate(doc, new StoredObject(48213L, ETAG))).isNull();
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+    }
+
+    @Test
+    void releasePurgesOnlyWithTheLastReference() {
+        contentBlobRepository.acquire(HASH, "documents/a.pdf");
+        contentBlobRepository.acquire(HASH, "documents/b.pdf");
+
+        contentDeduplicator.release(stored("documents/a.pdf", HASH));
+        assertThat(blob(HASH).getRefCount()).isEqualTo(1);
+        verify(purgeQueue, never()).enqueue(anyString(), anyString());
+
+        contentDeduplicator.release(stored("documents/a.pdf", HASH));
+        assertThat(contentBlobRepository.existsById(HASH)).isFalse();
+        verify(purgeQueue).enqueue("documents/a.pdf", PurgeQueue.REASON_DELETE);
+    }
+
+    @Test
+    void releaseOfUnregisteredContent() {
+        // Uploaded before deduplication existed: nothing tracks it, the object is left alone
+        contentDeduplicator.release(stored("documents/old.pdf", HASH));
+        verify(purgeQueue, never()).enqueue(anyString(), anyString());
+
+        // Never completed: the object is its own
+        contentDeduplicator.release(stored("documents/pending.pdf", null));
+        verify(purgeQueue).enqueue("documents/pending.pdf", PurgeQueue.REASON_DELETE);
+    }
+
+    @Test
+    void releaseAllDropsOneUpdatePerDistinctCount() {
+        contentBlobRepository.save(new ContentBlob("x:1", "documents/x.pdf", 3));
+        contentBlobRepository.save(new ContentBlob("y:1", "documents/y.pdf", 2));
+        contentBlobRepository.save(new ContentBlob("z:1", "documents/z.pdf", 1));
+        entityManager.flush();
+        entityManager.clear();
+
+        contentDeduplicator.releaseAll(List.of(
+                stored("documents/x.pdf", "x:1"), stored("documents/x.pdf", "x:1"),
+                stored("documents/y.pdf", "y:1"), stored("documents/y.pdf", "y:1"),
+                stored("documents/z.pdf", "z:1"),
+                stored("documents/pending.pdf", null),
+                stored(null, null)));
+
+        // x and y lose two references each, z one: two UPDATEs, not five
+        verify(contentBlobRepository, times(2)).releaseAll(anyCollection(), anyInt());
+        verify(contentBlobRepository).releaseAll(argThat(hashes -> Set.copyOf(hashes).equals(Set.of("x:1", "y:1"))),
+                eq(2));
+        verify(contentBlobRepository).releaseAll(eq(List.of("z:1")), eq(1));
+
+        entityManager.clear();
+        assertThat(blob("x:1").getRefCount()).isEqualTo(1);
+        assertThat(contentBlobRepository.existsById("y:1")).isFalse();
+        assertThat(contentBlobRepository.existsById("z:1")).isFalse();
+        verify(purgeQueue).enqueueAll(argThat(keys -> Set.copyOf(keys)
+                .equals(Set.of("documents/pending.pdf", "documents/y.pdf", "documents/z.pdf"))),
+                eq(PurgeQueue.REASON_DELETE));
+    }
+
+    private Document uploaded(String storageKey) {
+        Document doc = new Document();
+        doc.setOwnerId("owner-1");
+        doc.setFilename("a.pdf");
+        doc.setStorageKey(storageKey);
+        doc.setStatus(DocumentStatus.UPLOADED);
+        doc.setRequestId("req");
+        return doc;
+    }
+
+    private Document processed(Instant createdAt, Map<String, Object> metadata) {
+        Document doc = uploaded("documents/a.pdf");
+        doc.setContentHash(HASH);
+        doc.setStatus(DocumentStatus.PROCESSED);
+        entityManager.persistAndFlush(doc);
+        // created_at is set on insert, back-date it
+        entityManager.getEntityManager()
+                .createQuery("update Document d set d.createdAt = :createdAt where d.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", doc.getId())
+                .executeUpdate();
+        // H2 would store a bound string as a JSON string value, not as the object it holds
+        entityManager.getEntityManager()
+                .createNativeQuery("update documents set metadata = ? format json where id = ?")
+                .setParameter(1, jsonMapper.toJson(metadata))
+                .setParameter(2, doc.getId().toString())
+                .executeUpdate();
+        entityManager.clear();
+        return doc;
+    }
+
+    private ContentBlob blob(String contentHash) {
+        entityManager.clear();
+        return contentBlobRepository.findById(contentHash).orElseThrow();
+    }
+
+    private static DocumentStorageView stored(String storageKey, String contentHash) {
+        return new DocumentStorageView() {
+            private final UUID id = UUID.randomUUID();
+
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public String getOwnerId() {
+                return "owner-1";
+            }
+
+            @Override
+            public DocumentStatus getStatus() {
+                return DocumentStatus.PROCESSED;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+
+            @Override
+            public String getStorageKey() {
+                return storageKey;
+            }
+
+            @Override
+            public String getContentHash() {
+                return contentHash;
+            }
+
+            @Override
+            public Long getSize() {
+                return 48213L;
+            }
+
+            @Override
+            public String getCategory() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,240 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentChangeItem;
+import org.doc.document_service.dto.DocumentChangesResponse;
+import org.doc.document_service.mapper.DocumentMapperImpl;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.DocumentChangeRepository;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.OutboxEventRepository;
+import org.doc.document_service.sse.DocumentEventHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The change feed against a real document_changes table (H2 in MySQL mode):
+ * entries are written by {@link DocumentChangePublisher} in the mutation's
+ * transaction and read back by {@link DocumentService#listChanges} in
+ * sequence order, resumable from the returned cursor. Tests commit their own
+ * transactions.
+ */
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:changes;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ DocumentChangePublisher.class, JsonMapper.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentChangeFeedTest {
+
+    // Tests share the tables: each one reads its own owner's feed
+    private final String owner = "owner-" + UUID.randomUUID();
+
+    @Autowired
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentChangeRepository documentChangeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private DocumentReadCache documentReadCache;
+
+    @MockitoBean
+    private DocumentEventHub documentEventHub;
+
+    private TransactionTemplate tx;
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+
+        DocumentArchive documentArchive = mock(DocumentArchive.class);
+        when(documentArchive.findAllById(anyCollection())).thenReturn(List.of());
+        documentService = new DocumentService();
+        ReflectionTestUtils.setField(documentService, "documentRepository", documentRepository);
+        ReflectionTestUtils.setField(documentService, "documentChangeRepository", documentChangeRepository);
+        ReflectionTestUtils.setField(documentService, "documentArchive", documentArchive);
+        ReflectionTestUtils.setField(documentService, "documentMapper", new DocumentMapperImpl());
+        // Everything written by the test has settled
+        ReflectionTestUtils.setField(documentService, "changesSettleMs", -60_000L);
+    }
+
+    @Test
+    void batchIsListedInInsertOrder() {
+        String cursor = head();
+        List<Document> docs = create("a.pdf", "b.pdf", "c.pdf");
+
+        DocumentChangesResponse resp = documentService.listChanges(owner, cursor, 10);
+
+        assertThat(ids(resp)).containsExactly(docs.get(0).getId(), docs.get(1).getId(), docs.get(2).getId());
+        assertThat(resp.isHasMore()).isFalse();
+    }
+
+    @Test
+    void documentMovesToItsLatestChange() {
+        String cursor = head();
+        List<Document> docs = create("a.pdf", "b.pdf");
+        update(docs.get(0), DocumentStatus.PROCESSED);
+
+        DocumentChangesResponse resp = documentService.listChanges(owner, cursor, 10);
+
+        assertThat(ids(resp)).containsExactly(docs.get(1).getId(), docs.get(0).getId());
+        assertThat(resp.getItems().get(1).getDocument().getStatus()).isEqualTo("PROCESSED");
+    }
+
+    @Test
+    void resumesFromTheReturnedCursor() {
+        String cursor = head();
+        List<Document> docs = create("a.pdf", "b.pdf", "c.pdf");
+
+        DocumentChangesResponse first = documentService.listChanges(owner, cursor, 2);
+        assertThat(ids(first)).containsExactly(docs.get(0).getId(), docs.get(1).getId());
+        assertThat(first.isHasMore()).isTrue();
+
+        DocumentChangesResponse second = documentService.listChanges(owner, first.getNextCursor(), 2);
+        assertThat(ids(second)).containsExactly(docs.get(2).getId());
+        assertThat(second.isHasMore()).isFalse();
+
+        // Caught up: nothing new, same cursor
+        DocumentChangesResponse idle = documentService.listChanges(owner, second.getNextCursor(), 2);
+        assertThat(idle.getItems()).isEmpty();
+        assertThat(idle.getNextCursor()).isEqualTo(second.getNextCursor());
+
+        // Only what changed since
+        update(docs.get(0), DocumentStatus.DELETED);
+        DocumentChangesResponse later = documentService.listChanges(owner, idle.getNextCursor(), 2);
+        assertThat(ids(later)).containsExactly(docs.get(0).getId());
+        assertThat(later.getItems().get(0).isDeleted()).isTrue();
+    }
+
+    @Test
+    void otherOwnersChangesAreNotListed() {
+        String cursor = head();
+        create("a.pdf");
+
+        assertThat(documentService.listChanges("owner-" + UUID.randomUUID(), cursor, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void missingCursorAsksForResyncFromHead() {
+        create("a.pdf", "b.pdf");
+
+        DocumentChangesResponse resp = documentService.listChanges(owner, null, 10);
+
+        assertThat(resp.isResyncRequired()).isTrue();
+        assertThat(resp.getItems()).isEmpty();
+        assertThat(documentService.listChanges(owner, resp.getNextCursor(), 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void changeIsWrittenWithTheMutation() {
+        String cursor = head();
+        Document doc = create("a.pdf").get(0);
+        long changes = documentChangeRepository.count();
+        long events = outboxEventRepository.count();
+
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> {
+            Document row = documentRepository.findById(doc.getId()).orElseThrow();
+            row.setStatus(DocumentStatus.FAILED);
+            documentChangePublisher.documentChanged(row);
+            throw new IllegalStateException("rolled back");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // Neither the change nor its status event survived the rollback
+        assertThat(documentChangeRepository.count()).isEqualTo(changes);
+        assertThat(outboxEventRepository.count()).isEqualTo(events);
+        assertThat(documentRepository.findById(doc.getId()).orElseThrow().getStatus())
+                .isEqualTo(DocumentStatus.UPLOADING);
+        verify(documentReadCache, never()).invalidateAll(anyCollection());
+
+        update(doc, DocumentStatus.FAILED);
+        assertThat(documentChangeRepository.count()).isEqualTo(changes + 1);
+        assertThat(outboxEventRepository.count()).isEqualTo(events + 1);
+        verify(documentReadCache).invalidateAll(List.of(doc.getId()));
+        assertThat(ids(documentService.listChanges(owner, cursor, 10))).containsExactly(doc.getId());
+    }
+
+    @Test
+    void changesRequireTheCallersTransaction() {
+        Document doc = create("a.pdf").get(0);
+        long changes = documentChangeRepository.count();
+
+        assertThatThrownBy(() -> documentChangePublisher.documentChanged(doc))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(documentChangeRepository.count()).isEqualTo(changes);
+    }
+
+    private List<Document> create(String... filenames) {
+        return tx.execute(status -> {
+            List<Document> docs = new ArrayList<>();
+            for (String filename : filenames) {
+                Document doc = new Document();
+                doc.setOwnerId(owner);
+                doc.setFilename(filename);
+                doc.setStorageKey("documents/" + filename);
+                doc.setStatus(DocumentStatus.UPLOADING);
+                doc.setRequestId("req");
+                docs.add(documentRepository.save(doc));
+            }
+            documentChangePublisher.documentsCreated(docs);
+            return docs;
+        });
+    }
+
+    private void update(Document doc, DocumentStatus newStatus) {
+        tx.executeWithoutResult(status -> {
+            Document row = documentRepository.findById(doc.getId()).orElseThrow();
+            row.setStatus(newStatus);
+            documentChangePublisher.documentChanged(row);
+        });
+    }
+
+    // Cursor of the newest change, as a client holds it after a resync
+    private String head() {
+        return documentService.listChanges(owner, null, 1).getNextCursor();
+    }
+
+    private static List<UUID> ids(DocumentChangesResponse resp) {
+        return resp.getItems().stream().map(DocumentChangeItem::getDocumentId).toList();
+    }
+}
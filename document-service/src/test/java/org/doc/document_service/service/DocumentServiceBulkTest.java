@@ -0,0 +1,224 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentBulkResponse;
+import org.doc.document_service.dto.DocumentBulkUpdateRequest;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.doc.document_service.repository.DocumentStorageView;
+import org.doc.document_service.usage.DocumentUsage;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/**
+ * Bulk delete and update: which ids are changed, skipped as not found or
+ * forbidden, and that each chunk of ids costs one lookup and one UPDATE.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentServiceBulkTest {
+
+    private static final String OWNER = "owner-1";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private ContentDeduplicator contentDeduplicator;
+
+    @Mock
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Mock
+    private UsageAccounting usageAccounting;
+
+    @Mock
+    private DocumentArchive documentArchive;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+        when(documentArchive.restore(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void deleteSkipsMissingAndForeignDocuments() {
+        DocumentStorageView own = storageView(OWNER, DocumentStatus.PROCESSED, "invoice");
+        DocumentStorageView gone = storageView(OWNER, DocumentStatus.DELETED, null);
+        DocumentStorageView foreign = storageView("owner-2", DocumentStatus.PROCESSED, null);
+        UUID missing = UUID.randomUUID();
+        when(documentRepository.lockStorageViewsByIdIn(anyCollection())).thenReturn(List.of(own, gone, foreign));
+
+        DocumentBulkResponse resp = documentService.bulkDelete(
+                List.of(own.getId(), gone.getId(), foreign.getId(), missing, own.getId()), OWNER);
+
+        // Already deleted counts as processed but isn't changed again
+        assertThat(resp.getProcessed()).isEqualTo(2);
+        assertThat(resp.getNotFound()).containsExactly(missing);
+        assertThat(resp.getForbidden()).containsExactly(foreign.getId());
+        verify(documentRepository).lockStorageViewsByIdIn(
+                List.of(own.getId(), gone.getId(), foreign.getId(), missing));
+        verify(contentDeduplicator).releaseAll(List.of(own));
+        verify(documentRepository).updateStatusByIdIn(eq(List.of(own.getId())), eq(DocumentStatus.DELETED),
+                any(Instant.class));
+        verify(usageAccounting).changed(OWNER, DocumentUsage.of(DocumentStatus.PROCESSED, 42L, "invoice"), null);
+        verify(auditWriter).recordAll(List.of(own.getId()), OWNER, "DELETE", Map.of("bulk", true));
+        verify(documentChangePublisher).documentViewsChanged(any());
+    }
+
+    @Test
+    void deleteWithNothingToChangeWritesNothing() {
+        UUID missing = UUID.randomUUID();
+
+        DocumentBulkResponse resp = documentService.bulkDelete(List.of(missing), OWNER);
+
+        assertThat(resp.getProcessed()).isZero();
+        assertThat(resp.getNotFound()).containsExactly(missing);
+        verify(documentRepository, never()).updateStatusByIdIn(any(), any(), any());
+        verify(contentDeduplicator, never()).releaseAll(any());
+        verify(documentChangePublisher, never()).documentViewsChanged(any());
+    }
+
+    @Test
+    void deleteLooksUpOneChunkAtATime() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        List<Collection<UUID>> lookups = new ArrayList<>();
+        when(documentRepository.lockStorageViewsByIdIn(anyCollection())).thenAnswer(inv -> {
+            lookups.add(new ArrayList<>(inv.<Collection<UUID>>getArgument(0)));
+            return List.of();
+        });
+
+        DocumentBulkResponse resp = documentService.bulkDelete(ids, OWNER);
+
+        assertThat(lookups).hasSize(2);
+        assertThat(lookups.get(0)).hasSize(1000);
+        assertThat(lookups.get(1)).hasSize(500);
+        assertThat(resp.getNotFound()).hasSize(1500);
+    }
+
+    @Test
+    void deleteRestoresArchivedDocuments() {
+        DocumentStorageView archived = storageView(OWNER, DocumentStatus.PROCESSED, null);
+        UUID id = archived.getId();
+        when(documentRepository.lockStorageViewsByIdIn(anyCollection())).thenReturn(List.of(), List.of(archived));
+        when(documentArchive.restore(any())).thenReturn(List.of(id));
+
+        DocumentBulkResponse resp = documentService.bulkDelete(List.of(id), OWNER);
+
+        assertThat(resp.getProcessed()).isEqualTo(1);
+        assertThat(resp.getNotFound()).isEmpty();
+        verify(documentRepository).updateStatusByIdIn(eq(List.of(id)), eq(DocumentStatus.DELETED),
+                any(Instant.class));
+    }
+
+    @Test
+    void updateNeedsVisibilityOrMetadata() {
+        DocumentBulkUpdateRequest request = new DocumentBulkUpdateRequest();
+        request.setDocumentIds(List.of(UUID.randomUUID()));
+
+        assertThatThrownBy(() -> documentService.bulkUpdate(request, OWNER))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(documentRepository, never()).findStatusViewsByIdIn(any());
+    }
+
+    @Test
+    void visibilityUpdateSkipsDeletedDocuments() {
+        DocumentStatusView own = statusView(OWNER, DocumentStatus.PROCESSED);
+        DocumentStatusView gone = statusView(OWNER, DocumentStatus.DELETED);
+        DocumentStatusView foreign = statusView("owner-2", DocumentStatus.PROCESSED);
+        when(documentRepository.findStatusViewsByIdIn(anyCollection())).thenReturn(List.of(own, gone, foreign));
+        DocumentBulkUpdateRequest request = new DocumentBulkUpdateRequest();
+        request.setDocumentIds(List.of(own.getId(), gone.getId(), foreign.getId()));
+        request.setVisibility("shared");
+
+        DocumentBulkResponse resp = documentService.bulkUpdate(request, OWNER);
+
+        assertThat(resp.getProcessed()).isEqualTo(1);
+        assertThat(resp.getNotFound()).containsExactly(gone.getId());
+        assertThat(resp.getForbidden()).containsExactly(foreign.getId());
+        // Status only: nothing to lock without a category change
+        verify(documentRepository, never()).lockStorageViewsByIdIn(any());
+        verify(documentRepository).updateVisibilityByIdIn(eq(List.of(own.getId())), eq("shared"),
+                any(Instant.class));
+        verify(documentRepository, never()).mergeMetadataByIdIn(any(), any(), any());
+        verify(usageAccounting, never()).changed(any(), any(), any());
+        verify(auditWriter).recordAll(List.of(own.getId()), OWNER, "BULK_UPDATE", Map.of("visibility", "shared"));
+    }
+
+    @Test
+    void categoryUpdateMovesTheCategoryCounts() {
+        DocumentStorageView own = storageView(OWNER, DocumentStatus.PROCESSED, "invoice");
+        when(documentRepository.lockStorageViewsByIdIn(anyCollection())).thenReturn(List.of(own));
+        DocumentBulkUpdateRequest request = new DocumentBulkUpdateRequest();
+        request.setDocumentIds(List.of(own.getId()));
+        request.setMetadata(Map.of("category", "contract"));
+
+        documentService.bulkUpdate(request, OWNER);
+
+        verify(documentRepository).mergeMetadataByIdIn(eq(List.of(own.getId())), eq("{}"), any(Instant.class));
+        verify(documentRepository, never()).updateVisibilityByIdIn(any(), any(), any());
+        verify(usageAccounting).changed(OWNER, new DocumentUsage(DocumentStatus.PROCESSED, 42L, "invoice"),
+                new DocumentUsage(DocumentStatus.PROCESSED, 42L, "contract"));
+        ArgumentCaptor<Map<String, Object>> details = ArgumentCaptor.captor();
+        verify(auditWriter).recordAll(eq(List.of(own.getId())), eq(OWNER), eq("BULK_UPDATE"), details.capture());
+        assertThat(details.getValue()).containsEntry("metadataKeys", List.of("category"));
+    }
+
+    private static DocumentStatusView statusView(String ownerId, DocumentStatus status) {
+        DocumentStatusView view = mock(DocumentStatusView.class);
+        when(view.getId()).thenReturn(UUID.randomUUID());
+        when(view.getOwnerId()).thenReturn(ownerId);
+        when(view.getStatus()).thenReturn(status);
+        return view;
+    }
+
+    private static DocumentStorageView storageView(String ownerId, DocumentStatus status, String category) {
+        DocumentStorageView view = mock(DocumentStorageView.class);
+        when(view.getId()).thenReturn(UUID.randomUUID());
+        when(view.getOwnerId()).thenReturn(ownerId);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getSize()).thenReturn(42L);
+        when(view.getCategory()).thenReturn(category);
+        return view;
+    }
+}
@@ -0,0 +1,193 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentCompleteRequest;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.queue.ProcessingPublisher;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.storage.StorageService;
+import org.doc.document_service.storage.StoredObject;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/**
+ * Concurrent /complete calls for one document. The repository stands in for
+ * MySQL's conditional UPDATE with a compare-and-set on the row's status, so
+ * exactly one call can claim UPLOADING -> UPLOADED; everything the claimant
+ * does (storage check, audit, processing job) must happen once.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentServiceCompleteUploadTest {
+
+    private static final int CALLERS = 32;
+    private static final String OWNER = "owner-1";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private DocumentMapper documentMapper;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @Mock
+    private ProcessingPublisher processingPublisher;
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private ContentDeduplicator contentDeduplicator;
+
+    @Mock
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Mock
+    private UsageAccounting usageAccounting;
+
+    @Mock
+    private DocumentArchive documentArchive;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    private final UUID documentId = UUID.randomUUID();
+    private final AtomicReference<DocumentStatus> rowStatus = new AtomicReference<>(DocumentStatus.UPLOADING);
+    private final AtomicInteger claims = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(documentRepository.transitionStatus(eq(documentId), any(), any(), any())).thenAnswer(inv -> {
+            boolean won = rowStatus.compareAndSet(inv.getArgument(1), inv.getArgument(2));
+            if (won) {
+                claims.incrementAndGet();
+            }
+            return won ? 1 : 0;
+        });
+        when(documentRepository.findById(documentId)).thenAnswer(inv -> Optional.of(row()));
+        when(documentRepository.save(any(Document.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(storageService.stat(anyString())).thenReturn(new StoredObject(42L, "etag"));
+    }
+
+    @RepeatedTest(20)
+    void parallelCompletesTransitionOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    return documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest());
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(claims.get()).isEqualTo(1);
+        assertThat(rowStatus.get()).isEqualTo(DocumentStatus.UPLOADED);
+        verify(storageService, times(1)).stat(anyString());
+        verify(processingPublisher, times(1)).publishProcessingJob(any(Document.class));
+        verify(auditWriter, times(1)).record(eq(documentId), eq(OWNER), eq("COMPLETE_UPLOAD"), anyMap());
+        verify(documentChangePublisher, times(1)).documentChanged(any(Document.class));
+    }
+
+    @Test
+    void completeAfterTransitionIsIdempotent() {
+        rowStatus.set(DocumentStatus.PROCESSING);
+
+        documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest());
+
+        assertThat(claims.get()).isZero();
+        verify(storageService, never()).stat(anyString());
+        verify(processingPublisher, never()).publishProcessingJob(any(Document.class));
+    }
+
+    @Test
+    void archivedUploadIsRestoredThenClaimed() {
+        // Not in documents until the archive moves it back
+        AtomicBoolean restored = new AtomicBoolean();
+        when(documentRepository.findById(documentId))
+                .thenAnswer(inv -> restored.get() ? Optional.of(row()) : Optional.empty());
+        when(documentRepository.transitionStatus(eq(documentId), any(), any(), any())).thenAnswer(inv -> {
+            if (!restored.get()) {
+                return 0;
+            }
+            boolean won = rowStatus.compareAndSet(inv.getArgument(1), inv.getArgument(2));
+            if (won) {
+                claims.incrementAndGet();
+            }
+            return won ? 1 : 0;
+        });
+        when(documentArchive.restore(List.of(documentId))).thenAnswer(inv -> {
+            restored.set(true);
+            return List.of(documentId);
+        });
+
+        documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest());
+
+        assertThat(claims.get()).isEqualTo(1);
+        assertThat(rowStatus.get()).isEqualTo(DocumentStatus.UPLOADED);
+        verify(storageService, times(1)).stat(anyString());
+        verify(processingPublisher, times(1)).publishProcessingJob(any(Document.class));
+    }
+
+    // What a fresh read of the row returns
+    private Document row() {
+        Document doc = new Document();
+        doc.setId(documentId);
+        doc.setOwnerId(OWNER);
+        doc.setFilename("a.pdf");
+        doc.setStorageKey("documents/" + documentId + "/a.pdf");
+        doc.setStatus(rowStatus.get());
+        doc.setRequestId("req");
+        doc.setCreatedAt(Instant.now());
+        return doc;
+    }
+}
@@ -0,0 +1,278 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.dto.DocumentCompleteRequest;
+import org.doc.document_service.dto.DocumentCreateRequest;
+import org.doc.document_service.dto.DocumentMultipartResponse;
+import org.doc.document_service.dto.DocumentPartUrl;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.purge.PurgeQueue;
+import org.doc.document_service.queue.ProcessingPublisher;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.storage.PresignedUrlResponse;
+import org.doc.document_service.storage.StorageLayout;
+import org.doc.document_service.storage.StorageService;
+import org.doc.document_service.storage.StoredObject;
+import org.doc.document_service.usage.DocumentUsage;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Multipart uploads: the intent (part layout, one URL per part, abort on
+ * rollback) and completion, where the assembled object must match the
+ * declared size because presigned part URLs don't bind Content-Length.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentServiceMultipartTest {
+
+    private static final String OWNER = "owner-1";
+    private static final long MIB = 1024L * 1024;
+    private static final long DECLARED_SIZE = 40 * MIB;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private StorageLayout storageLayout;
+
+    @Mock
+    private TenantResolver tenantResolver;
+
+    @Mock
+    private DocumentMapper documentMapper;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @Mock
+    private ProcessingPublisher processingPublisher;
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private ContentDeduplicator contentDeduplicator;
+
+    @Mock
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Mock
+    private UsageAccounting usageAccounting;
+
+    @Mock
+    private DocumentArchive documentArchive;
+
+    @Mock
+    private PurgeQueue purgeQueue;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    private final UUID documentId = UUID.randomUUID();
+    private final String storageKey = "documents/" + documentId + "/video.mp4";
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(documentService, "multipartPartSizeBytes", 16 * MIB);
+        ReflectionTestUtils.setField(documentService, "multipartMaxSizeBytes", 10 * 1024 * MIB);
+        ReflectionTestUtils.setField(documentService, "multipartPartUrlTtlSeconds", 3600L);
+        when(storageLayout.newKey(any(), any(), anyString())).thenReturn(storageKey);
+        when(storageService.createMultipartUpload(eq(storageKey), any())).thenReturn("upload-1");
+        when(storageService.generatePresignedPartUrl(eq(storageKey), eq("upload-1"), anyInt(), anyLong()))
+                .thenAnswer(inv -> new PresignedUrlResponse("http://minio/part/" + inv.getArgument(2),
+                        Instant.now().plusSeconds(3600), 3600L));
+        when(documentRepository.save(any(Document.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(documentRepository.transitionStatus(eq(documentId), eq(DocumentStatus.UPLOADING),
+                eq(DocumentStatus.UPLOADED), any())).thenReturn(1);
+        // The creates register an abort-on-rollback callback
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void createSplitsIntoPartsWithOneUrlEach() {
+        DocumentMultipartResponse resp = documentService.createMultipartUploadIntent(OWNER, request(DECLARED_SIZE),
+                "req", null);
+
+        assertThat(resp.getPartSize()).isEqualTo(16 * MIB);
+        assertThat(resp.getPartCount()).isEqualTo(3);
+        assertThat(resp.getParts()).extracting(DocumentPartUrl::getPartNumber).containsExactly(1, 2, 3);
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(documentRepository).save(saved.capture());
+        assertThat(saved.getValue().getUploadId()).isEqualTo("upload-1");
+        assertThat(saved.getValue().getSize()).isEqualTo(DECLARED_SIZE);
+        assertThat(saved.getValue().getStatus()).isEqualTo(DocumentStatus.UPLOADING);
+    }
+
+    @Test
+    void createGrowsPartSizeToStayWithinPartLimit() {
+        ReflectionTestUtils.setField(documentService, "multipartMaxSizeBytes", 1024 * 1024 * MIB);
+        long size = 200L * 1024 * MIB;
+
+        DocumentMultipartResponse resp = documentService.createMultipartUploadIntent(OWNER, request(size), "req",
+                null);
+
+        assertThat(resp.getPartCount()).isLessThanOrEqualTo(10_000);
+        assertThat(resp.getPartSize() % MIB).isZero();
+        assertThat(resp.getPartSize() * resp.getPartCount()).isGreaterThanOrEqualTo(size);
+    }
+
+    @Test
+    void createRejectsFilesOverTheLimit() {
+        assertThatThrownBy(() -> documentService.createMultipartUploadIntent(OWNER, request(11 * 1024 * MIB), "req",
+                null)).isInstanceOf(IllegalArgumentException.class);
+        verify(storageService, never()).createMultipartUpload(anyString(), any());
+    }
+
+    @Test
+    void createAbortsTheUploadOnRollback() {
+        documentService.createMultipartUploadIntent(OWNER, request(DECLARED_SIZE), "req", null);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(storageService).abortMultipartUpload(storageKey, "upload-1");
+    }
+
+    @Test
+    void completeAssemblesPartsOfTheDeclaredSize() {
+        Document doc = claimedRow();
+        when(storageService.completeMultipartUpload(storageKey, "upload-1", 3))
+                .thenReturn(new StoredObject(DECLARED_SIZE, "etag-3"));
+
+        documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest());
+
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.UPLOADED);
+        assertThat(doc.getUploadId()).isNull();
+        assertThat(doc.getSize()).isEqualTo(DECLARED_SIZE);
+        verify(processingPublisher).publishProcessingJob(doc);
+        verify(purgeQueue, never()).enqueue(anyString(), anyString());
+    }
+
+    @Test
+    void completeRejectsAssemblyLargerThanDeclared() {
+        Document doc = claimedRow();
+        long uploaded = DECLARED_SIZE + 5 * 1024 * MIB;
+        when(storageService.completeMultipartUpload(storageKey, "upload-1", 3))
+                .thenReturn(new StoredObject(uploaded, "etag-3"));
+
+        assertThatThrownBy(() -> documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest()))
+                .isInstanceOf(UploadRejectedException.class);
+
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.FAILED);
+        assertThat(doc.getUploadId()).isNull();
+        // Usage keeps the declared size, never the uploaded one
+        assertThat(doc.getSize()).isEqualTo(DECLARED_SIZE);
+        verify(purgeQueue).enqueue(storageKey, PurgeQueue.REASON_REJECTED);
+        verify(documentRepository).save(doc);
+        verify(auditWriter).record(eq(documentId), eq(OWNER), eq("REJECT_UPLOAD"), anyMap());
+        verify(usageAccounting).changed(OWNER, DocumentUsage.of(DocumentStatus.UPLOADING, DECLARED_SIZE, null),
+                DocumentUsage.of(DocumentStatus.FAILED, DECLARED_SIZE, null));
+        verify(documentChangePublisher).documentChanged(doc);
+        verify(processingPublisher, never()).publishProcessingJob(any(Document.class));
+        verify(contentDeduplicator, never()).deduplicate(any(), any());
+    }
+
+    @Test
+    void completeRejectsAssemblySmallerThanDeclared() {
+        Document doc = claimedRow();
+        when(storageService.completeMultipartUpload(storageKey, "upload-1", 3))
+                .thenReturn(new StoredObject(DECLARED_SIZE - 1, "etag-3"));
+
+        assertThatThrownBy(() -> documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest()))
+                .isInstanceOf(UploadRejectedException.class);
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.FAILED);
+        verify(purgeQueue).enqueue(storageKey, PurgeQueue.REASON_REJECTED);
+    }
+
+    @Test
+    void completeRejectsAssemblyOverTheLimit() {
+        // Declared within the limit at the time, limit lowered since
+        ReflectionTestUtils.setField(documentService, "multipartMaxSizeBytes", 32 * MIB);
+        Document doc = claimedRow();
+        when(storageService.completeMultipartUpload(storageKey, "upload-1", 3))
+                .thenReturn(new StoredObject(DECLARED_SIZE, "etag-3"));
+
+        assertThatThrownBy(() -> documentService.completeUpload(documentId, OWNER, new DocumentCompleteRequest()))
+                .isInstanceOf(UploadRejectedException.class);
+        assertThat(doc.getStatus()).isEqualTo(DocumentStatus.FAILED);
+    }
+
+    @Test
+    void rejectionCommitsTheFailedStatus() throws Exception {
+        Transactional tx = DocumentService.class
+                .getMethod("completeUpload", UUID.class, String.class, DocumentCompleteRequest.class)
+                .getAnnotation(Transactional.class);
+        assertThat(tx.noRollbackFor()).contains(UploadRejectedException.class);
+    }
+
+    // The row as read after this call claimed UPLOADING -> UPLOADED
+    private Document claimedRow() {
+        Document doc = new Document();
+        doc.setId(documentId);
+        doc.setOwnerId(OWNER);
+        doc.setFilename("video.mp4");
+        doc.setStorageKey(storageKey);
+        doc.setStatus(DocumentStatus.UPLOADED);
+        doc.setSize(DECLARED_SIZE);
+        doc.setUploadId("upload-1");
+        doc.setPartSize(16 * MIB);
+        doc.setPartCount(3);
+        doc.setRequestId("req");
+        doc.setCreatedAt(Instant.now());
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(doc));
+        return doc;
+    }
+
+    private static DocumentCreateRequest request(long size) {
+        DocumentCreateRequest request = new DocumentCreateRequest();
+        request.setFilename("video.mp4");
+        request.setMimeType("video/mp4");
+        request.setSize(size);
+        return request;
+    }
+}
@@ -0,0 +1,238 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
+import org.doc.document_service.domain.Document;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.domain.IdempotencyKey;
+import org.doc.document_service.dto.DocumentBatchCreateItem;
+import org.doc.document_service.dto.DocumentBatchCreateResponse;
+import org.doc.document_service.dto.DocumentCreateRequest;
+import org.doc.document_service.dto.DocumentCreateResponse;
+import org.doc.document_service.dto.DocumentMultipartResponse;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.queue.ProcessingPublisher;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.IdempotencyKeyRepository;
+import org.doc.document_service.storage.PresignedUrlResponse;
+import org.doc.document_service.storage.StorageLayout;
+import org.doc.document_service.storage.StorageService;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Idempotency-Key replays of create requests: upload URLs are handed out
+ * again only while the document is still waiting for its upload, never for
+ * a completed one whose key may be a shared (deduplicated) object.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentServiceReplayTest {
+
+    private static final String OWNER = "owner-1";
+    private static final String SHARED_KEY = "documents/0190f1c2-0000-7000-8000-000000000001/first.pdf";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private StorageLayout storageLayout;
+
+    @Mock
+    private TenantResolver tenantResolver;
+
+    @Mock
+    private DocumentMapper documentMapper;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @Mock
+    private ProcessingPublisher processingPublisher;
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private ContentDeduplicator contentDeduplicator;
+
+    @Mock
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Mock
+    private UsageAccounting usageAccounting;
+
+    @Mock
+    private DocumentArchive documentArchive;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(documentService, "documentTaskExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(documentService, "multipartPartUrlTtlSeconds", 3600L);
+        when(documentMapper.toCreateResponse(any(Document.class))).thenAnswer(inv -> {
+            Document doc = inv.getArgument(0);
+            DocumentCreateResponse resp = new DocumentCreateResponse();
+            resp.setDocumentId(doc.getId());
+            resp.setStatus(doc.getStatus().name());
+            return resp;
+        });
+        when(storageService.generatePresignedPutUrl(anyString(), anyLong()))
+                .thenAnswer(inv -> new PresignedUrlResponse("http://minio/put/" + inv.getArgument(0),
+                        Instant.now().plusSeconds(900), 900L));
+        when(storageService.generatePresignedPartUrl(anyString(), anyString(), any(Integer.class), anyLong()))
+                .thenAnswer(inv -> new PresignedUrlResponse("http://minio/part/" + inv.getArgument(2),
+                        Instant.now().plusSeconds(3600), 3600L));
+        when(storageLayout.newKey(any(), any(), anyString()))
+                .thenAnswer(inv -> "documents/" + inv.getArgument(1) + "/" + inv.getArgument(2));
+    }
+
+    @Test
+    void replayWhileUploadingGetsFreshPutUrl() {
+        Document doc = replayed("k1", DocumentStatus.UPLOADING, null, "documents/own/a.pdf");
+
+        DocumentCreateResponse resp = documentService.createUploadIntent(OWNER, request(), "req", "k1");
+
+        assertThat(resp.getDocumentId()).isEqualTo(doc.getId());
+        assertThat(resp.getPresignedUrl()).isEqualTo("http://minio/put/documents/own/a.pdf");
+    }
+
+    @Test
+    void replayOfDeduplicatedDocumentGetsNoPutUrl() {
+        Document doc = replayed("k1", DocumentStatus.PROCESSED, "9b2cf535f27731c974343645a3985328:48213",
+                SHARED_KEY);
+
+        DocumentCreateResponse resp = documentService.createUploadIntent(OWNER, request(), "req", "k1");
+
+        assertThat(resp.getDocumentId()).isEqualTo(doc.getId());
+        assertThat(resp.getStatus()).isEqualTo("PROCESSED");
+        assertThat(resp.getPresignedUrl()).isNull();
+        verify(storageService, never()).generatePresignedPutUrl(anyString(), anyLong());
+    }
+
+    @Test
+    void replayOfCompletedUploadGetsNoPutUrl() {
+        replayed("k1", DocumentStatus.UPLOADED, null, "documents/own/a.pdf");
+
+        DocumentCreateResponse resp = documentService.createUploadIntent(OWNER, request(), "req", "k1");
+
+        assertThat(resp.getPresignedUrl()).isNull();
+        verify(storageService, never()).generatePresignedPutUrl(anyString(), anyLong());
+    }
+
+    @Test
+    void batchReplayPresignsOnlyPendingUploads() {
+        Document done = document(DocumentStatus.PROCESSED, "9b2cf535f27731c974343645a3985328:48213", SHARED_KEY);
+        when(idempotencyStore.findAll(eq(OWNER), anyCollection()))
+                .thenReturn(Map.of("k1", liveKey("k1", done.getId())));
+        when(documentRepository.findAllById(any())).thenReturn(List.of(done));
+
+        DocumentBatchCreateResponse resp = documentService.createUploadIntents(OWNER,
+                List.of(item("k1"), item("k2")), "req");
+
+        assertThat(resp.getItems()).hasSize(2);
+        assertThat(resp.getItems().get(0).getDocumentId()).isEqualTo(done.getId());
+        assertThat(resp.getItems().get(0).getPresignedUrl()).isNull();
+        assertThat(resp.getItems().get(1).getPresignedUrl()).startsWith("http://minio/put/documents/");
+        verify(storageService, never()).generatePresignedPutUrl(eq(SHARED_KEY), anyLong());
+    }
+
+    @Test
+    void multipartReplayOfCompletedUploadGetsNoPartUrls() {
+        Document doc = replayed("k1", DocumentStatus.PROCESSED, "9b2cf535f27731c974343645a3985328:48213",
+                SHARED_KEY);
+        // A replayed row still carrying upload state must not matter once completed
+        doc.setUploadId("upload-1");
+        doc.setPartCount(3);
+
+        DocumentMultipartResponse resp = documentService.createMultipartUploadIntent(OWNER, request(), "req", "k1");
+
+        assertThat(resp.getParts()).isEmpty();
+        verify(storageService, never()).generatePresignedPartUrl(anyString(), anyString(), any(Integer.class),
+                anyLong());
+    }
+
+    private Document replayed(String key, DocumentStatus status, String contentHash, String storageKey) {
+        Document doc = document(status, contentHash, storageKey);
+        when(idempotencyStore.find(OWNER, key)).thenReturn(Optional.of(liveKey(key, doc.getId())));
+        when(documentRepository.findById(doc.getId())).thenReturn(Optional.of(doc));
+        return doc;
+    }
+
+    private static Document document(DocumentStatus status, String contentHash, String storageKey) {
+        Document doc = new Document();
+        doc.setId(UUID.randomUUID());
+        doc.setOwnerId(OWNER);
+        doc.setFilename("a.pdf");
+        doc.setStorageKey(storageKey);
+        doc.setStatus(status);
+        doc.setContentHash(contentHash);
+        doc.setRequestId("req");
+        return doc;
+    }
+
+    private static IdempotencyKey liveKey(String key, UUID documentId) {
+        IdempotencyKey stored = new IdempotencyKey();
+        stored.setId(UUID.randomUUID());
+        stored.setOwnerId(OWNER);
+        stored.setIdempotencyKey(key);
+        stored.setDocumentId(documentId);
+        stored.setExpiresAt(Instant.now().plusSeconds(3600));
+        return stored;
+    }
+
+    private static DocumentCreateRequest request() {
+        DocumentCreateRequest request = new DocumentCreateRequest();
+        request.setFilename("a.pdf");
+        request.setMimeType("application/pdf");
+        request.setSize(48213L);
+        return request;
+    }
+
+    private static DocumentBatchCreateItem item(String key) {
+        DocumentBatchCreateItem item = new DocumentBatchCreateItem();
+        item.setFilename(key + ".pdf");
+        item.setMimeType("application/pdf");
+        item.setSize(1024L);
+        item.setIdempotencyKey(key);
+        return item;
+    }
+}
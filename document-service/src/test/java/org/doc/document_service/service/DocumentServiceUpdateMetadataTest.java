@@ -0,0 +1,165 @@
+package org.doc.document_service.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.doc.document_service.archive.DocumentArchive;
+import org.doc.document_service.audit.AuditWriter;
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.mapper.DocumentMapper;
+import org.doc.document_service.mapper.JsonMapper;
+import org.doc.document_service.queue.ProcessingPublisher;
+import org.doc.document_service.repository.DocumentRepository;
+import org.doc.document_service.repository.DocumentStatusView;
+import org.doc.document_service.repository.DocumentStorageView;
+import org.doc.document_service.storage.StorageService;
+import org.doc.document_service.usage.DocumentUsage;
+import org.doc.document_service.usage.UsageAccounting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/**
+ * AI metadata merge: one locked read and the merge, nothing read back. The
+ * category (JSON_VALUE) is only read when the patch sets it.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentServiceUpdateMetadataTest {
+
+    private static final String OWNER = "owner-1";
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private DocumentMapper documentMapper;
+
+    @Mock
+    private JsonMapper jsonMapper;
+
+    @Mock
+    private ProcessingPublisher processingPublisher;
+
+    @Mock
+    private AuditWriter auditWriter;
+
+    @Mock
+    private ContentDeduplicator contentDeduplicator;
+
+    @Mock
+    private DocumentChangePublisher documentChangePublisher;
+
+    @Mock
+    private UsageAccounting usageAccounting;
+
+    @Mock
+    private DocumentArchive documentArchive;
+
+    @InjectMocks
+    private DocumentService documentService;
+
+    private final UUID documentId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(jsonMapper.toJson(any())).thenReturn("{}");
+        when(documentArchive.restore(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void patchWithoutCategoryLocksStatusOnly() {
+        DocumentStatusView before = statusView(DocumentStatus.PROCESSING);
+        when(documentRepository.lockStatusViewById(documentId)).thenReturn(Optional.of(before));
+
+        documentService.updateMetadata(documentId, Map.of("summary", "text"));
+
+        verify(documentRepository, never()).lockStorageViewById(any());
+        verify(documentRepository, never()).findStatusViewById(any());
+        verify(documentRepository).mergeMetadata(eq(documentId), anyString(), any(), eq(DocumentStatus.PROCESSED),
+                any());
+        verify(usageAccounting).changed(OWNER, DocumentUsage.of(DocumentStatus.PROCESSING, null, null),
+                DocumentUsage.of(DocumentStatus.PROCESSED, null, null));
+        verify(documentChangePublisher).metadataChanged(eq(documentId), eq(OWNER), eq(DocumentStatus.PROCESSED),
+                any(Instant.class), eq(Map.of("summary", "text")));
+    }
+
+    @Test
+    void patchWithCategoryMovesTheCategoryCount() {
+        DocumentStorageView before = mock(DocumentStorageView.class);
+        when(before.getId()).thenReturn(documentId);
+        when(before.getOwnerId()).thenReturn(OWNER);
+        when(before.getStatus()).thenReturn(DocumentStatus.PROCESSED);
+        when(before.getSize()).thenReturn(42L);
+        when(before.getCategory()).thenReturn("invoice");
+        when(documentRepository.lockStorageViewById(documentId)).thenReturn(Optional.of(before));
+
+        documentService.updateMetadata(documentId, Map.of("category", "contract"));
+
+        verify(documentRepository, never()).lockStatusViewById(any());
+        verify(documentRepository, never()).findStatusViewById(any());
+        verify(usageAccounting).changed(OWNER, new DocumentUsage(DocumentStatus.PROCESSED, 42L, "invoice"),
+                new DocumentUsage(DocumentStatus.PROCESSED, 42L, "contract"));
+        verify(documentChangePublisher).metadataChanged(eq(documentId), eq(OWNER), eq(DocumentStatus.PROCESSED),
+                any(Instant.class), any());
+    }
+
+    @Test
+    void statusOutsideProcessedFromIsKept() {
+        DocumentStatusView before = statusView(DocumentStatus.QUARANTINE);
+        when(documentRepository.lockStatusViewById(documentId)).thenReturn(Optional.of(before));
+
+        documentService.updateMetadata(documentId, Map.of("summary", "text"));
+
+        verify(documentChangePublisher).metadataChanged(eq(documentId), eq(OWNER), eq(DocumentStatus.QUARANTINE),
+                any(Instant.class), any());
+    }
+
+    @Test
+    void archivedDocumentIsRestoredFirst() {
+        DocumentStatusView before = statusView(DocumentStatus.PROCESSED);
+        when(documentRepository.lockStatusViewById(documentId)).thenReturn(Optional.empty(), Optional.of(before));
+        when(documentArchive.restore(List.of(documentId))).thenReturn(List.of(documentId));
+
+        documentService.updateMetadata(documentId, Map.of("summary", "text"));
+
+        verify(documentRepository).mergeMetadata(eq(documentId), anyString(), any(), any(), any());
+    }
+
+    @Test
+    void unknownDocumentIsRejected() {
+        when(documentRepository.lockStatusViewById(documentId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> documentService.updateMetadata(documentId, Map.of("summary", "text")))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(documentRepository, never()).mergeMetadata(any(), any(), any(), any(), any());
+    }
+
+    private DocumentStatusView statusView(DocumentStatus status) {
+        DocumentStatusView view = mock(DocumentStatusView.class);
+        when(view.getId()).thenReturn(documentId);
+        when(view.getOwnerId()).thenReturn(OWNER);
+        when(view.getStatus()).thenReturn(status);
+        return view;
+    }
+}
@@ -0,0 +1,180 @@
+package org.doc.document_service.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import org.doc.document_service.controller.DocumentController;
+import org.doc.document_service.dto.DocumentEventResponse;
+import org.doc.document_service.event.DocumentStatusEvent;
+import org.doc.document_service.idempotency.IdempotencyStore;
+import org.doc.document_service.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * SSE streams through the controller with the real hub: what each
+ * subscriber receives, when a stream ends, and that ended streams are
+ * unregistered. Events are dispatched on the calling thread.
+ */
+class DocumentEventHubTest {
+
+    private static final String OWNER = "alice";
+
+    private final DocumentService documentService = mock(DocumentService.class);
+    private final Executor sseDispatchExecutor = mock(Executor.class);
+    private final UsernamePasswordAuthenticationToken caller = UsernamePasswordAuthenticationToken
+            .authenticated(OWNER, null, List.of());
+
+    private DocumentEventHub hub;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hub = new DocumentEventHub();
+        ReflectionTestUtils.setField(hub, "sseDispatchExecutor", sseDispatchExecutor);
+        ReflectionTestUtils.setField(hub, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(hub, "timeoutMs", 60_000L);
+        hub.init();
+        doAnswer(inv -> {
+            inv.<Runnable>getArgument(0).run();
+            return null;
+        }).when(sseDispatchExecutor).execute(any());
+
+        DocumentController documentController = new DocumentController();
+        ReflectionTestUtils.setField(documentController, "documentService", documentService);
+        ReflectionTestUtils.setField(documentController, "idempotencyStore", mock(IdempotencyStore.class));
+        ReflectionTestUtils.setField(documentController, "documentEventHub", hub);
+        ReflectionTestUtils.setField(documentController, "inFlightSnapshotLimit", 500);
+        mockMvc = MockMvcBuilders.standaloneSetup(documentController).build();
+    }
+
+    @Test
+    void documentStreamStartsWithCurrentStateAndEndsAfterTerminalStatus() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(documentService.getStatusEvent(id, OWNER)).thenReturn(state(id, "PROCESSING"));
+
+        MvcResult result = subscribe("/documents/{id}/events", id);
+        assertThat(hub.getConnectionCount()).isEqualTo(1);
+
+        hub.publish(event(id, OWNER, "PROCESSED"));
+
+        assertThat(statuses(result.getResponse())).containsExactly("PROCESSING", "PROCESSED");
+        assertThat(result.getResponse().getContentAsString()).contains("id:" + id + "@");
+        mockMvc.perform(asyncDispatch(result));
+        assertThat(hub.getConnectionCount()).isZero();
+    }
+
+    @Test
+    void terminalDocumentGetsOneEvent() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(documentService.getStatusEvent(id, OWNER)).thenReturn(state(id, "FAILED"));
+
+        MvcResult result = subscribe("/documents/{id}/events", id);
+
+        assertThat(statuses(result.getResponse())).containsExactly("FAILED");
+        // Ended before the response was set up: nothing left registered
+        assertThat(hub.getConnectionCount()).isZero();
+        hub.publish(event(id, OWNER, "DELETED"));
+        verify(sseDispatchExecutor, never()).execute(any());
+    }
+
+    @Test
+    void documentStreamIgnoresOtherDocuments() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(documentService.getStatusEvent(id, OWNER)).thenReturn(state(id, "UPLOADING"));
+        MvcResult result = subscribe("/documents/{id}/events", id);
+
+        hub.publish(event(UUID.randomUUID(), OWNER, "PROCESSED"));
+        hub.publish(event(id, OWNER, "PROCESSING"));
+
+        assertThat(statuses(result.getResponse())).containsExactly("UPLOADING", "PROCESSING");
+        assertThat(hub.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ownerStreamGetsSnapshotThenEveryOwnDocument() throws Exception {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        when(documentService.listInFlightEvents(OWNER, 500)).thenReturn(List.of(state(a, "UPLOADING")));
+        MvcResult result = subscribe("/documents/events");
+
+        hub.publish(event(a, OWNER, "PROCESSED"));
+        hub.publish(event(b, "bob", "PROCESSED"));
+        hub.publish(event(b, OWNER, "UPLOADED"));
+
+        assertThat(statuses(result.getResponse())).containsExactly("UPLOADING", "PROCESSED", "UPLOADED");
+        // Owner streams outlive terminal statuses
+        assertThat(hub.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedStateLookupOpensNoStream() {
+        UUID id = UUID.randomUUID();
+
+        assertThatThrownBy(() -> hub.subscribeDocument(id, () -> {
+            throw new SecurityException("Not allowed");
+        })).isInstanceOf(SecurityException.class);
+        assertThatThrownBy(() -> hub.subscribeOwner(OWNER, () -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(hub.getConnectionCount()).isZero();
+        hub.publish(event(id, OWNER, "PROCESSED"));
+        verify(sseDispatchExecutor, never()).execute(any());
+    }
+
+    @Test
+    void eventWithoutSubscribersIsNotDispatched() {
+        hub.publish(event(UUID.randomUUID(), OWNER, "PROCESSED"));
+
+        verify(sseDispatchExecutor, never()).execute(any());
+    }
+
+    private MvcResult subscribe(String path, Object... vars) throws Exception {
+        return mockMvc.perform(get(path, vars).principal(caller))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    // Status of each event written so far, in order
+    private static List<String> statuses(MockHttpServletResponse response) throws Exception {
+        return response.getContentAsString().lines()
+                .filter(line -> line.startsWith("data:"))
+                .map(line -> line.replaceAll(".*\"status\":\"([A-Z]+)\".*", "$1"))
+                .toList();
+    }
+
+    private static DocumentEventResponse state(UUID documentId, String status) {
+        DocumentEventResponse resp = new DocumentEventResponse();
+        resp.setDocumentId(documentId);
+        resp.setStatus(status);
+        resp.setLastUpdated(Instant.now());
+        return resp;
+    }
+
+    private static DocumentStatusEvent event(UUID documentId, String ownerId, String status) {
+        return new DocumentStatusEvent(documentId, ownerId, status, Instant.now(), null, "instance-1");
+    }
+}
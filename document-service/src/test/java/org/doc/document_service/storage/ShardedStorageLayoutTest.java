@@ -0,0 +1,110 @@
+package org.doc.document_service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.doc.document_service.storage.StorageShardsTest.shard;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.doc.document_service.util.UuidV7;
+import org.junit.jupiter.api.Test;
+
+/**
+ * New keys: the shard they name is the one {@link StorageShards} resolves
+ * them to, and consecutive (time-ordered) ids still spread over shards and
+ * hashed prefixes.
+ */
+class ShardedStorageLayoutTest {
+
+    private final StorageShard defaultShard = shard(null, "http://minio:9000", "documents");
+    private final List<StorageShard> configured = List.of(
+            shard("s0", "http://minio:9000", "documents"),
+            shard("s1", "http://minio-b:9000", "documents-b"),
+            shard("s2", "http://minio-c:9000", "documents-c"));
+    private final StorageShards shards = new StorageShards(defaultShard, configured);
+
+    @Test
+    void keyHasShardPrefixTenantIdAndName() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of(), 256);
+        UUID id = UUID.fromString("0190f1c2-0000-7000-8000-000000000001");
+
+        String[] parts = layout.newKey("acme corp", id, "report 1.pdf").split("/");
+
+        assertThat(parts).hasSize(5);
+        assertThat(parts[0]).isIn("s0", "s1", "s2");
+        assertThat(parts[1]).matches("[0-9a-f]{2}");
+        assertThat(parts[2]).isEqualTo("acme+corp");
+        assertThat(parts[3]).isEqualTo(id.toString());
+        assertThat(parts[4]).isEqualTo("report+1.pdf");
+        assertThat(layout.newKey(null, id, "a.pdf")).contains("/global/");
+    }
+
+    @Test
+    void sameDocumentAlwaysGetsSameKey() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of(), 256);
+        UUID id = UuidV7.next();
+
+        assertThat(layout.newKey("acme", id, "a.pdf")).isEqualTo(layout.newKey("acme", id, "a.pdf"));
+    }
+
+    @Test
+    void newKeysResolveToTheShardTheyName() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of(), 256);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = layout.newKey("acme", UuidV7.next(), "a.pdf");
+            StorageShard shard = shards.resolve(key);
+            assertThat(shard).isNotSameAs(defaultShard);
+            assertThat(key).startsWith(shard.getKeyRoot());
+        }
+    }
+
+    @Test
+    void consecutiveIdsSpreadOverShardsAndPrefixes() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of(), 16);
+        Map<String, Integer> perShard = new HashMap<>();
+        Set<String> prefixes = new HashSet<>();
+
+        for (int i = 0; i < 3000; i++) {
+            String[] parts = layout.newKey("acme", UuidV7.next(), "a.pdf").split("/");
+            perShard.merge(parts[0], 1, Integer::sum);
+            prefixes.add(parts[1]);
+        }
+
+        assertThat(perShard).containsOnlyKeys("s0", "s1", "s2");
+        assertThat(perShard.values()).allSatisfy(count -> assertThat(count).isBetween(800, 1200));
+        assertThat(prefixes).hasSize(16);
+    }
+
+    @Test
+    void pinnedTenantStaysOnItsShard() {
+        StorageShard pinned = configured.get(2);
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of("acme", pinned), 256);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(shards.resolve(layout.newKey("acme", UuidV7.next(), "a.pdf"))).isSameAs(pinned);
+        }
+    }
+
+    @Test
+    void largePrefixCountUsesFourHexDigits() {
+        ShardedStorageLayout layout = new ShardedStorageLayout(configured, Map.of(), 4096);
+
+        assertThat(layout.newKey("acme", UuidV7.next(), "a.pdf").split("/")[1]).matches("[0-9a-f]{4}");
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new ShardedStorageLayout(List.of(), Map.of(), 256))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ShardedStorageLayout(configured, Map.of(), 0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new ShardedStorageLayout(configured, Map.of(), 65537))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,125 @@
+package org.doc.document_service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+
+/**
+ * The in-process presigner must produce the URL MinioClient would, for the
+ * same credentials, object and time. MinioClient signs with the current
+ * time, so its X-Amz-Date is fed back into the presigner.
+ */
+class SigV4PresignerTest {
+
+    private static final String ENDPOINT = "http://localhost:9000";
+    private static final String ACCESS_KEY = "minioadmin";
+    private static final String SECRET_KEY = "minioadmin-secret";
+    private static final String REGION = "us-east-1";
+    private static final String BUCKET = "documents";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    // Region set: MinioClient signs without asking the server for the bucket location
+    private final MinioClient minioClient = MinioClient.builder()
+            .endpoint(ENDPOINT)
+            .credentials(ACCESS_KEY, SECRET_KEY)
+            .region(REGION)
+            .build();
+
+    private final SigV4Presigner presigner = new SigV4Presigner(ACCESS_KEY, SECRET_KEY, REGION, ENDPOINT, ENDPOINT);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/report.pdf",
+            "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/annual report 2024.pdf",
+            "s1/3f/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/a+b=c&d;(1).pdf",
+            "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/Übersicht_résumé_日本.txt"
+    })
+    void getMatchesMinioClient(String key) throws Exception {
+        assertSameAsMinio(Method.GET, "GET", key, null, 900);
+    }
+
+    @Test
+    void putMatchesMinioClient() throws Exception {
+        assertSameAsMinio(Method.PUT, "PUT", "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/upload.bin", null,
+                3600);
+    }
+
+    @Test
+    void multipartPartMatchesMinioClient() throws Exception {
+        assertSameAsMinio(Method.PUT, "PUT", "documents/0190f1c2-7b3a-7c4e-9a51-3f2d8e6b1a20/big.iso",
+                Map.of("uploadId", "YjY2ZTk0ZDEtNWE2Mi00ZjQ4LWI5YjEtMzY2ZWE1ZTk0Zjk0", "partNumber", "7"), 3600);
+    }
+
+    @Test
+    void publicEndpointOnlyChangesTheUrlBase() {
+        SigV4Presigner proxied = new SigV4Presigner(ACCESS_KEY, SECRET_KEY, REGION, ENDPOINT,
+                "https://files.example.com/s3/");
+        Instant now = Instant.parse("2024-05-02T10:15:30Z");
+
+        String direct = presigner.presign("GET", BUCKET, "documents/x.pdf", null, now, 900);
+        String viaProxy = proxied.presign("GET", BUCKET, "documents/x.pdf", null, now, 900);
+
+        assertThat(viaProxy).startsWith("https://files.example.com/s3/documents/documents/x.pdf?");
+        assertThat(query(URI.create(viaProxy))).isEqualTo(query(URI.create(direct)));
+    }
+
+    @Test
+    void expiryOutsideSigV4LimitsIsRejected() {
+        Instant now = Instant.now();
+        assertThatThrownBy(() -> presigner.presign("GET", BUCKET, "k", null, now, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> presigner.presign("GET", BUCKET, "k", null, now, 7 * 24 * 3600 + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertSameAsMinio(Method minioMethod, String method, String key, Map<String, String> extraQuery,
+            int ttlSeconds) throws Exception {
+        GetPresignedObjectUrlArgs.Builder args = GetPresignedObjectUrlArgs.builder()
+                .method(minioMethod)
+                .bucket(BUCKET)
+                .object(key)
+                .expiry(ttlSeconds);
+        if (extraQuery != null) {
+            args.extraQueryParams(extraQuery);
+        }
+        URI expected = URI.create(minioClient.getPresignedObjectUrl(args.build()));
+        Instant signedAt = Instant.from(AMZ_DATE.parse(query(expected).get("X-Amz-Date")));
+
+        URI actual = URI.create(presigner.presign(method, BUCKET, key, extraQuery, signedAt, ttlSeconds));
+
+        assertThat(actual.getRawPath()).isEqualTo(expected.getRawPath());
+        assertThat(query(actual)).isEqualTo(query(expected));
+        assertThat(query(actual).get("X-Amz-Signature")).isEqualTo(query(expected).get("X-Amz-Signature"));
+    }
+
+    // Decoded query parameters (the two clients may order them differently)
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new TreeMap<>();
+        for (String pair : uri.getRawQuery().split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(decode(pair.substring(0, eq)), decode(pair.substring(eq + 1)));
+        }
+        return params;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+package org.doc.document_service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Key to shard resolution: the first path segment names the shard, anything
+ * else (legacy documents/... keys) stays on the default shard.
+ */
+class StorageShardsTest {
+
+    private final StorageShard defaultShard = shard(null, "http://minio:9000", "documents");
+    private final StorageShard s0 = shard("s0", "http://minio:9000", "documents");
+    private final StorageShard s1 = shard("s1", "http://minio-b:9000", "documents-b");
+    private final StorageShard s2 = shard("s2", "http://minio-b:9000", "documents-b");
+
+    private final StorageShards shards = new StorageShards(defaultShard, List.of(s0, s1, s2));
+
+    @Test
+    void keyResolvesToTheShardItNames() {
+        assertThat(shards.resolve("s1/3f/global/0190f1c2-0000-7000-8000-000000000001/a.pdf")).isSameAs(s1);
+        assertThat(shards.resolve("s2/")).isSameAs(s2);
+        // A whole prefix resolves like the keys under it
+        assertThat(shards.resolve("s0/")).isSameAs(s0);
+    }
+
+    @Test
+    void otherKeysStayOnTheDefaultShard() {
+        assertThat(shards.resolve("documents/acme/0190f1c2-0000-7000-8000-000000000001/a.pdf"))
+                .isSameAs(defaultShard);
+        // Only a whole first segment counts
+        assertThat(shards.resolve("s1x/3f/a.pdf")).isSameAs(defaultShard);
+        assertThat(shards.resolve("/s1/a.pdf")).isSameAs(defaultShard);
+        assertThat(shards.resolve("s1")).isSameAs(defaultShard);
+    }
+
+    @Test
+    void keyRootMatchesResolution() {
+        for (StorageShard shard : shards.all()) {
+            assertThat(shards.resolve(shard.getKeyRoot() + "x/a.pdf")).isSameAs(shard);
+        }
+    }
+
+    @Test
+    void duplicateShardIdIsRejected() {
+        assertThatThrownBy(() -> new StorageShards(defaultShard, List.of(s0, shard("s0", "http://other", "b"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("s0");
+    }
+
+    @Test
+    void bucketWideCallsRunOncePerBucket() {
+        assertThat(shards.all()).containsExactly(defaultShard, s0, s1, s2);
+        assertThat(shards.distinctBuckets()).containsExactly(defaultShard, s1);
+        assertThat(shards.isManagedBucket("documents-b")).isTrue();
+        assertThat(shards.isManagedBucket("other")).isFalse();
+    }
+
+    static StorageShard shard(String id, String endpoint, String bucket) {
+        return new StorageShard(id, endpoint, bucket, null, null, null);
+    }
+}
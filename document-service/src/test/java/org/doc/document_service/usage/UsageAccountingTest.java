@@ -0,0 +1,230 @@
+package org.doc.document_service.usage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.doc.document_service.domain.DocumentStatus;
+import org.doc.document_service.domain.OwnerUsage;
+import org.doc.document_service.dto.DocumentStatsResponse;
+import org.doc.document_service.repository.OwnerUsageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Usage deltas: collected per transaction, applied on commit only, readable
+ * before they are flushed, and flushed to a mocked owner_usage table (kept
+ * for the next flush if that fails). Tests drive the transaction by hand.
+ */
+class UsageAccountingTest {
+
+    private static final String OWNER = "owner-1";
+
+    private final OwnerUsageRepository ownerUsageRepository = mock(OwnerUsageRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<OwnerUsage> stored = new ArrayList<>();
+
+    private UsageAccounting usageAccounting;
+
+    @BeforeEach
+    void setUp() {
+        usageAccounting = new UsageAccounting();
+        ReflectionTestUtils.setField(usageAccounting, "ownerUsageRepository", ownerUsageRepository);
+        ReflectionTestUtils.setField(usageAccounting, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(usageAccounting, "meterRegistry", meterRegistry);
+        usageAccounting.init();
+        when(ownerUsageRepository.findByOwnerId(anyString())).thenReturn(stored);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void committedChangeCountsBeforeFlush() {
+        inTransaction(true, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null)));
+
+        DocumentStatsResponse stats = usageAccounting.getStats(OWNER);
+        assertThat(stats.getTotalDocuments()).isEqualTo(1);
+        assertThat(stats.getBytesStored()).isEqualTo(1000);
+        assertThat(stats.getDocumentsByStatus()).isEqualTo(Map.of("UPLOADING", 1L));
+        verify(ownerUsageRepository, never()).add(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void rolledBackChangeIsDropped() {
+        inTransaction(false, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null)));
+
+        assertThat(usageAccounting.getStats(OWNER).getTotalDocuments()).isZero();
+        assertThat(TransactionSynchronizationManager.hasResource(usageAccounting)).isFalse();
+        usageAccounting.flush();
+        verify(ownerUsageRepository, never()).add(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void statusChangeMovesTheDocument() {
+        inTransaction(true, () -> {
+            usageAccounting.changed(OWNER, null, DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null));
+            usageAccounting.changed(OWNER, DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null),
+                    DocumentUsage.of(DocumentStatus.PROCESSED, 1000L, " invoice "));
+        });
+
+        DocumentStatsResponse stats = usageAccounting.getStats(OWNER);
+        assertThat(stats.getTotalDocuments()).isEqualTo(1);
+        assertThat(stats.getDocumentsByStatus()).isEqualTo(Map.of("PROCESSED", 1L));
+        assertThat(stats.getDocumentsByCategory()).isEqualTo(Map.of("invoice", 1L));
+        assertThat(stats.getBytesStored()).isEqualTo(1000);
+    }
+
+    @Test
+    void deleteReleasesEverything() {
+        stored.add(row(OwnerUsage.DOCUMENTS, "PROCESSED", 1));
+        stored.add(row(OwnerUsage.BYTES, "", 1000));
+        stored.add(row(OwnerUsage.CATEGORY, "invoice", 1));
+
+        inTransaction(true, () -> usageAccounting.changed(OWNER,
+                DocumentUsage.of(DocumentStatus.PROCESSED, 1000L, "invoice"),
+                DocumentUsage.of(DocumentStatus.DELETED, 1000L, "invoice")));
+
+        DocumentStatsResponse stats = usageAccounting.getStats(OWNER);
+        assertThat(stats.getTotalDocuments()).isZero();
+        assertThat(stats.getBytesStored()).isZero();
+        assertThat(stats.getDocumentsByStatus()).isEmpty();
+        assertThat(stats.getDocumentsByCategory()).isEmpty();
+    }
+
+    @Test
+    void flushAddsSummedDeltasOnce() {
+        inTransaction(true, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null)));
+        inTransaction(true, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 500L, null)));
+        inTransaction(true, () -> usageAccounting.changed("owner-0", null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 0L, null)));
+
+        usageAccounting.flush();
+
+        // Owners and counters in key order, so concurrent flushes lock rows alike
+        InOrder order = inOrder(ownerUsageRepository);
+        order.verify(ownerUsageRepository).add(eq("owner-0"), eq(OwnerUsage.DOCUMENTS), eq("UPLOADING"), eq(1L),
+                any(Instant.class));
+        order.verify(ownerUsageRepository).add(eq(OWNER), eq(OwnerUsage.BYTES), eq(""), eq(1500L),
+                any(Instant.class));
+        order.verify(ownerUsageRepository).add(eq(OWNER), eq(OwnerUsage.DOCUMENTS), eq("UPLOADING"), eq(2L),
+                any(Instant.class));
+        verify(ownerUsageRepository, times(3)).add(any(), any(), any(), anyLong(), any());
+
+        usageAccounting.flush();
+        verify(ownerUsageRepository, times(3)).add(any(), any(), any(), anyLong(), any());
+        assertThat(flushes("ok")).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForTheNextOne() {
+        inTransaction(true, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 1000L, null)));
+        when(ownerUsageRepository.add(any(), any(), any(), anyLong(), any()))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenReturn(1);
+
+        usageAccounting.flush();
+        assertThat(flushes("failed")).isEqualTo(1);
+        // Still counted while waiting for the retry
+        assertThat(usageAccounting.getStats(OWNER).getTotalDocuments()).isEqualTo(1);
+
+        usageAccounting.flush();
+        verify(ownerUsageRepository, times(2)).add(eq(OWNER), eq(OwnerUsage.BYTES), eq(""), eq(1000L), any());
+        verify(ownerUsageRepository).add(eq(OWNER), eq(OwnerUsage.DOCUMENTS), eq("UPLOADING"), eq(1L), any());
+        assertThat(flushes("ok")).isEqualTo(1);
+    }
+
+    @Test
+    void quotaCountsStoredAndPendingUsage() {
+        ReflectionTestUtils.setField(usageAccounting, "maxDocuments", 3L);
+        ReflectionTestUtils.setField(usageAccounting, "maxBytes", 2000L);
+        stored.add(row(OwnerUsage.DOCUMENTS, "PROCESSED", 1));
+        stored.add(row(OwnerUsage.BYTES, "", 1000));
+        inTransaction(true, () -> usageAccounting.changed(OWNER, null,
+                DocumentUsage.of(DocumentStatus.UPLOADING, 500L, null)));
+
+        usageAccounting.checkQuota(OWNER, 1, 500);
+        assertThatThrownBy(() -> usageAccounting.checkQuota(OWNER, 2, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("document quota exceeded");
+        assertThatThrownBy(() -> usageAccounting.checkQuota(OWNER, 1, 501))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("storage quota exceeded");
+        assertThat(meterRegistry.counter("documents.usage.quota.rejections").count()).isEqualTo(2);
+    }
+
+    @Test
+    void noQuotaConfiguredSkipsTheLookup() {
+        usageAccounting.checkQuota(OWNER, 1_000_000, Long.MAX_VALUE);
+
+        verify(ownerUsageRepository, never()).findByOwnerId(any());
+    }
+
+    @Test
+    void categoryIsTrimmedAndCut() {
+        assertThat(DocumentUsage.of(DocumentStatus.DELETED, 1L, "x")).isNull();
+        assertThat(DocumentUsage.of(DocumentStatus.PROCESSED, null, "  ").category()).isNull();
+        assertThat(DocumentUsage.of(DocumentStatus.PROCESSED, null, "x".repeat(300)).category()).hasSize(128);
+    }
+
+    private void inTransaction(boolean commit, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager
+                    .getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static OwnerUsage row(String metric, String metricKey, long amount) {
+        OwnerUsage row = new OwnerUsage();
+        row.setOwnerId(OWNER);
+        row.setMetric(metric);
+        row.setMetricKey(metricKey);
+        row.setAmount(amount);
+        return row;
+    }
+
+    private double flushes(String result) {
+        return meterRegistry.counter("documents.usage.flushes", "result", result).count();
+    }
+}
@@ -0,0 +1,71 @@
+package org.doc.document_service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CursorCodecTest {
+
+    @Test
+    void keysetCursorRoundTrip() {
+        Instant createdAt = Instant.parse("2024-05-02T10:15:30.123456Z");
+        UUID id = UuidV7.next();
+
+        String cursor = CursorCodec.encode(createdAt, id);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(CursorCodec.decode(cursor)).isEqualTo(new CursorCodec.Cursor(createdAt, id));
+    }
+
+    @Test
+    void sequenceCursorRoundTrip() {
+        for (long sequence : new long[] { 0, 1, 4711, Long.MAX_VALUE }) {
+            assertThat(CursorCodec.decodeSequence(CursorCodec.encodeSequence(sequence))).isEqualTo(sequence);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not base64 !",
+            "%%%",
+            // base64url of "2024-05-02T10:15:30Z" (no separator)
+            "MjAyNC0wNS0wMlQxMDoxNTozMFo",
+    })
+    void malformedKeysetCursorIsRejected(String cursor) {
+        assertThatThrownBy(() -> CursorCodec.decode(cursor)).isInstanceOf(CursorCodec.InvalidCursorException.class)
+                .hasMessage("invalid cursor");
+    }
+
+    @Test
+    void alteredKeysetCursorIsRejected() {
+        assertThatThrownBy(() -> CursorCodec.decode(encode("2024-13-45T10:15:30Z|" + UUID.randomUUID())))
+                .isInstanceOf(CursorCodec.InvalidCursorException.class);
+        assertThatThrownBy(() -> CursorCodec.decode(encode("2024-05-02T10:15:30Z|not-a-uuid")))
+                .isInstanceOf(CursorCodec.InvalidCursorException.class);
+        // One character flipped in a real cursor
+        String cursor = CursorCodec.encode(Instant.now(), UUID.randomUUID());
+        String altered = (cursor.charAt(0) == 'A' ? 'B' : 'A') + cursor.substring(1);
+        assertThatThrownBy(() -> CursorCodec.decode(altered)).isInstanceOf(CursorCodec.InvalidCursorException.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "@@@", "LTE", "YWJj", "OTk5OTk5OTk5OTk5OTk5OTk5OTk5" })
+    void malformedSequenceCursorIsRejected(String cursor) {
+        // "LTE" = "-1", "YWJj" = "abc", the last one overflows a long
+        assertThatThrownBy(() -> CursorCodec.decodeSequence(cursor))
+                .isInstanceOf(CursorCodec.InvalidCursorException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
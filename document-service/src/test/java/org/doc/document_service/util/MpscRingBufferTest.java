@@ -0,0 +1,179 @@
+package org.doc.document_service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class MpscRingBufferTest {
+
+    private record Item(int producer, int sequence) {
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertThat(new MpscRingBuffer<>(2).capacity()).isEqualTo(2);
+        assertThat(new MpscRingBuffer<>(3).capacity()).isEqualTo(4);
+        assertThat(new MpscRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new MpscRingBuffer<>(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new MpscRingBuffer<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nullIsRejected() {
+        assertThatThrownBy(() -> new MpscRingBuffer<String>(4).offer(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void fullBufferRejectsUntilDrained() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(8)).isFalse();
+        assertThat(buffer.size()).isEqualTo(8);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.offer(8)).isTrue();
+        assertThat(buffer.offer(9)).isTrue();
+        assertThat(buffer.offer(10)).isTrue();
+        assertThat(buffer.offer(11)).isFalse();
+    }
+
+    @Test
+    void wrapsAroundInOfferOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        // 1000 laps, the head and tail positions land on every slot
+        for (int lap = 0; lap < 1000; lap++) {
+            int batch = Math.min(1 + lap % 4, buffer.capacity() - buffer.size());
+            for (int i = 0; i < batch; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            buffer.drainTo(drained, 1 + lap % 3);
+        }
+        while (buffer.drainTo(drained, 4) > 0) {
+            // drain the rest
+        }
+        assertThat(buffer.size()).isZero();
+        assertThat(drained).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(drained.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void drainOnEmptyBuffer() {
+        List<Object> drained = new ArrayList<>();
+        assertThat(new MpscRingBuffer<>(4).drainTo(drained, 10)).isZero();
+        assertThat(drained).isEmpty();
+    }
+
+    @RepeatedTest(5)
+    void concurrentProducersFillExactlyCapacity() throws Exception {
+        MpscRingBuffer<Item> buffer = new MpscRingBuffer<>(1024);
+        int producers = 8;
+        List<Integer> accepted = runProducers(producers, 1000, buffer, null);
+
+        assertThat(accepted.stream().mapToInt(Integer::intValue).sum()).isEqualTo(buffer.capacity());
+        assertThat(buffer.size()).isEqualTo(buffer.capacity());
+        List<Item> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, Integer.MAX_VALUE)).isEqualTo(buffer.capacity());
+        assertPerProducerOrder(drained, producers);
+    }
+
+    @RepeatedTest(5)
+    @Timeout(60)
+    void concurrentProducersWithConsumerLoseNothing() throws Exception {
+        // Small buffer, many items: producers hit "full" often and the indexes wrap hundreds of times
+        MpscRingBuffer<Item> buffer = new MpscRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 5_000;
+        List<Item> drained = new ArrayList<>(producers * perProducer);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        Thread consumer = new Thread(() -> {
+            while (producing.get() || buffer.size() > 0) {
+                if (buffer.drainTo(drained, 32) == 0) {
+                    Thread.yield();
+                }
+            }
+        });
+        consumer.start();
+        try {
+            runProducers(producers, perProducer, buffer, producing);
+        } finally {
+            producing.set(false);
+            consumer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        assertThat(consumer.isAlive()).isFalse();
+        assertThat(drained).hasSize(producers * perProducer);
+        assertPerProducerOrder(drained, producers);
+    }
+
+    /**
+     * Each producer offers perProducer items in sequence. With retry set it
+     * retries a full buffer until accepted, otherwise it gives up on the
+     * first rejection.
+     *
+     * @return items each producer got in
+     */
+    private static List<Integer> runProducers(int producers, int perProducer, MpscRingBuffer<Item> buffer,
+            AtomicBoolean retry) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int accepted = 0;
+                    for (int seq = 0; seq < perProducer; seq++) {
+                        Item item = new Item(producer, seq);
+                        while (!buffer.offer(item)) {
+                            if (retry == null) {
+                                return accepted;
+                            }
+                            // Yield rather than spin: on a single core the consumer needs the CPU to free slots
+                            Thread.yield();
+                        }
+                        accepted++;
+                    }
+                    return accepted;
+                }));
+            }
+            start.countDown();
+            List<Integer> accepted = new ArrayList<>();
+            for (Future<Integer> result : results) {
+                accepted.add(result.get(60, TimeUnit.SECONDS));
+            }
+            return accepted;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Items of one producer come out in the order it offered them, without gaps or duplicates
+    private static void assertPerProducerOrder(List<Item> drained, int producers) {
+        int[] expected = new int[producers];
+        for (Item item : drained) {
+            assertThat(item.sequence()).isEqualTo(expected[item.producer()]);
+            expected[item.producer()]++;
+        }
+    }
+}
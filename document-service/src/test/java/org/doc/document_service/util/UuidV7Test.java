@@ -0,0 +1,99 @@
+package org.doc.document_service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    @Test
+    void versionAndVariantBits() {
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = UuidV7.next();
+            assertThat(id.version()).isEqualTo(7);
+            // RFC 9562 variant: binary 10
+            assertThat(id.variant()).isEqualTo(2);
+            assertThat(id.toString().charAt(14)).isEqualTo('7');
+            assertThat(id.toString().charAt(19)).isIn('8', '9', 'a', 'b');
+        }
+    }
+
+    @Test
+    void leadingBitsAreUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        // May run ahead of the clock if the counter overflowed earlier in this JVM
+        assertThat(millis).isGreaterThanOrEqualTo(before).isLessThanOrEqualTo(after + 1000);
+    }
+
+    @Test
+    void sequentialIdsStrictlyIncrease() {
+        // Far more than 4096 per millisecond: exercises the counter carry into the timestamp
+        List<UUID> ids = new ArrayList<>(200_000);
+        for (int i = 0; i < 200_000; i++) {
+            ids.add(UuidV7.next());
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            UUID prev = ids.get(i - 1);
+            UUID next = ids.get(i);
+            assertThat(next).isGreaterThan(prev);
+            // Same order in both column types: char(36) text and binary(16) bytes
+            assertThat(next.toString()).isGreaterThan(prev.toString());
+            assertThat(Arrays.compareUnsigned(bytes(next), bytes(prev))).isPositive();
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<UUID>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<UUID> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(UuidV7.next());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<UUID> all = new HashSet<>();
+            for (Future<List<UUID>> result : results) {
+                List<UUID> ids = result.get();
+                for (int i = 1; i < ids.size(); i++) {
+                    assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+                }
+                all.addAll(ids);
+            }
+            assertThat(all).hasSize(threads * perThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,70 @@
+package org.srh.search_service.consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.srh.search_service.model.DocumentIndex;
+import org.srh.search_service.repo.DocumentSearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Indexes documents whose content matched an already analyzed document by
+ * copying the source's index entry; the AI processor never sees them.
+ *
+ * The source can be PROCESSED before its own index entry exists (the AI
+ * processor writes the metadata back before it emits the search event), so a
+ * missing source fails the message: the binder redelivers it with backoff and
+ * dead-letters it if the source never shows up.
+ */
+@Configuration
+public class DeduplicatedDocumentIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(DeduplicatedDocumentIndexer.class);
+
+    @Autowired
+    private DocumentSearchRepository repository;
+
+    @Bean
+    public Consumer<DocumentDeduplicatedEvent> copyDocumentIndex() {
+        return event -> {
+            DocumentIndex source = repository.findById(event.getSourceDocumentId())
+                    .orElseThrow(() -> new SourceNotIndexedException(event));
+
+            DocumentIndex doc = new DocumentIndex();
+            doc.setId(event.getDocumentId());
+            doc.setOwnerId(event.getOwnerId());
+            doc.setFilename(event.getFilename());
+            doc.setContent(source.getContent());
+            doc.setSummary(source.getSummary());
+            doc.setKeywords(source.getKeywords());
+            doc.setCategory(source.getCategory());
+
+            repository.save(doc);
+            log.info("Indexed duplicate {} from {}", event.getDocumentId(), event.getSourceDocumentId());
+        };
+    }
+
+    // Needs to match the event published by Document Service
+    @lombok.Data
+    public static class DocumentDeduplicatedEvent {
+        private UUID documentId;
+        private String ownerId;
+        private String filename;
+        private UUID sourceDocumentId;
+    }
+
+    /**
+     * The source document has no index entry (yet); thrown so the message is retried.
+     */
+    public static class SourceNotIndexedException extends IllegalStateException {
+
+        SourceNotIndexedException(DocumentDeduplicatedEvent event) {
+            super("Source document " + event.getSourceDocumentId() + " not indexed yet, cannot index duplicate "
+                    + event.getDocumentId());
+        }
+    }
+}